@@ -0,0 +1,100 @@
+package com.zzy.backend.common.lease;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.UUID;
+
+/**
+ * Redis 租约
+ * <p>
+ * 多实例部署时保证后台任务同一时刻只在一个实例上执行：SET NX PX 抢占租约，持有者以令牌续期和释放，
+ * 令牌不匹配（租约已过期被其他实例抢占）时续期失败，持有者应立即停止。
+ * Redis 不可用时视为未抢到租约，任务本轮跳过（宁可少执行一轮，也不重复执行）。
+ */
+@Slf4j
+@Component
+public class LeaseManager {
+
+    private static final String KEY_PREFIX = "lease:";
+
+    /**
+     * 续期：KEYS[1]=租约键，ARGV[1]=令牌，ARGV[2]=有效期（毫秒）
+     */
+    private static final RedisScript<Long> RENEW_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('GET', KEYS[1]) == ARGV[1] then "
+                    + "return redis.call('PEXPIRE', KEYS[1], ARGV[2]) "
+                    + "end "
+                    + "return 0",
+            Long.class);
+
+    /**
+     * 释放：KEYS[1]=租约键，ARGV[1]=令牌
+     */
+    private static final RedisScript<Long> RELEASE_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('GET', KEYS[1]) == ARGV[1] then "
+                    + "return redis.call('DEL', KEYS[1]) "
+                    + "end "
+                    + "return 0",
+            Long.class);
+
+    @Autowired
+    private RedisTemplate<String, Object> redisTemplate;
+
+    /**
+     * 尝试抢占租约
+     *
+     * @param name 租约名称
+     * @param ttl 有效期
+     * @return 持有令牌，未抢到时返回 null
+     */
+    public String tryAcquire(String name, Duration ttl) {
+        String token = UUID.randomUUID().toString();
+        try {
+            Boolean acquired = redisTemplate.opsForValue().setIfAbsent(KEY_PREFIX + name, token, ttl);
+            return Boolean.TRUE.equals(acquired) ? token : null;
+        } catch (Exception e) {
+            log.warn("抢占租约失败, name: {}, 错误: {}", name, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 续期租约
+     *
+     * @param name 租约名称
+     * @param token 持有令牌
+     * @param ttl 新的有效期
+     * @return 是否仍持有租约
+     */
+    public boolean renew(String name, String token, Duration ttl) {
+        try {
+            Long result = redisTemplate.execute(RENEW_SCRIPT, Collections.singletonList(KEY_PREFIX + name),
+                    token, ttl.toMillis());
+            return result != null && result > 0;
+        } catch (Exception e) {
+            log.warn("续期租约失败, name: {}, 错误: {}", name, e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * 释放租约（只释放自己持有的租约）
+     *
+     * @param name 租约名称
+     * @param token 持有令牌
+     */
+    public void release(String name, String token) {
+        try {
+            redisTemplate.execute(RELEASE_SCRIPT, Collections.singletonList(KEY_PREFIX + name), token);
+        } catch (Exception e) {
+            log.warn("释放租约失败, name: {}, 错误: {}", name, e.getMessage());
+        }
+    }
+}
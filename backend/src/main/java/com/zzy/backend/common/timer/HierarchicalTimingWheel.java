@@ -0,0 +1,205 @@
+package com.zzy.backend.common.timer;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 分层时间轮
+ * <p>
+ * 共 4 层，每层 64 个槽：第 0 层每槽 1 个 tick，第 n 层每槽 64^n 个 tick（tick 为 1 秒时约可覆盖 194 天，更远的定时器先放在最高层）。
+ * 定时器按到期 tick 与当前 tick 的差值放入对应层；低一层转完一圈时，把上一层当前槽的定时器按剩余时间重新放入低层（级联）。
+ * 添加、取消都是 O(1)；每个 tick 只处理到期槽和被级联的槽，与时间轮中的定时器总数无关。
+ * <p>
+ * 同一个键只保留一个定时器，重复添加视为改期。到期的键由 {@link #advance(long)} 返回，由调用方在锁外处理。
+ *
+ * @param <K> 定时器键
+ */
+public class HierarchicalTimingWheel<K> {
+
+    private static final int BITS = 6;
+
+    private static final int SLOTS = 1 << BITS;
+
+    private static final long MASK = SLOTS - 1;
+
+    private static final int LEVELS = 4;
+
+    /**
+     * 最高层可表示的最大 tick 差值
+     */
+    private static final long MAX_DELTA = (1L << (BITS * LEVELS)) - 1;
+
+    private final long tickMillis;
+
+    /**
+     * 各层各槽的哨兵节点（双向循环链表）
+     */
+    private final Node<K>[][] buckets;
+
+    /**
+     * 键 -> 定时器节点，用于改期与取消
+     */
+    private final Map<K, Node<K>> timers = new HashMap<>();
+
+    /**
+     * 下一个待处理的 tick
+     */
+    private long currentTick;
+
+    @SuppressWarnings("unchecked")
+    public HierarchicalTimingWheel(long tickMillis, long startMillis) {
+        if (tickMillis <= 0) {
+            throw new IllegalArgumentException("tickMillis must be positive");
+        }
+        this.tickMillis = tickMillis;
+        this.currentTick = startMillis / tickMillis;
+        this.buckets = new Node[LEVELS][SLOTS];
+        for (int level = 0; level < LEVELS; level++) {
+            for (int slot = 0; slot < SLOTS; slot++) {
+                Node<K> head = new Node<>(null, 0);
+                head.prev = head;
+                head.next = head;
+                buckets[level][slot] = head;
+            }
+        }
+    }
+
+    /**
+     * 添加或改期定时器
+     *
+     * @param key 定时器键
+     * @param deadlineMillis 到期时间（毫秒时间戳），已过期的在下一个 tick 到期
+     */
+    public synchronized void schedule(K key, long deadlineMillis) {
+        Node<K> old = timers.remove(key);
+        if (old != null) {
+            unlink(old);
+        }
+        Node<K> node = new Node<>(key, (deadlineMillis + tickMillis - 1) / tickMillis);
+        timers.put(key, node);
+        place(node);
+    }
+
+    /**
+     * 取消定时器
+     *
+     * @param key 定时器键
+     * @return 定时器是否存在
+     */
+    public synchronized boolean cancel(K key) {
+        Node<K> node = timers.remove(key);
+        if (node == null) {
+            return false;
+        }
+        unlink(node);
+        return true;
+    }
+
+    /**
+     * 是否存在该定时器
+     */
+    public synchronized boolean contains(K key) {
+        return timers.containsKey(key);
+    }
+
+    /**
+     * 定时器数量
+     */
+    public synchronized int size() {
+        return timers.size();
+    }
+
+    /**
+     * 推进到指定时间，返回期间到期的定时器键（调用方延迟时逐 tick 追赶）
+     *
+     * @param nowMillis 当前时间（毫秒时间戳）
+     * @return 到期的键
+     */
+    public synchronized List<K> advance(long nowMillis) {
+        long targetTick = nowMillis / tickMillis;
+        List<K> expired = new ArrayList<>();
+        while (currentTick <= targetTick) {
+            int index = (int) (currentTick & MASK);
+            if (index == 0) {
+                // 第 0 层转完一圈：依次级联上层当前槽，某层槽号不为 0 时更高层无需级联
+                for (int level = 1; level < LEVELS; level++) {
+                    int slot = (int) ((currentTick >>> (BITS * level)) & MASK);
+                    cascade(level, slot);
+                    if (slot != 0) {
+                        break;
+                    }
+                }
+            }
+            Node<K> head = buckets[0][index];
+            Node<K> node = head.next;
+            while (node != head) {
+                Node<K> next = node.next;
+                timers.remove(node.key);
+                expired.add(node.key);
+                node = next;
+            }
+            head.prev = head;
+            head.next = head;
+            currentTick++;
+        }
+        return expired;
+    }
+
+    private void cascade(int level, int slot) {
+        Node<K> head = buckets[level][slot];
+        Node<K> node = head.next;
+        head.prev = head;
+        head.next = head;
+        while (node != head) {
+            Node<K> next = node.next;
+            place(node);
+            node = next;
+        }
+    }
+
+    private void place(Node<K> node) {
+        long delta = node.deadlineTick - currentTick;
+        Node<K> head;
+        if (delta < 0) {
+            head = buckets[0][(int) (currentTick & MASK)];
+        } else if (delta > MAX_DELTA) {
+            long tick = currentTick + MAX_DELTA;
+            head = buckets[LEVELS - 1][(int) ((tick >>> (BITS * (LEVELS - 1))) & MASK)];
+        } else {
+            int level = 0;
+            while (delta >= (1L << (BITS * (level + 1)))) {
+                level++;
+            }
+            head = buckets[level][(int) ((node.deadlineTick >>> (BITS * level)) & MASK)];
+        }
+        node.prev = head.prev;
+        node.next = head;
+        head.prev.next = node;
+        head.prev = node;
+    }
+
+    private static <K> void unlink(Node<K> node) {
+        node.prev.next = node.next;
+        node.next.prev = node.prev;
+        node.prev = null;
+        node.next = null;
+    }
+
+    private static final class Node<K> {
+
+        private final K key;
+
+        private final long deadlineTick;
+
+        private Node<K> prev;
+
+        private Node<K> next;
+
+        private Node(K key, long deadlineTick) {
+            this.key = key;
+            this.deadlineTick = deadlineTick;
+        }
+    }
+}
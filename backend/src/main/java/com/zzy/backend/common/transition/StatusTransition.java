@@ -0,0 +1,63 @@
+package com.zzy.backend.common.transition;
+
+import lombok.Getter;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 状态流转定义：允许的起始状态 -> 目标状态
+ */
+@Getter
+public final class StatusTransition {
+
+    /**
+     * 预约：取消（待确认、已确认 -> 已取消）
+     */
+    public static final StatusTransition APPOINTMENT_CANCEL = new StatusTransition("取消预约", 4, 1, 2);
+
+    /**
+     * 预约：超时取消（课程开始前教师未确认，待确认 -> 已取消）
+     */
+    public static final StatusTransition APPOINTMENT_EXPIRE = new StatusTransition("超时取消预约", 4, 1);
+
+    /**
+     * 预约：确认（待确认 -> 已确认）
+     */
+    public static final StatusTransition APPOINTMENT_CONFIRM = new StatusTransition("确认预约", 2, 1);
+
+    /**
+     * 预约：完成（已确认 -> 已完成）
+     */
+    public static final StatusTransition APPOINTMENT_COMPLETE = new StatusTransition("完成预约", 3, 2);
+
+    /**
+     * 支付：上传凭证（待支付 -> 待确认）
+     */
+    public static final StatusTransition PAYMENT_UPLOAD_PROOF = new StatusTransition("上传支付凭证", 2, 1);
+
+    /**
+     * 支付：更新支付方式（仅待支付状态，状态不变）
+     */
+    public static final StatusTransition PAYMENT_UPDATE_METHOD = new StatusTransition("更新支付方式", 1, 1);
+
+    private final String name;
+
+    private final int toStatus;
+
+    private final List<Integer> fromStatuses;
+
+    private StatusTransition(String name, int toStatus, Integer... fromStatuses) {
+        this.name = name;
+        this.toStatus = toStatus;
+        this.fromStatuses = Collections.unmodifiableList(Arrays.asList(fromStatuses));
+    }
+
+    /**
+     * 是否允许从该状态流转
+     */
+    public boolean allows(Integer status) {
+        return status != null && fromStatuses.contains(status);
+    }
+}
@@ -0,0 +1,102 @@
+package com.zzy.backend.common.transition;
+
+import com.zzy.backend.dto.response.common.StatusSnapshotResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Objects;
+import java.util.function.Supplier;
+
+/**
+ * 状态流转执行器
+ * <p>
+ * 每次流转只执行一条条件更新（WHERE id = ? AND status IN (...) [AND version = ?]，并将 version 加一），
+ * 不预先查询。更新未生效时读取一次状态快照判断原因：不存在、无权限、状态不允许，或版本号已被并发修改。
+ * 版本号来自客户端时（用户看到的数据版本），版本不一致直接返回冲突，由用户刷新后重新操作；
+ * 版本号由服务端读取时（如后台任务扫描），以最新版本号立即重试：快照为当前读（FOR UPDATE），本事务已持有行锁，
+ * 重试前其他事务无法再修改该行，因此不在持锁期间休眠退避。
+ */
+@Slf4j
+@Component
+public class StatusTransitionEngine {
+
+    /**
+     * 条件更新
+     */
+    @FunctionalInterface
+    public interface ConditionalUpdate {
+        /**
+         * 执行条件更新
+         *
+         * @param expectedVersion 期望版本号（为空时不校验版本）
+         * @return 影响行数
+         */
+        int apply(Integer expectedVersion);
+    }
+
+    @Value("${transition.max-attempts:3}")
+    private int maxAttempts;
+
+    /**
+     * 执行状态流转，期望版本号由客户端提交，版本不一致时返回 CONFLICT，不重试
+     *
+     * @param transition 状态流转定义（更新语句需使用其起始状态与目标状态）
+     * @param ownerId 操作人（为空时不校验归属）
+     * @param expectedVersion 期望版本号（为空时只按状态条件更新）
+     * @param update 条件更新
+     * @param probe 读取状态快照（需为当前读，如 SELECT ... FOR UPDATE）
+     * @return 流转结果
+     */
+    public TransitionOutcome execute(StatusTransition transition, Long ownerId, Integer expectedVersion,
+                                     ConditionalUpdate update, Supplier<StatusSnapshotResponse> probe) {
+        return execute(transition, ownerId, expectedVersion, update, probe, 1);
+    }
+
+    /**
+     * 执行状态流转，期望版本号由服务端读取，版本不一致且状态仍允许时以最新版本号重试
+     *
+     * @param transition 状态流转定义（更新语句需使用其起始状态与目标状态）
+     * @param ownerId 操作人（为空时不校验归属）
+     * @param expectedVersion 服务端读取到的版本号
+     * @param update 条件更新
+     * @param probe 读取状态快照（需为当前读，如 SELECT ... FOR UPDATE）
+     * @return 流转结果
+     */
+    public TransitionOutcome executeWithRetry(StatusTransition transition, Long ownerId, Integer expectedVersion,
+                                              ConditionalUpdate update, Supplier<StatusSnapshotResponse> probe) {
+        return execute(transition, ownerId, expectedVersion, update, probe, maxAttempts);
+    }
+
+    private TransitionOutcome execute(StatusTransition transition, Long ownerId, Integer expectedVersion,
+                                      ConditionalUpdate update, Supplier<StatusSnapshotResponse> probe, int attempts) {
+        Integer version = expectedVersion;
+        StatusSnapshotResponse snapshot = null;
+        for (int attempt = 1; attempt <= attempts; attempt++) {
+            if (update.apply(version) > 0) {
+                return new TransitionOutcome(TransitionOutcome.Result.SUCCESS, transition.getToStatus(), attempt);
+            }
+
+            snapshot = probe.get();
+            if (snapshot == null) {
+                return new TransitionOutcome(TransitionOutcome.Result.NOT_FOUND, null, attempt);
+            }
+            if (ownerId != null && !ownerId.equals(snapshot.getOwnerId())) {
+                return new TransitionOutcome(TransitionOutcome.Result.FORBIDDEN, snapshot.getStatus(), attempt);
+            }
+            if (!transition.allows(snapshot.getStatus())) {
+                return new TransitionOutcome(TransitionOutcome.Result.INVALID_STATUS, snapshot.getStatus(), attempt);
+            }
+            if (version == null || Objects.equals(version, snapshot.getVersion())) {
+                return new TransitionOutcome(TransitionOutcome.Result.REJECTED, snapshot.getStatus(), attempt);
+            }
+
+            // 版本号已被并发修改且状态仍允许流转：允许重试时以最新版本号重试（快照已锁定该行）
+            log.info("状态流转版本冲突, transition: {}, id: {}, expected: {}, actual: {}, attempt: {}",
+                    transition.getName(), snapshot.getId(), version, snapshot.getVersion(), attempt);
+            version = snapshot.getVersion();
+        }
+        return new TransitionOutcome(TransitionOutcome.Result.CONFLICT,
+                snapshot != null ? snapshot.getStatus() : null, attempts);
+    }
+}
@@ -0,0 +1,62 @@
+package com.zzy.backend.common.transition;
+
+import lombok.Getter;
+
+/**
+ * 状态流转结果
+ */
+@Getter
+public class TransitionOutcome {
+
+    /**
+     * 结果类型
+     */
+    public enum Result {
+        /**
+         * 流转成功
+         */
+        SUCCESS,
+        /**
+         * 记录不存在
+         */
+        NOT_FOUND,
+        /**
+         * 记录不属于当前用户
+         */
+        FORBIDDEN,
+        /**
+         * 当前状态不允许该流转
+         */
+        INVALID_STATUS,
+        /**
+         * 状态允许但更新语句中的其他条件不满足
+         */
+        REJECTED,
+        /**
+         * 版本号已被并发修改（客户端提交的版本已过期，或服务端重试次数用完）
+         */
+        CONFLICT
+    }
+
+    private final Result result;
+
+    /**
+     * 未成功时记录的当前状态
+     */
+    private final Integer currentStatus;
+
+    /**
+     * 执行更新的次数
+     */
+    private final int attempts;
+
+    TransitionOutcome(Result result, Integer currentStatus, int attempts) {
+        this.result = result;
+        this.currentStatus = currentStatus;
+        this.attempts = attempts;
+    }
+
+    public boolean isSuccess() {
+        return result == Result.SUCCESS;
+    }
+}
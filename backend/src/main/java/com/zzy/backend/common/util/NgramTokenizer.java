@@ -0,0 +1,89 @@
+package com.zzy.backend.common.util;
+
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * N-gram 分词工具类
+ * 中日韩文字按相邻二字切分（bigram），连续的字母数字按整词切分并转小写，其他字符视为分隔符
+ */
+public class NgramTokenizer {
+
+    private NgramTokenizer() {
+    }
+
+    /**
+     * 分词（结果去重，保持出现顺序）
+     * 单独出现的一个汉字作为单字词元
+     *
+     * @param text 文本
+     * @return 词元集合
+     */
+    public static Set<String> tokenize(String text) {
+        Set<String> tokens = new LinkedHashSet<>();
+        if (text == null || text.isEmpty()) {
+            return tokens;
+        }
+        String lower = text.toLowerCase(Locale.ROOT);
+        int length = lower.length();
+        int i = 0;
+        while (i < length) {
+            char c = lower.charAt(i);
+            if (isCjk(c)) {
+                int start = i;
+                while (i < length && isCjk(lower.charAt(i))) {
+                    i++;
+                }
+                if (i - start == 1) {
+                    tokens.add(String.valueOf(c));
+                } else {
+                    for (int j = start; j < i - 1; j++) {
+                        tokens.add(lower.substring(j, j + 2));
+                    }
+                }
+            } else if (Character.isLetterOrDigit(c)) {
+                int start = i;
+                while (i < length && Character.isLetterOrDigit(lower.charAt(i)) && !isCjk(lower.charAt(i))) {
+                    i++;
+                }
+                tokens.add(lower.substring(start, i));
+            } else {
+                i++;
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * 按字符切分相邻二字（不区分文字类型，转小写），用于子串匹配的候选过滤
+     * 长度不足 2 的文本返回空集合
+     *
+     * @param text 文本
+     * @return 二字词元集合
+     */
+    public static Set<String> bigrams(String text) {
+        Set<String> grams = new LinkedHashSet<>();
+        if (text == null || text.length() < 2) {
+            return grams;
+        }
+        String lower = text.toLowerCase(Locale.ROOT);
+        for (int i = 0; i < lower.length() - 1; i++) {
+            grams.add(lower.substring(i, i + 2));
+        }
+        return grams;
+    }
+
+    /**
+     * 是否为中日韩文字
+     */
+    public static boolean isCjk(char c) {
+        Character.UnicodeBlock block = Character.UnicodeBlock.of(c);
+        return block == Character.UnicodeBlock.CJK_UNIFIED_IDEOGRAPHS
+                || block == Character.UnicodeBlock.CJK_UNIFIED_IDEOGRAPHS_EXTENSION_A
+                || block == Character.UnicodeBlock.CJK_COMPATIBILITY_IDEOGRAPHS
+                || block == Character.UnicodeBlock.HIRAGANA
+                || block == Character.UnicodeBlock.KATAKANA
+                || block == Character.UnicodeBlock.HANGUL_SYLLABLES;
+    }
+}
@@ -2,6 +2,8 @@ package com.zzy.backend.common.util;
 
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.atomic.AtomicInteger;
 
 /**
@@ -30,6 +32,16 @@ public class OrderNoGenerator {
         return generateOrderNo("AP");
     }
 
+    /**
+     * 批量生成预约订单号（一次加锁生成连续序列号）
+     *
+     * @param count 数量
+     * @return 订单号列表
+     */
+    public static List<String> generateAppointmentOrderNos(int count) {
+        return generateOrderNos("AP", count);
+    }
+
     /**
      * 生成支付订单号
      * 格式：PAY + yyyyMMdd + 6位序列号
@@ -82,6 +94,21 @@ public class OrderNoGenerator {
         return prefix + dateStr + sequenceStr;
     }
 
+    /**
+     * 批量生成订单号（通用方法）
+     *
+     * @param prefix 订单号前缀
+     * @param count 数量
+     * @return 订单号列表
+     */
+    private static synchronized List<String> generateOrderNos(String prefix, int count) {
+        List<String> orderNos = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            orderNos.add(generateOrderNo(prefix));
+        }
+        return orderNos;
+    }
+
     /**
      * 生成自定义前缀的订单号
      * 
@@ -40,6 +40,7 @@ public class WebMvcConfig implements WebMvcConfigurer {
                         "/common/teaching-stages", // 教学阶段列表（不需要认证）
                         "/common/subjects",        // 科目列表（不需要认证）
                         "/uploads/**",             // 静态资源（不需要认证）
+                        "/ws/**",                  // WebSocket 握手（由 WebSocketAuthInterceptor 认证）
                         "/doc.html",               // Knife4j 文档
                         "/webjars/**",             // Knife4j 静态资源
                         "/v3/api-docs/**",         // OpenAPI 文档
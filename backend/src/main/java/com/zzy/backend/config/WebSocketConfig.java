@@ -0,0 +1,40 @@
+package com.zzy.backend.config;
+
+import com.zzy.backend.interceptor.WebSocketAuthInterceptor;
+import com.zzy.backend.websocket.ChatWebSocketHandler;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.socket.config.annotation.EnableWebSocket;
+import org.springframework.web.socket.config.annotation.WebSocketConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketHandlerRegistry;
+
+import java.util.Arrays;
+
+/**
+ * WebSocket 配置类
+ * 推送端点：/ws（实际路径：/api/ws?token=xxx）
+ */
+@Configuration
+@EnableWebSocket
+public class WebSocketConfig implements WebSocketConfigurer {
+
+    @Value("${cors.allowed-origins}")
+    private String allowedOrigins;
+
+    @Autowired
+    private ChatWebSocketHandler chatWebSocketHandler;
+
+    @Autowired
+    private WebSocketAuthInterceptor webSocketAuthInterceptor;
+
+    @Override
+    public void registerWebSocketHandlers(WebSocketHandlerRegistry registry) {
+        String[] origins = Arrays.stream(allowedOrigins.split(","))
+                .map(String::trim)
+                .toArray(String[]::new);
+        registry.addHandler(chatWebSocketHandler, "/ws")
+                .addInterceptors(webSocketAuthInterceptor)
+                .setAllowedOriginPatterns(origins);
+    }
+}
@@ -0,0 +1,45 @@
+package com.zzy.backend.controller.common;
+
+import com.zzy.backend.common.Result;
+import com.zzy.backend.service.common.PresenceService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * 在线状态控制器
+ */
+@RestController
+@RequestMapping("/presence")
+@Tag(name = "在线状态", description = "在线状态心跳")
+public class PresenceController {
+
+    @Autowired
+    private PresenceService presenceService;
+
+    /**
+     * 心跳（未建立 WebSocket 连接的客户端定期调用）
+     */
+    @PostMapping("/heartbeat")
+    @Operation(summary = "心跳", description = "标记当前用户在线，超过心跳有效期未续期即视为离线")
+    public Result<Void> heartbeat(HttpServletRequest request) {
+        Long userId = (Long) request.getAttribute("userId");
+        presenceService.heartbeat(userId);
+        return Result.success("心跳成功", null);
+    }
+
+    /**
+     * 下线
+     */
+    @PostMapping("/offline")
+    @Operation(summary = "下线", description = "立即标记当前用户离线")
+    public Result<Void> offline(HttpServletRequest request) {
+        Long userId = (Long) request.getAttribute("userId");
+        presenceService.offline(userId);
+        return Result.success("下线成功", null);
+    }
+}
@@ -7,9 +7,11 @@ import com.zzy.backend.common.page.PageResult;
 import com.zzy.backend.dto.request.student.appointment.AppointmentListRequest;
 import com.zzy.backend.dto.request.student.appointment.CancelAppointmentRequest;
 import com.zzy.backend.dto.request.student.appointment.CreateAppointmentRequest;
+import com.zzy.backend.dto.request.student.appointment.CreateRecurringAppointmentRequest;
 import com.zzy.backend.dto.response.student.appointment.AppointmentDetailResponse;
 import com.zzy.backend.dto.response.student.appointment.AppointmentListItemResponse;
 import com.zzy.backend.dto.response.student.appointment.CreateAppointmentResponse;
+import com.zzy.backend.dto.response.student.appointment.CreateRecurringAppointmentResponse;
 import com.zzy.backend.service.student.appointment.AppointmentService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -63,6 +65,37 @@ public class AppointmentController {
         }
     }
 
+    /**
+     * 创建周期预约
+     *
+     * @param request 创建周期预约请求
+     * @param httpRequest HTTP请求对象
+     * @return 周期预约ID及各次课程的预约
+     */
+    @PostMapping("/recurring")
+    @Operation(summary = "创建周期预约", description = "按每周固定时间段在起止日期内批量预约，任一日期冲突则整体失败")
+    public Result<CreateRecurringAppointmentResponse> createRecurringAppointments(
+            @Valid @RequestBody CreateRecurringAppointmentRequest request,
+            HttpServletRequest httpRequest) {
+        log.info("创建周期预约请求, request: {}", request);
+
+        Long studentId = (Long) httpRequest.getAttribute("userId");
+        if (studentId == null) {
+            return Result.unauthorized("未登录或Token无效");
+        }
+
+        try {
+            CreateRecurringAppointmentResponse response = appointmentService.createRecurringAppointments(request, studentId);
+            return Result.success("预约成功，共" + response.getCount() + "次课程，等待教师确认", response);
+        } catch (BusinessException e) {
+            log.error("创建周期预约失败: {}", e.getMessage());
+            return Result.error(ResponseCode.BUSINESS_ERROR, e.getMessage());
+        } catch (Exception e) {
+            log.error("创建周期预约失败", e);
+            return Result.error("预约失败，请稍后重试");
+        }
+    }
+
     /**
      * 获取预约列表
      *
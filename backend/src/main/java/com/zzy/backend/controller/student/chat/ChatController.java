@@ -4,8 +4,10 @@ import com.zzy.backend.common.Result;
 import com.zzy.backend.dto.request.student.chat.SendMessageRequest;
 import com.zzy.backend.dto.response.student.chat.ChatListItemResponse;
 import com.zzy.backend.dto.response.student.chat.ChatRelationshipResponse;
+import com.zzy.backend.dto.response.student.chat.MessageCursorResponse;
 import com.zzy.backend.dto.response.student.chat.MessageResponse;
 import com.zzy.backend.dto.response.student.chat.UnreadCountResponse;
+import com.zzy.backend.service.student.chat.ChatSearchService;
 import com.zzy.backend.service.student.chat.ChatService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -29,15 +31,21 @@ public class ChatController {
     @Autowired
     private ChatService chatService;
 
+    @Autowired
+    private ChatSearchService chatSearchService;
+
     /**
      * 获取聊天列表
      */
     @GetMapping("/relationships")
-    @Operation(summary = "获取聊天列表", description = "获取当前学生的所有聊天会话列表")
-    public Result<List<ChatListItemResponse>> getChatList(HttpServletRequest request) {
-        log.info("查询聊天列表");
+    @Operation(summary = "获取聊天列表", description = "获取当前学生的聊天会话列表，按最后消息时间倒序；不传 page 时返回全部")
+    public Result<List<ChatListItemResponse>> getChatList(
+            @RequestParam(required = false) Integer page,
+            @RequestParam(required = false, defaultValue = "20") Integer pageSize,
+            HttpServletRequest request) {
+        log.info("查询聊天列表, page: {}, pageSize: {}", page, pageSize);
         Long userId = (Long) request.getAttribute("userId");
-        List<ChatListItemResponse> list = chatService.getChatList(userId);
+        List<ChatListItemResponse> list = chatService.getChatList(userId, page, pageSize);
         return Result.success("获取成功", list);
     }
 
@@ -57,6 +65,40 @@ public class ChatController {
         return Result.success("获取成功", messages);
     }
 
+    /**
+     * 获取聊天消息列表（游标分页）
+     */
+    @GetMapping("/messages/{relationshipId}/cursor")
+    @Operation(summary = "游标获取聊天消息", description = "按消息ID游标加载：before 向前加载历史，after 增量拉取新消息，均不传时返回最新一页")
+    public Result<MessageCursorResponse> getChatMessagesByCursor(
+            @PathVariable Long relationshipId,
+            @RequestParam(required = false) Long before,
+            @RequestParam(required = false) Long after,
+            @RequestParam(required = false, defaultValue = "20") Integer limit,
+            HttpServletRequest request) {
+        log.info("游标查询聊天消息, relationshipId: {}, before: {}, after: {}, limit: {}", relationshipId, before, after, limit);
+        Long userId = (Long) request.getAttribute("userId");
+        MessageCursorResponse response = chatService.getChatMessagesByCursor(relationshipId, userId, before, after, limit);
+        return Result.success("获取成功", response);
+    }
+
+    /**
+     * 搜索聊天记录
+     */
+    @GetMapping("/search")
+    @Operation(summary = "搜索聊天记录", description = "在当前用户的会话中按关键词搜索文本消息，结果按时间倒序；可用 before 传入上页最后一条消息ID继续翻页")
+    public Result<List<MessageResponse>> searchMessages(
+            @RequestParam String keyword,
+            @RequestParam(required = false) Long relationshipId,
+            @RequestParam(required = false) Long before,
+            @RequestParam(required = false, defaultValue = "20") Integer limit,
+            HttpServletRequest request) {
+        log.info("搜索聊天记录, keyword: {}, relationshipId: {}, before: {}", keyword, relationshipId, before);
+        Long userId = (Long) request.getAttribute("userId");
+        List<MessageResponse> messages = chatSearchService.search(userId, keyword, relationshipId, before, limit);
+        return Result.success("获取成功", messages);
+    }
+
     /**
      * 发送消息
      */
@@ -163,6 +163,7 @@ public class PaymentController {
      *
      * @param id 支付ID
      * @param paymentMethod 支付方式
+     * @param version 支付记录版本号（可选）
      * @param httpRequest HTTP请求对象
      * @return 操作结果
      */
@@ -171,6 +172,7 @@ public class PaymentController {
     public Result<Void> updatePaymentMethod(
             @PathVariable Long id,
             @RequestParam Integer paymentMethod,
+            @RequestParam(required = false) Integer version,
             HttpServletRequest httpRequest) {
         log.info("更新支付方式请求, id: {}, paymentMethod: {}", id, paymentMethod);
 
@@ -181,7 +183,7 @@ public class PaymentController {
         }
 
         try {
-            paymentService.updatePaymentMethod(id, paymentMethod, studentId);
+            paymentService.updatePaymentMethod(id, paymentMethod, version, studentId);
             return Result.<Void>success("支付方式更新成功", null);
         } catch (BusinessException e) {
             log.error("更新支付方式失败: {}", e.getMessage());
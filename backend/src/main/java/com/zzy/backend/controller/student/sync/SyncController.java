@@ -0,0 +1,41 @@
+package com.zzy.backend.controller.student.sync;
+
+import com.zzy.backend.common.Result;
+import com.zzy.backend.dto.response.student.sync.SyncResponse;
+import com.zzy.backend.service.student.sync.SyncService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * 增量同步控制器
+ */
+@Slf4j
+@RestController
+@RequestMapping("/sync")
+@Tag(name = "增量同步", description = "学生端-聊天与通知增量同步")
+public class SyncController {
+
+    @Autowired
+    private SyncService syncService;
+
+    /**
+     * 增量同步
+     */
+    @GetMapping
+    @Operation(summary = "增量同步", description = "返回序列号 since 之后变化的会话、消息与通知；首次同步不传 since，fullResync 为 true 时需全量刷新")
+    public Result<SyncResponse> sync(
+            @RequestParam(required = false) Long since,
+            HttpServletRequest request) {
+        log.info("增量同步, since: {}", since);
+        Long userId = (Long) request.getAttribute("userId");
+        SyncResponse response = syncService.sync(userId, since);
+        return Result.success("获取成功", response);
+    }
+}
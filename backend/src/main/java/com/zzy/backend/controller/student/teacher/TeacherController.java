@@ -2,10 +2,14 @@ package com.zzy.backend.controller.student.teacher;
 
 import com.zzy.backend.common.Result;
 import com.zzy.backend.common.page.PageResult;
+import com.zzy.backend.dto.request.student.teacher.TeacherAvailabilityRequest;
 import com.zzy.backend.dto.request.student.teacher.TeacherListRequest;
+import com.zzy.backend.dto.response.student.teacher.SlotCalendarResponse;
 import com.zzy.backend.dto.response.student.teacher.TeacherDetailResponse;
 import com.zzy.backend.dto.response.student.teacher.TeacherListItemResponse;
+import com.zzy.backend.service.student.teacher.TeacherAvailabilityService;
 import com.zzy.backend.service.student.teacher.TeacherService;
+import com.zzy.backend.service.student.teacher.TeacherSlotService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.extern.slf4j.Slf4j;
@@ -13,6 +17,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 /**
@@ -27,6 +32,12 @@ public class TeacherController {
     @Autowired
     private TeacherService teacherService;
 
+    @Autowired
+    private TeacherAvailabilityService teacherAvailabilityService;
+
+    @Autowired
+    private TeacherSlotService teacherSlotService;
+
     /**
      * 获取教师列表
      *
@@ -41,6 +52,20 @@ public class TeacherController {
         return Result.success(result);
     }
 
+    /**
+     * 查询指定时间段有空的教师
+     *
+     * @param request 查询请求参数
+     * @return 教师列表
+     */
+    @GetMapping("/available")
+    @Operation(summary = "按时间查找空闲教师", description = "查询在指定日期时间段内时间表可约且没有冲突预约的教师，可按阶段和科目筛选")
+    public Result<PageResult<TeacherListItemResponse>> getAvailableTeachers(TeacherAvailabilityRequest request) {
+        log.info("查询空闲教师, 参数: {}", request);
+        PageResult<TeacherListItemResponse> result = teacherAvailabilityService.search(request);
+        return Result.success(result);
+    }
+
     /**
      * 根据教师 id 查询详细信息
      *
@@ -57,5 +82,20 @@ public class TeacherController {
         }
         return Result.success(result);
     }
-}
 
+    /**
+     * 查询教师可预约日历
+     *
+     * @param id 教师用户ID
+     * @param days 天数（从今天起）
+     * @return 可预约日历
+     */
+    @GetMapping("/{id}/slots")
+    @Operation(summary = "获取教师可预约日历", description = "返回教师未来若干天按日展开的时间段，已被预约的时间段标记为不可预约")
+    public Result<SlotCalendarResponse> getTeacherSlots(@PathVariable Long id,
+                                                        @RequestParam(required = false) Integer days) {
+        log.info("查询教师可预约日历, id: {}, days: {}", id, days);
+        SlotCalendarResponse result = teacherSlotService.getSlotCalendar(id, days);
+        return Result.success(result);
+    }
+}
@@ -15,5 +15,10 @@ public class CancelAppointmentRequest {
     @NotBlank(message = "取消原因不能为空")
     @Size(max = 500, message = "取消原因长度不能超过500个字符")
     private String reason;
+
+    /**
+     * 预约版本号（可选，取自预约列表或详情；为空时只按状态校验）
+     */
+    private Integer version;
 }
 
@@ -36,5 +36,10 @@ public class UploadPaymentProofRequest {
      * 转账账号（可选）
      */
     private String transferAccount;
+
+    /**
+     * 支付记录版本号（可选，取自支付详情；为空时只按状态校验）
+     */
+    private Integer version;
 }
 
@@ -0,0 +1,59 @@
+package com.zzy.backend.dto.request.student.teacher;
+
+import lombok.Data;
+
+/**
+ * 教师空闲查询请求DTO（查询在指定时间段内有空的教师）
+ */
+@Data
+public class TeacherAvailabilityRequest {
+    /**
+     * 页码，从1开始
+     */
+    private Integer page = 1;
+
+    /**
+     * 每页数量
+     */
+    private Integer pageSize = 12;
+
+    /**
+     * 日期，格式：yyyy-MM-dd
+     */
+    private String date;
+
+    /**
+     * 开始时间，格式：HH:mm
+     */
+    private String startTime;
+
+    /**
+     * 结束时间，格式：HH:mm
+     */
+    private String endTime;
+
+    /**
+     * 教学阶段ID
+     */
+    private Integer stageId;
+
+    /**
+     * 科目ID
+     */
+    private Integer subjectId;
+
+    /**
+     * 验证并修正分页参数
+     */
+    public void validate() {
+        if (page == null || page < 1) {
+            page = 1;
+        }
+        if (pageSize == null || pageSize < 1) {
+            pageSize = 12;
+        }
+        if (pageSize > 100) {
+            pageSize = 100; // 最大100条
+        }
+    }
+}
@@ -2,6 +2,7 @@ package com.zzy.backend.dto.request.student.teacher;
 
 import lombok.Data;
 import java.math.BigDecimal;
+import java.util.Collection;
 
 /**
  * 教师列表查询请求DTO
@@ -49,6 +50,33 @@ TeacherListRequest {
      */
     private BigDecimal maxPrice;
 
+    /**
+     * 是否已认证（为空不过滤）
+     */
+    private Boolean certified;
+
+    /**
+     * 是否返回分面统计（各阶段、科目的教师数）
+     */
+    private Boolean withFacets;
+
+    /**
+     * 在线用户ID（由服务端按在线快照填充，仅用于数据库查询在线教师）
+     */
+    private Collection<Long> onlineUserIds;
+
+    /**
+     * 排除的教师ID（由服务端填充为符合条件的在线教师，仅用于数据库分页查询离线教师）
+     */
+    private Collection<Long> excludedUserIds;
+
+    /**
+     * 离线教师分页的偏移量与数量（由服务端按当前页已占用的在线教师数计算）
+     */
+    private Integer offlineOffset;
+
+    private Integer offlineLimit;
+
     /**
      * 验证并修正分页参数
      */
@@ -0,0 +1,29 @@
+package com.zzy.backend.dto.response.common;
+
+import lombok.Data;
+
+/**
+ * 状态快照DTO（状态流转未生效时用于判断原因）
+ */
+@Data
+public class StatusSnapshotResponse {
+    /**
+     * 记录ID
+     */
+    private Long id;
+
+    /**
+     * 归属用户ID（学生用户ID）
+     */
+    private Long ownerId;
+
+    /**
+     * 当前状态
+     */
+    private Integer status;
+
+    /**
+     * 版本号
+     */
+    private Integer version;
+}
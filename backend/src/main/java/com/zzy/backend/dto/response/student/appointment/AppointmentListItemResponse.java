@@ -75,5 +75,9 @@ public class AppointmentListItemResponse {
      * 创建时间
      */
     private LocalDateTime createdAt;
-}
 
+    /**
+     * 版本号（取消、修改等操作时回传，用于并发修改校验）
+     */
+    private Integer version;
+}
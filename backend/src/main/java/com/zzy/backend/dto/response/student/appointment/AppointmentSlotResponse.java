@@ -0,0 +1,37 @@
+package com.zzy.backend.dto.response.student.appointment;
+
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * 预约占用时间段DTO
+ */
+@Data
+public class AppointmentSlotResponse {
+    /**
+     * 预约ID
+     */
+    private Long id;
+
+    /**
+     * 教师用户ID
+     */
+    private Long teacherId;
+
+    /**
+     * 预约日期
+     */
+    private LocalDate appointmentDate;
+
+    /**
+     * 开始时间
+     */
+    private LocalTime startTime;
+
+    /**
+     * 结束时间
+     */
+    private LocalTime endTime;
+}
@@ -0,0 +1,31 @@
+package com.zzy.backend.dto.response.student.appointment;
+
+import lombok.Data;
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * 创建周期预约响应DTO
+ */
+@Data
+public class CreateRecurringAppointmentResponse {
+    /**
+     * 周期预约ID
+     */
+    private Long seriesId;
+
+    /**
+     * 课程次数
+     */
+    private Integer count;
+
+    /**
+     * 全部课程总金额
+     */
+    private BigDecimal totalAmount;
+
+    /**
+     * 各次课程的预约
+     */
+    private List<CreateAppointmentResponse> appointments;
+}
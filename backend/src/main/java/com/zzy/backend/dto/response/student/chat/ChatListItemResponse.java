@@ -48,6 +48,11 @@ public class ChatListItemResponse {
      */
     private Integer lastMessageType;
 
+    /**
+     * 最后一条消息ID
+     */
+    private Long lastMessageId;
+
     /**
      * 最后消息时间
      */
@@ -0,0 +1,31 @@
+package com.zzy.backend.dto.response.student.chat;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 聊天消息游标分页响应DTO
+ */
+@Data
+public class MessageCursorResponse {
+    /**
+     * 消息列表（按时间正序）
+     */
+    private List<MessageResponse> list;
+
+    /**
+     * 是否还有更多消息（before 模式表示更早的历史，after 模式表示更新的消息）
+     */
+    private Boolean hasMore;
+
+    /**
+     * 向前翻页游标（下次加载更早消息时作为 before 传入）
+     */
+    private Long beforeCursor;
+
+    /**
+     * 增量拉取游标（下次拉取新消息时作为 after 传入）
+     */
+    private Long afterCursor;
+}
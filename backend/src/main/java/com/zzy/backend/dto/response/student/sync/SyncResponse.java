@@ -0,0 +1,70 @@
+package com.zzy.backend.dto.response.student.sync;
+
+import com.zzy.backend.dto.response.student.chat.ChatListItemResponse;
+import com.zzy.backend.dto.response.student.chat.MessageResponse;
+import com.zzy.backend.dto.response.student.notification.NotificationListItemResponse;
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 增量同步响应DTO
+ */
+@Data
+public class SyncResponse {
+    /**
+     * 本次同步到的序列号（下次同步时作为 since 传入）
+     */
+    private Long seq;
+
+    /**
+     * 是否需要全量刷新（变更日志已过期或序列号不连续时为 true，客户端应重新加载全部数据）
+     */
+    private Boolean fullResync;
+
+    /**
+     * 是否还有更多变更（为 true 时客户端应立即以新的 seq 继续同步）
+     */
+    private Boolean hasMore;
+
+    /**
+     * 有变化的会话（最新状态）
+     */
+    private List<ChatListItemResponse> conversations = new ArrayList<>();
+
+    /**
+     * 新消息（按ID正序）
+     */
+    private List<MessageResponse> messages = new ArrayList<>();
+
+    /**
+     * 被撤回的消息ID
+     */
+    private List<Long> recalledMessageIds = new ArrayList<>();
+
+    /**
+     * 新增或状态变化的通知（最新状态）
+     */
+    private List<NotificationListItemResponse> notifications = new ArrayList<>();
+
+    /**
+     * 已删除的通知ID
+     */
+    private List<Long> deletedNotificationIds = new ArrayList<>();
+
+    /**
+     * 是否发生过“全部通知已读”
+     */
+    private Boolean notificationsAllRead;
+
+    /**
+     * 聊天未读消息总数
+     */
+    private Integer chatUnreadCount;
+
+    /**
+     * 未读通知数
+     */
+    private Integer notificationUnreadCount;
+}
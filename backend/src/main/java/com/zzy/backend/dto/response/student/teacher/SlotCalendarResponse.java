@@ -0,0 +1,26 @@
+package com.zzy.backend.dto.response.student.teacher;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 教师可预约日历DTO
+ */
+@Data
+public class SlotCalendarResponse {
+    /**
+     * 教师用户ID
+     */
+    private Long teacherId;
+
+    /**
+     * 起始日期（今天），格式：yyyy-MM-dd
+     */
+    private String startDate;
+
+    /**
+     * 每日时间段（没有时间表的日期也会返回，slots 为空）
+     */
+    private List<SlotDayResponse> days;
+}
@@ -0,0 +1,26 @@
+package com.zzy.backend.dto.response.student.teacher;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 单日可预约时间段DTO
+ */
+@Data
+public class SlotDayResponse {
+    /**
+     * 日期，格式：yyyy-MM-dd
+     */
+    private String date;
+
+    /**
+     * 星期几：1-周一，2-周二，...，7-周日
+     */
+    private Integer weekday;
+
+    /**
+     * 时间段列表（按开始时间升序，相邻的可用时间段已合并）
+     */
+    private List<SlotResponse> slots;
+}
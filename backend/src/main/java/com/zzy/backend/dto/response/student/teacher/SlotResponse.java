@@ -0,0 +1,24 @@
+package com.zzy.backend.dto.response.student.teacher;
+
+import lombok.Data;
+
+/**
+ * 可预约时间段DTO
+ */
+@Data
+public class SlotResponse {
+    /**
+     * 开始时间，格式：HH:mm
+     */
+    private String startTime;
+
+    /**
+     * 结束时间，格式：HH:mm（24:00 表示当天结束）
+     */
+    private String endTime;
+
+    /**
+     * 是否可预约（false 表示已被预约占用）
+     */
+    private Boolean available;
+}
@@ -0,0 +1,24 @@
+package com.zzy.backend.dto.response.student.teacher;
+
+import lombok.Data;
+
+/**
+ * 教师列表分面统计项DTO
+ */
+@Data
+public class TeacherFacetResponse {
+    /**
+     * 阶段或科目ID
+     */
+    private Integer id;
+
+    /**
+     * 阶段或科目名称
+     */
+    private String name;
+
+    /**
+     * 当前筛选条件下的教师数
+     */
+    private Long count;
+}
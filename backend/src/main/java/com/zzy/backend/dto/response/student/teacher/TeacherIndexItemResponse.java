@@ -0,0 +1,57 @@
+package com.zzy.backend.dto.response.student.teacher;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * 教师索引基础信息DTO（构建教师搜索索引用）
+ */
+@Data
+public class TeacherIndexItemResponse {
+    /**
+     * 教师用户ID
+     */
+    private Long id;
+
+    /**
+     * 昵称
+     */
+    private String nickname;
+
+    /**
+     * 真实姓名
+     */
+    private String realName;
+
+    /**
+     * 头像URL
+     */
+    private String avatar;
+
+    /**
+     * 评分（未设置资料时为空，排序时排在最后）
+     */
+    private BigDecimal rating;
+
+    /**
+     * 评价数量
+     */
+    private Integer ratingCount;
+
+    /**
+     * 教龄
+     */
+    private Integer teachingYears;
+
+    /**
+     * 是否已认证
+     */
+    private Boolean certified;
+
+    /**
+     * 注册时间
+     */
+    private LocalDateTime createdAt;
+}
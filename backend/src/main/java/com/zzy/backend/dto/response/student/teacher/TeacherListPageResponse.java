@@ -0,0 +1,29 @@
+package com.zzy.backend.dto.response.student.teacher;
+
+import com.zzy.backend.common.page.PageResult;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+
+import java.util.List;
+
+/**
+ * 教师列表分页响应DTO（附带分面统计）
+ */
+@Data
+@EqualsAndHashCode(callSuper = true)
+public class TeacherListPageResponse extends PageResult<TeacherListItemResponse> {
+    /**
+     * 各教学阶段的教师数（只包含数量大于0的阶段）
+     */
+    private List<TeacherFacetResponse> stageFacets;
+
+    /**
+     * 各科目的教师数（只包含数量大于0的科目）
+     */
+    private List<TeacherFacetResponse> subjectFacets;
+
+    /**
+     * 已认证教师数
+     */
+    private Long certifiedCount;
+}
@@ -0,0 +1,47 @@
+package com.zzy.backend.dto.response.student.teacher;
+
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * 教师空闲时间索引DTO（构建空闲时间索引用，只包含可用的时间段）
+ */
+@Data
+public class TeacherScheduleIndexResponse {
+    /**
+     * 教师用户ID
+     */
+    private Long teacherId;
+
+    /**
+     * 星期几：1-周一，2-周二，...，7-周日
+     */
+    private Integer weekday;
+
+    /**
+     * 开始时间
+     */
+    private LocalTime startTime;
+
+    /**
+     * 结束时间
+     */
+    private LocalTime endTime;
+
+    /**
+     * 时间类型：1-固定周期，2-临时时间段
+     */
+    private Integer scheduleType;
+
+    /**
+     * 生效开始日期（临时时间段）
+     */
+    private LocalDate startDate;
+
+    /**
+     * 生效结束日期（临时时间段）
+     */
+    private LocalDate endDate;
+}
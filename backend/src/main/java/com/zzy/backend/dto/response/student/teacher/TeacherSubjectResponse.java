@@ -0,0 +1,19 @@
+package com.zzy.backend.dto.response.student.teacher;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.zzy.backend.dto.response.common.SubjectResponse;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+
+/**
+ * 教师科目响应DTO（批量查询时带出所属教师ID）
+ */
+@Data
+@EqualsAndHashCode(callSuper = true)
+public class TeacherSubjectResponse extends SubjectResponse {
+    /**
+     * 所属教师用户ID（仅用于回填，不输出）
+     */
+    @JsonIgnore
+    private Long teacherId;
+}
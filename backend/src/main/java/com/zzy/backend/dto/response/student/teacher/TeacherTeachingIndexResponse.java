@@ -0,0 +1,66 @@
+package com.zzy.backend.dto.response.student.teacher;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+/**
+ * 教师教学信息索引DTO（构建教师搜索索引用，只包含有效的教学信息）
+ */
+@Data
+public class TeacherTeachingIndexResponse {
+    /**
+     * 教师用户ID
+     */
+    private Long teacherId;
+
+    /**
+     * 教学阶段ID
+     */
+    private Integer stageId;
+
+    /**
+     * 教学阶段名称
+     */
+    private String stageName;
+
+    /**
+     * 教学阶段排序
+     */
+    private Integer stageSortOrder;
+
+    /**
+     * 科目ID
+     */
+    private Integer subjectId;
+
+    /**
+     * 每小时价格
+     */
+    private BigDecimal pricePerHour;
+
+    /**
+     * 科目代码
+     */
+    private String subjectCode;
+
+    /**
+     * 科目名称
+     */
+    private String subjectName;
+
+    /**
+     * 科目分类
+     */
+    private String subjectCategory;
+
+    /**
+     * 科目排序
+     */
+    private Integer subjectSortOrder;
+
+    /**
+     * 科目是否有效（启用且未删除）
+     */
+    private Boolean subjectActive;
+}
@@ -38,6 +38,16 @@ public class ChatRelationship {
      */
     private Integer user2UnreadCount;
 
+    /**
+     * 用户1已读水位（已读到的最大消息ID）
+     */
+    private Long user1LastReadMessageId;
+
+    /**
+     * 用户2已读水位（已读到的最大消息ID）
+     */
+    private Long user2LastReadMessageId;
+
     /**
      * 用户1是否置顶：0-否，1-是
      */
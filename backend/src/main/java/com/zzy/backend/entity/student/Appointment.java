@@ -21,6 +21,11 @@ public class Appointment {
      */
     private String orderNo;
 
+    /**
+     * 周期预约ID（单次预约为空）
+     */
+    private Long seriesId;
+
     /**
      * 学生用户ID
      */
@@ -126,6 +131,11 @@ public class Appointment {
      */
     private LocalDateTime completedAt;
 
+    /**
+     * 上课提醒发送时间
+     */
+    private LocalDateTime remindedAt;
+
     /**
      * 扩展信息（JSON格式）
      */
@@ -0,0 +1,82 @@
+package com.zzy.backend.entity.student;
+
+import lombok.Data;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+/**
+ * 周期预约实体类
+ */
+@Data
+public class AppointmentSeries {
+    /**
+     * 周期预约ID
+     */
+    private Long id;
+
+    /**
+     * 学生用户ID
+     */
+    private Long studentId;
+
+    /**
+     * 教师用户ID
+     */
+    private Long teacherId;
+
+    /**
+     * 教学阶段ID
+     */
+    private Integer stageId;
+
+    /**
+     * 科目ID
+     */
+    private Integer subjectId;
+
+    /**
+     * 每周上课日（1-7 表示周一到周日，逗号分隔）
+     */
+    private String weekdays;
+
+    /**
+     * 开始时间
+     */
+    private LocalTime startTime;
+
+    /**
+     * 结束时间
+     */
+    private LocalTime endTime;
+
+    /**
+     * 起始日期
+     */
+    private LocalDate startDate;
+
+    /**
+     * 结束日期
+     */
+    private LocalDate endDate;
+
+    /**
+     * 课程次数
+     */
+    private Integer occurrenceCount;
+
+    /**
+     * 创建时间
+     */
+    private LocalDateTime createdAt;
+
+    /**
+     * 更新时间
+     */
+    private LocalDateTime updatedAt;
+
+    /**
+     * 删除时间
+     */
+    private LocalDateTime deletedAt;
+}
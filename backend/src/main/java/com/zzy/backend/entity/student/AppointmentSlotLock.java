@@ -0,0 +1,34 @@
+package com.zzy.backend.entity.student;
+
+import lombok.Data;
+import java.time.LocalDate;
+
+/**
+ * 预约时间格占用实体类
+ */
+@Data
+public class AppointmentSlotLock {
+    /**
+     * 占用的预约ID
+     */
+    private Long appointmentId;
+
+    /**
+     * 日期
+     */
+    private LocalDate slotDate;
+
+    /**
+     * 5分钟时间格序号（0-287）
+     */
+    private Integer slotIndex;
+
+    public AppointmentSlotLock() {
+    }
+
+    public AppointmentSlotLock(Long appointmentId, LocalDate slotDate, Integer slotIndex) {
+        this.appointmentId = appointmentId;
+        this.slotDate = slotDate;
+        this.slotIndex = slotIndex;
+    }
+}
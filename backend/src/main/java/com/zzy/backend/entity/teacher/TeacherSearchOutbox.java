@@ -0,0 +1,25 @@
+package com.zzy.backend.entity.teacher;
+
+import lombok.Data;
+import java.time.LocalDateTime;
+
+/**
+ * 教师搜索汇总变更队列实体类
+ */
+@Data
+public class TeacherSearchOutbox {
+    /**
+     * ID
+     */
+    private Long id;
+
+    /**
+     * 变更的教师用户ID（为空表示全部教师）
+     */
+    private Long teacherId;
+
+    /**
+     * 写入时间
+     */
+    private LocalDateTime createdAt;
+}
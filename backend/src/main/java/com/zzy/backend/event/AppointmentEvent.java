@@ -0,0 +1,78 @@
+package com.zzy.backend.event;
+
+import com.zzy.backend.entity.student.Appointment;
+import lombok.Getter;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * 预约领域事件
+ * 由 AppointmentService 在预约创建或状态变化后发布，监听器在事务提交后处理
+ */
+@Getter
+public class AppointmentEvent {
+
+    /**
+     * 事件类型
+     */
+    public enum Type {
+        /**
+         * 新预约
+         */
+        CREATED,
+        /**
+         * 教师确认预约
+         */
+        CONFIRMED,
+        /**
+         * 预约取消
+         */
+        CANCELLED
+    }
+
+    /**
+     * 事件类型
+     */
+    private final Type type;
+
+    /**
+     * 预约ID
+     */
+    private final Long appointmentId;
+
+    /**
+     * 学生用户ID
+     */
+    private final Long studentId;
+
+    /**
+     * 教师用户ID
+     */
+    private final Long teacherId;
+
+    /**
+     * 预约日期
+     */
+    private final LocalDate appointmentDate;
+
+    /**
+     * 开始时间
+     */
+    private final LocalTime startTime;
+
+    /**
+     * 结束时间
+     */
+    private final LocalTime endTime;
+
+    public AppointmentEvent(Type type, Appointment appointment) {
+        this.type = type;
+        this.appointmentId = appointment.getId();
+        this.studentId = appointment.getStudentId();
+        this.teacherId = appointment.getTeacherId();
+        this.appointmentDate = appointment.getAppointmentDate();
+        this.startTime = appointment.getStartTime();
+        this.endTime = appointment.getEndTime();
+    }
+}
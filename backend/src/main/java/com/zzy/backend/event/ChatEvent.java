@@ -0,0 +1,108 @@
+package com.zzy.backend.event;
+
+import com.zzy.backend.dto.response.student.chat.MessageResponse;
+import com.zzy.backend.entity.chat.ChatMessage;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+/**
+ * 聊天领域事件
+ * 由 ChatService 在写操作完成后发布，监听器在事务提交后处理（推送、缓存维护等）
+ */
+@Getter
+public class ChatEvent {
+
+    /**
+     * 事件类型
+     */
+    public enum Type {
+        /**
+         * 新消息
+         */
+        MESSAGE,
+        /**
+         * 消息撤回
+         */
+        RECALL,
+        /**
+         * 会话已读
+         */
+        READ
+    }
+
+    /**
+     * 事件类型
+     */
+    private final Type type;
+
+    /**
+     * 聊天关系ID
+     */
+    private final Long relationshipId;
+
+    /**
+     * 操作人ID（发送者/撤回者/已读者）
+     */
+    private final Long operatorId;
+
+    /**
+     * 会话另一方用户ID
+     */
+    private final Long peerId;
+
+    /**
+     * 消息ID（新消息、撤回时有值）
+     */
+    private final Long messageId;
+
+    /**
+     * 消息内容（新消息时有值）
+     */
+    private final MessageResponse message;
+
+    /**
+     * 本次标记已读的消息数（已读时有值）
+     */
+    private final Integer readCount;
+
+    /**
+     * 事件发生时间
+     */
+    private final LocalDateTime occurredAt;
+
+    private ChatEvent(Type type, Long relationshipId, Long operatorId, Long peerId,
+                      Long messageId, MessageResponse message, Integer readCount) {
+        this.type = type;
+        this.relationshipId = relationshipId;
+        this.operatorId = operatorId;
+        this.peerId = peerId;
+        this.messageId = messageId;
+        this.message = message;
+        this.readCount = readCount;
+        this.occurredAt = LocalDateTime.now();
+    }
+
+    /**
+     * 新消息事件
+     */
+    public static ChatEvent message(MessageResponse message) {
+        return new ChatEvent(Type.MESSAGE, message.getRelationshipId(), message.getSenderId(),
+                message.getReceiverId(), message.getId(), message, null);
+    }
+
+    /**
+     * 消息撤回事件
+     */
+    public static ChatEvent recall(ChatMessage message) {
+        return new ChatEvent(Type.RECALL, message.getRelationshipId(), message.getSenderId(),
+                message.getReceiverId(), message.getId(), null, null);
+    }
+
+    /**
+     * 会话已读事件
+     */
+    public static ChatEvent read(Long relationshipId, Long readerId, Long peerId, int readCount) {
+        return new ChatEvent(Type.READ, relationshipId, readerId, peerId, null, null, readCount);
+    }
+}
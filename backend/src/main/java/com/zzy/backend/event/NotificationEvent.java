@@ -0,0 +1,62 @@
+package com.zzy.backend.event;
+
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+/**
+ * 通知领域事件
+ * 由 NotificationService 在通知创建或状态变化后发布，监听器在事务提交后处理
+ */
+@Getter
+public class NotificationEvent {
+
+    /**
+     * 事件类型
+     */
+    public enum Type {
+        /**
+         * 新通知（由 NotificationService#createNotification 发布，如课前提醒）
+         */
+        CREATED,
+        /**
+         * 单条通知已读
+         */
+        READ,
+        /**
+         * 全部通知已读
+         */
+        READ_ALL,
+        /**
+         * 通知删除
+         */
+        DELETED
+    }
+
+    /**
+     * 事件类型
+     */
+    private final Type type;
+
+    /**
+     * 通知所属用户ID
+     */
+    private final Long userId;
+
+    /**
+     * 通知ID（全部已读时为空）
+     */
+    private final Long notificationId;
+
+    /**
+     * 事件发生时间
+     */
+    private final LocalDateTime occurredAt;
+
+    public NotificationEvent(Type type, Long userId, Long notificationId) {
+        this.type = type;
+        this.userId = userId;
+        this.notificationId = notificationId;
+        this.occurredAt = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,20 @@
+package com.zzy.backend.event;
+
+import lombok.Getter;
+
+/**
+ * 教师数据变更事件
+ * 教师资料、教学信息、时间表、认证或在线状态变化时在修改数据的事务内发布：汇总变更队列随事务写入，搜索索引在事务提交后刷新
+ */
+@Getter
+public class TeacherChangedEvent {
+
+    /**
+     * 教师用户ID（为空表示全部教师）
+     */
+    private final Long teacherId;
+
+    public TeacherChangedEvent(Long teacherId) {
+        this.teacherId = teacherId;
+    }
+}
@@ -0,0 +1,20 @@
+package com.zzy.backend.event;
+
+import lombok.Getter;
+
+/**
+ * 用户资料变更事件
+ * 昵称、头像等展示信息变化时在修改数据的事务内发布，监听器在事务提交后清理冗余了这些信息的缓存（如聊天收件箱）
+ */
+@Getter
+public class UserProfileChangedEvent {
+
+    /**
+     * 用户ID
+     */
+    private final Long userId;
+
+    public UserProfileChangedEvent(Long userId) {
+        this.userId = userId;
+    }
+}
@@ -0,0 +1,264 @@
+package com.zzy.backend.filter;
+
+import cn.hutool.cache.CacheUtil;
+import cn.hutool.cache.impl.LRUCache;
+import com.alibaba.fastjson2.JSON;
+import com.alibaba.fastjson2.JSONObject;
+import com.zzy.backend.common.constant.ResponseCode;
+import com.zzy.backend.common.constant.SystemConstant;
+import com.zzy.backend.common.util.JwtUtil;
+import com.zzy.backend.service.common.DataVersionService;
+import com.zzy.backend.service.common.PresenceService;
+import com.zzy.backend.service.student.teacher.TeacherSearchService;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+import org.springframework.util.StringUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Supplier;
+
+/**
+ * 接口响应缓存过滤器
+ * <p>
+ * 对公开的目录类 GET 接口按规范化的请求（路径 + 排序后的非空参数）缓存序列化后的响应字节，
+ * 命中时不再经过拦截器、日志切面、Mapper 和 JSON 序列化。响应带强 ETag（响应字节的 MD5）与 Cache-Control，
+ * If-None-Match 匹配时返回 304。缓存条目记录生成时的数据版本，写路径递增版本号后条目失效；
+ * 只缓存 code 为 200 的响应。过滤器排在跨域过滤器之后，命中缓存的响应同样带跨域响应头。
+ * 过滤器在认证拦截器之前执行：需要登录的接口先校验 Token，无 Token 或 Token 无效时不读写缓存、交给正常流程处理，
+ * 且响应只允许客户端私有缓存。
+ */
+@Component
+@Order(0)
+public class ResponseCacheFilter extends OncePerRequestFilter {
+
+    @Value("${http-cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${http-cache.capacity:500}")
+    private int capacity;
+
+    @Value("${http-cache.ttl-minutes:30}")
+    private long ttlMinutes;
+
+    @Value("${http-cache.catalog-max-age:300}")
+    private long catalogMaxAge;
+
+    @Autowired
+    private DataVersionService dataVersionService;
+
+    @Autowired
+    private PresenceService presenceService;
+
+    @Autowired
+    private TeacherSearchService teacherSearchService;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    /**
+     * 规范化请求 -> 缓存的响应
+     */
+    private LRUCache<String, CachedResponse> cache;
+
+    /**
+     * 可缓存的接口（相对 context-path 的路径）
+     */
+    private Map<String, Rule> rules;
+
+    @PostConstruct
+    public void init() {
+        cache = CacheUtil.newLRUCache(capacity, ttlMinutes * 60 * 1000);
+        String catalogCacheControl = "public, max-age=" + catalogMaxAge;
+        Supplier<String> catalogVersion = () -> String.valueOf(dataVersionService.current(DataVersionService.CATALOG));
+        // 教学阶段、科目目前没有写接口（直接改库），目录版本不会递增，修改后依赖缓存有效期或调用 bump(CATALOG) 失效
+        // 教师列表包含在线状态，版本由教师数据版本、搜索索引快照版本（定期重建也会替换快照）与在线快照版本组成；客户端每次需重新验证
+        Supplier<String> teacherVersion = () -> dataVersionService.current(DataVersionService.TEACHER)
+                + ":" + teacherSearchService.getSnapshotVersion()
+                + ":" + presenceService.getSnapshotVersion();
+        rules = Map.of(
+                "/common/teaching-stages", new Rule(catalogVersion, catalogCacheControl, false, false),
+                "/common/subjects", new Rule(catalogVersion, catalogCacheControl, false, false),
+                "/teacher/list", new Rule(teacherVersion, "private, no-cache", true, true));
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || !"GET".equals(request.getMethod()) || rule(request) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        Rule rule = rule(request);
+        // 关键词搜索组合过多，不缓存；需要登录的接口未通过 Token 校验时由认证拦截器处理
+        if ((rule.skipKeyword && StringUtils.hasText(request.getParameter("keyword")))
+                || (rule.authenticated && !hasValidToken(request))) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        String key = cacheKey(request);
+        // 先取版本号再执行请求：执行期间发生的变更会让本次写入的条目立即过期
+        String version = rule.version.get();
+        // 读取不刷新过期时间，条目按写入时间过期
+        CachedResponse cached = cache.get(key, false);
+        if (cached != null && cached.version.equals(version)) {
+            write(request, response, cached, rule);
+            return;
+        }
+
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        filterChain.doFilter(request, wrapper);
+        byte[] body = wrapper.getContentAsByteArray();
+        if (wrapper.getStatus() != HttpServletResponse.SC_OK || !isSuccess(body)) {
+            wrapper.copyBodyToResponse();
+            return;
+        }
+
+        CachedResponse fresh = new CachedResponse(version, body, wrapper.getContentType(),
+                "\"" + DigestUtils.md5DigestAsHex(body) + "\"");
+        cache.put(key, fresh);
+        wrapper.resetBuffer();
+        write(request, response, fresh, rule);
+    }
+
+    private void write(HttpServletRequest request, HttpServletResponse response, CachedResponse cached, Rule rule)
+            throws IOException {
+        response.setHeader(HttpHeaders.ETAG, cached.etag);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, rule.cacheControl);
+        if (matches(request.getHeader(HttpHeaders.IF_NONE_MATCH), cached.etag)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentType(cached.contentType);
+        response.setContentLength(cached.body.length);
+        response.getOutputStream().write(cached.body);
+    }
+
+    private boolean hasValidToken(HttpServletRequest request) {
+        String token = request.getHeader(SystemConstant.TOKEN_HEADER);
+        if (!StringUtils.hasText(token)) {
+            return false;
+        }
+        if (token.startsWith(SystemConstant.TOKEN_PREFIX)) {
+            token = token.substring(SystemConstant.TOKEN_PREFIX.length());
+        }
+        try {
+            return Boolean.TRUE.equals(jwtUtil.validateToken(token));
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    private Rule rule(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return rules.get(path);
+    }
+
+    /**
+     * 规范化请求：路径 + 按名称排序的非空参数
+     */
+    private static String cacheKey(HttpServletRequest request) {
+        Map<String, String> params = new TreeMap<>();
+        request.getParameterMap().forEach((name, values) -> {
+            String[] present = Arrays.stream(values).filter(StringUtils::hasText).map(String::trim).sorted().toArray(String[]::new);
+            if (present.length > 0) {
+                params.put(name, String.join(",", present));
+            }
+        });
+        StringBuilder key = new StringBuilder(request.getRequestURI().substring(request.getContextPath().length()));
+        params.forEach((name, value) -> key.append(key.indexOf("?") < 0 ? '?' : '&').append(name).append('=').append(value));
+        return key.toString();
+    }
+
+    private static boolean isSuccess(byte[] body) {
+        if (body.length == 0) {
+            return false;
+        }
+        try {
+            JSONObject json = JSON.parseObject(body);
+            return json != null && ResponseCode.SUCCESS.equals(json.getInteger("code"));
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    /**
+     * If-None-Match 比较（弱比较，支持多个值与 *）
+     */
+    private static boolean matches(String ifNoneMatch, String etag) {
+        if (!StringUtils.hasText(ifNoneMatch)) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String value = candidate.trim();
+            if (value.startsWith("W/")) {
+                value = value.substring(2);
+            }
+            if ("*".equals(value) || etag.equals(value)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 可缓存接口的规则
+     */
+    private static final class Rule {
+
+        private final Supplier<String> version;
+
+        private final String cacheControl;
+
+        private final boolean skipKeyword;
+
+        /**
+         * 是否需要登录（命中缓存前校验 Token）
+         */
+        private final boolean authenticated;
+
+        Rule(Supplier<String> version, String cacheControl, boolean skipKeyword, boolean authenticated) {
+            this.version = version;
+            this.cacheControl = cacheControl;
+            this.skipKeyword = skipKeyword;
+            this.authenticated = authenticated;
+        }
+    }
+
+    /**
+     * 缓存的响应
+     */
+    private static final class CachedResponse {
+
+        private final String version;
+
+        private final byte[] body;
+
+        private final String contentType;
+
+        private final String etag;
+
+        CachedResponse(String version, byte[] body, String contentType, String etag) {
+            this.version = version;
+            this.body = body;
+            this.contentType = contentType;
+            this.etag = etag;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.zzy.backend.interceptor;
+
+import com.zzy.backend.common.constant.SystemConstant;
+import com.zzy.backend.common.util.JwtUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.server.HandshakeInterceptor;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.util.Map;
+
+/**
+ * WebSocket 握手认证拦截器
+ * 与 AuthInterceptor 使用同一套 JWT 校验；浏览器无法为 WebSocket 设置请求头，因此同时支持 ?token= 参数
+ */
+@Slf4j
+@Component
+public class WebSocketAuthInterceptor implements HandshakeInterceptor {
+
+    /**
+     * 会话属性：用户ID
+     */
+    public static final String ATTR_USER_ID = "userId";
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Override
+    public boolean beforeHandshake(ServerHttpRequest request, ServerHttpResponse response,
+                                   WebSocketHandler wsHandler, Map<String, Object> attributes) {
+        String token = request.getHeaders().getFirst(SystemConstant.TOKEN_HEADER);
+        if (!StringUtils.hasText(token)) {
+            token = UriComponentsBuilder.fromUri(request.getURI()).build().getQueryParams().getFirst("token");
+        }
+        if (!StringUtils.hasText(token)) {
+            response.setStatusCode(HttpStatus.UNAUTHORIZED);
+            return false;
+        }
+
+        // 移除 Bearer 前缀
+        if (token.startsWith(SystemConstant.TOKEN_PREFIX)) {
+            token = token.substring(SystemConstant.TOKEN_PREFIX.length());
+        }
+
+        if (!jwtUtil.validateToken(token)) {
+            response.setStatusCode(HttpStatus.UNAUTHORIZED);
+            return false;
+        }
+
+        try {
+            attributes.put(ATTR_USER_ID, jwtUtil.getUserIdFromToken(token));
+        } catch (Exception e) {
+            log.error("WebSocket 握手解析Token失败", e);
+            response.setStatusCode(HttpStatus.UNAUTHORIZED);
+            return false;
+        }
+        return true;
+    }
+
+    @Override
+    public void afterHandshake(ServerHttpRequest request, ServerHttpResponse response,
+                               WebSocketHandler wsHandler, Exception exception) {
+    }
+}
@@ -0,0 +1,97 @@
+package com.zzy.backend.mapper.common;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * 批量加载工具
+ * <p>
+ * 用于消除列表接口中"先查列表、再逐条查关联数据"的 N+1 查询：收集当前页所有主键，
+ * 通过一次 IN 查询取回关联数据后按主键分组回填。主键过多时按批次拆分，每批一条 SQL。
+ * 对应的 Mapper 方法需接收主键列表，并在结果行中带出所属主键。
+ */
+public final class BatchLoader {
+
+    /**
+     * 单条 IN 查询的最大主键数
+     */
+    public static final int DEFAULT_BATCH_SIZE = 500;
+
+    private BatchLoader() {
+    }
+
+    /**
+     * 批量查询并按主键分组
+     *
+     * @param keys         主键集合（自动去重、忽略 null）
+     * @param query        批量查询方法，参数为一批主键
+     * @param keyExtractor 从结果行中取出所属主键
+     * @return 主键 -> 关联数据列表（保持查询返回的顺序），无数据的主键不在结果中
+     */
+    public static <K, V> Map<K, List<V>> loadGrouped(Collection<K> keys,
+                                                     Function<List<K>, List<V>> query,
+                                                     Function<V, K> keyExtractor) {
+        Map<K, List<V>> grouped = new LinkedHashMap<>();
+        for (List<K> batch : partition(keys, DEFAULT_BATCH_SIZE)) {
+            List<V> rows = query.apply(batch);
+            if (rows == null) {
+                continue;
+            }
+            for (V row : rows) {
+                grouped.computeIfAbsent(keyExtractor.apply(row), k -> new ArrayList<>()).add(row);
+            }
+        }
+        return grouped;
+    }
+
+    /**
+     * 批量加载一对多关联数据并回填到列表元素
+     *
+     * @param owners       列表元素
+     * @param ownerKey     从列表元素取主键
+     * @param query        批量查询方法，参数为一批主键
+     * @param keyExtractor 从结果行中取出所属主键
+     * @param setter       回填方法，无关联数据时回填空列表
+     */
+    public static <T, K, V> void attachMany(List<T> owners,
+                                            Function<T, K> ownerKey,
+                                            Function<List<K>, List<V>> query,
+                                            Function<V, K> keyExtractor,
+                                            BiConsumer<T, List<V>> setter) {
+        if (owners == null || owners.isEmpty()) {
+            return;
+        }
+        List<K> keys = new ArrayList<>(owners.size());
+        for (T owner : owners) {
+            keys.add(ownerKey.apply(owner));
+        }
+        Map<K, List<V>> grouped = loadGrouped(keys, query, keyExtractor);
+        for (T owner : owners) {
+            setter.accept(owner, grouped.getOrDefault(ownerKey.apply(owner), Collections.emptyList()));
+        }
+    }
+
+    /**
+     * 主键去重后按批次拆分
+     */
+    static <K> List<List<K>> partition(Collection<K> keys, int batchSize) {
+        if (keys == null || keys.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<K> distinct = new ArrayList<>(new LinkedHashSet<>(keys));
+        distinct.removeIf(Objects::isNull);
+        List<List<K>> batches = new ArrayList<>();
+        for (int from = 0; from < distinct.size(); from += batchSize) {
+            batches.add(distinct.subList(from, Math.min(from + batchSize, distinct.size())));
+        }
+        return batches;
+    }
+}
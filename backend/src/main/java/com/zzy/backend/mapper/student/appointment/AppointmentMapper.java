@@ -1,12 +1,19 @@
 package com.zzy.backend.mapper.student.appointment;
 
 import com.zzy.backend.dto.request.student.appointment.AppointmentListRequest;
+import com.zzy.backend.dto.response.common.StatusSnapshotResponse;
 import com.zzy.backend.dto.response.student.appointment.AppointmentDetailResponse;
 import com.zzy.backend.dto.response.student.appointment.AppointmentListItemResponse;
+import com.zzy.backend.dto.response.student.appointment.AppointmentSlotResponse;
 import com.zzy.backend.entity.student.Appointment;
+import com.zzy.backend.entity.student.AppointmentSeries;
+import com.zzy.backend.entity.student.AppointmentSlotLock;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
 import java.util.List;
 
 /**
@@ -65,17 +72,133 @@ public interface AppointmentMapper {
     AppointmentDetailResponse selectAppointmentDetail(@Param("id") Long id, @Param("studentId") Long studentId);
 
     /**
-     * 更新预约状态（取消预约）
+     * 条件更新预约状态（状态在允许的起始状态内时才更新，并将版本号加一）
      *
      * @param id 预约ID
-     * @param status 新状态
-     * @param cancelReason 取消原因
-     * @param cancelBy 取消人ID
+     * @param studentId 学生用户ID（为空时不校验归属）
+     * @param fromStatuses 允许的起始状态
+     * @param toStatus 目标状态
+     * @param expectedVersion 期望版本号（为空时不校验版本）
+     * @param cancelReason 取消原因（目标状态为已取消时写入）
+     * @param operatorId 操作人ID（目标状态为已取消时写入 cancel_by）
      * @return 影响行数
      */
-    int updateAppointmentStatus(@Param("id") Long id,
-                                @Param("status") Integer status,
-                                @Param("cancelReason") String cancelReason,
-                                @Param("cancelBy") Long cancelBy);
-}
+    int transitionStatus(@Param("id") Long id,
+                         @Param("studentId") Long studentId,
+                         @Param("fromStatuses") List<Integer> fromStatuses,
+                         @Param("toStatus") Integer toStatus,
+                         @Param("expectedVersion") Integer expectedVersion,
+                         @Param("cancelReason") String cancelReason,
+                         @Param("operatorId") Long operatorId);
+
+    /**
+     * 查询预约状态快照（当前读，加行锁）
+     *
+     * @param id 预约ID
+     * @return 状态快照
+     */
+    StatusSnapshotResponse selectStatusSnapshot(@Param("id") Long id);
+
+    /**
+     * 查询到期待流转的预约（按 status, appointment_date, end_time 索引顺序，每次一批）
+     * 待确认：开始时间已到；已确认：结束时间已到
+     *
+     * @param status 预约状态（1-待确认，2-已确认）
+     * @param today 截止日期
+     * @param now 截止日期当天的截止时间
+     * @param limit 最大条数
+     * @return 预约列表（仅包含流转所需字段）
+     */
+    List<Appointment> selectDueAppointments(@Param("status") Integer status,
+                                            @Param("today") LocalDate today,
+                                            @Param("now") LocalTime now,
+                                            @Param("limit") int limit);
+
+    /**
+     * 查询开始时间在 (from, to] 内、尚未发送上课提醒的已确认预约（按ID分批）
+     *
+     * @param from 起始时间（不含）
+     * @param to 截止时间（含）
+     * @param afterId 上一批最大ID
+     * @param limit 最大条数
+     * @return 预约列表（仅包含提醒所需字段）
+     */
+    List<Appointment> selectUpcomingForReminder(@Param("from") LocalDateTime from,
+                                                @Param("to") LocalDateTime to,
+                                                @Param("afterId") Long afterId,
+                                                @Param("limit") int limit);
+
+    /**
+     * 标记已发送上课提醒（条件更新：已确认、未提醒且尚未开始）
+     *
+     * @param id 预约ID
+     * @param now 当前时间
+     * @return 影响行数（0 表示状态已变化、已提醒或课程已开始）
+     */
+    int markReminded(@Param("id") Long id, @Param("now") LocalDateTime now);
+
+    /**
+     * 查询占用教师时间的预约（未取消、未删除，且日期不早于 fromDate）
+     *
+     * @param teacherId 教师用户ID（为空时查询全部教师）
+     * @param fromDate 起始日期
+     * @return 预约时间段列表
+     */
+    List<AppointmentSlotResponse> selectActiveSlots(@Param("teacherId") Long teacherId,
+                                                    @Param("fromDate") LocalDate fromDate);
+
+    /**
+     * 查询教师在日期范围内占用时间的预约（未取消、未删除）
+     *
+     * @param teacherId 教师用户ID
+     * @param fromDate 起始日期（含）
+     * @param toDate 结束日期（含）
+     * @return 预约时间段列表
+     */
+    List<AppointmentSlotResponse> selectActiveSlotsBetween(@Param("teacherId") Long teacherId,
+                                                           @Param("fromDate") LocalDate fromDate,
+                                                           @Param("toDate") LocalDate toDate);
+
+    /**
+     * 批量写入时间格占用（与已有占用冲突时抛出 DuplicateKeyException）
+     *
+     * @param teacherId 教师用户ID
+     * @param locks 时间格占用列表
+     * @return 影响行数
+     */
+    int insertSlotLocks(@Param("teacherId") Long teacherId,
+                        @Param("locks") List<AppointmentSlotLock> locks);
+
+    /**
+     * 批量插入预约记录（同一周期预约的多次课程）
+     *
+     * @param appointments 预约实体列表（插入后回填ID）
+     * @return 影响行数
+     */
+    int insertBatch(List<Appointment> appointments);
+
+    /**
+     * 插入周期预约
+     *
+     * @param series 周期预约实体
+     * @return 影响行数
+     */
+    int insertSeries(AppointmentSeries series);
 
+    /**
+     * 释放预约占用的时间格
+     *
+     * @param appointmentId 预约ID
+     * @return 影响行数
+     */
+    int deleteSlotLocks(@Param("appointmentId") Long appointmentId);
+
+    /**
+     * 分批删除已过去日期的时间格占用
+     *
+     * @param beforeDate 早于该日期的占用被删除
+     * @param limit 单批最大条数
+     * @return 影响行数
+     */
+    int deletePastSlotLocks(@Param("beforeDate") LocalDate beforeDate, @Param("limit") int limit);
+}
@@ -0,0 +1,101 @@
+package com.zzy.backend.mapper.student.chat;
+
+import com.zzy.backend.dto.response.student.chat.MessageResponse;
+import com.zzy.backend.entity.chat.ChatMessage;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 聊天消息归档Mapper接口
+ */
+@Mapper
+public interface ChatMessageArchiveMapper {
+
+    /**
+     * 查询可归档的热表消息ID（发送时间早于指定时间）
+     *
+     * @param createdBefore 截止时间
+     * @param limit 限制数量
+     * @return 消息ID列表
+     */
+    List<Long> selectArchivableIds(@Param("createdBefore") LocalDateTime createdBefore, @Param("limit") Integer limit);
+
+    /**
+     * 将热表消息复制到归档表（已存在的忽略）
+     *
+     * @param ids 消息ID列表
+     * @return 影响行数
+     */
+    int copyToArchive(@Param("ids") List<Long> ids);
+
+    /**
+     * 从热表删除已归档的消息
+     *
+     * @param ids 消息ID列表
+     * @return 影响行数
+     */
+    int deleteFromHot(@Param("ids") List<Long> ids);
+
+    /**
+     * 查询归档表中的最大消息ID
+     *
+     * @return 最大消息ID，无归档数据时返回 null
+     */
+    Long selectMaxArchivedId();
+
+    /**
+     * 归档游标查询：早于 beforeId 的最近 limit 条消息（按ID正序返回）
+     *
+     * @param relationshipId 关系ID
+     * @param beforeId 游标消息ID（为空时从归档中最新的消息开始）
+     * @param limit 限制数量
+     * @return 消息列表
+     */
+    List<MessageResponse> selectMessagesBefore(@Param("relationshipId") Long relationshipId,
+                                               @Param("beforeId") Long beforeId,
+                                               @Param("limit") Integer limit);
+
+    /**
+     * 归档游标查询：晚于 afterId 的若干条消息（按ID正序返回）
+     *
+     * @param relationshipId 关系ID
+     * @param afterId 游标消息ID
+     * @param limit 限制数量
+     * @return 消息列表
+     */
+    List<MessageResponse> selectMessagesAfter(@Param("relationshipId") Long relationshipId,
+                                              @Param("afterId") Long afterId,
+                                              @Param("limit") Integer limit);
+
+    /**
+     * 归档分页查询（按时间倒序偏移，结果按ID正序返回）
+     *
+     * @param relationshipId 关系ID
+     * @param offset 偏移量
+     * @param limit 限制数量
+     * @return 消息列表
+     */
+    List<MessageResponse> selectMessagesByRelationshipId(@Param("relationshipId") Long relationshipId,
+                                                         @Param("offset") Integer offset,
+                                                         @Param("limit") Integer limit);
+
+    /**
+     * 按ID批量查询消息（用于搜索结果回查）
+     *
+     * @param ids 消息ID列表
+     * @return 消息列表
+     */
+    List<MessageResponse> selectMessagesByIds(@Param("ids") List<Long> ids);
+
+    /**
+     * 按ID顺序分批查询可检索的文本消息（用于重建搜索索引，仅返回 id、relationship_id、content）
+     *
+     * @param afterId 起始消息ID（不含）
+     * @param limit 限制数量
+     * @return 消息列表
+     */
+    List<ChatMessage> selectIndexableMessages(@Param("afterId") Long afterId, @Param("limit") Integer limit);
+}
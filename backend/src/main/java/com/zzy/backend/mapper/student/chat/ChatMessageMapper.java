@@ -33,7 +33,7 @@ public interface ChatMessageMapper {
      * 查询聊天消息列表（分页）
      *
      * @param relationshipId 关系ID
-     * @param userId 当前用户ID（用于判断是否已读）
+     * @param userId 当前用户ID
      * @param offset 偏移量
      * @param limit 限制数量
      * @return 消息列表
@@ -44,21 +44,40 @@ public interface ChatMessageMapper {
                                                          @Param("limit") Integer limit);
 
     /**
-     * 统计聊天消息总数
+     * 游标查询：早于指定消息ID的最近若干条消息（按ID正序返回）
      *
      * @param relationshipId 关系ID
-     * @return 消息总数
+     * @param userId 当前用户ID
+     * @param beforeId 游标消息ID（为空时从最新消息开始）
+     * @param limit 限制数量
+     * @return 消息列表
      */
-    Long countMessagesByRelationshipId(@Param("relationshipId") Long relationshipId);
+    List<MessageResponse> selectMessagesBefore(@Param("relationshipId") Long relationshipId,
+                                               @Param("userId") Long userId,
+                                               @Param("beforeId") Long beforeId,
+                                               @Param("limit") Integer limit);
 
     /**
-     * 标记消息为已读
+     * 游标查询：晚于指定消息ID的若干条消息（按ID正序返回）
      *
      * @param relationshipId 关系ID
-     * @param receiverId 接收者ID
-     * @return 影响行数
+     * @param userId 当前用户ID
+     * @param afterId 游标消息ID
+     * @param limit 限制数量
+     * @return 消息列表
+     */
+    List<MessageResponse> selectMessagesAfter(@Param("relationshipId") Long relationshipId,
+                                              @Param("userId") Long userId,
+                                              @Param("afterId") Long afterId,
+                                              @Param("limit") Integer limit);
+
+    /**
+     * 统计聊天消息总数
+     *
+     * @param relationshipId 关系ID
+     * @return 消息总数
      */
-    int markMessagesAsRead(@Param("relationshipId") Long relationshipId, @Param("receiverId") Long receiverId);
+    Long countMessagesByRelationshipId(@Param("relationshipId") Long relationshipId);
 
     /**
      * 撤回消息
@@ -68,5 +87,21 @@ public interface ChatMessageMapper {
      * @return 影响行数
      */
     int recallMessage(@Param("messageId") Long messageId, @Param("senderId") Long senderId);
-}
 
+    /**
+     * 按ID批量查询消息（用于搜索结果回查）
+     *
+     * @param ids 消息ID列表
+     * @return 消息列表
+     */
+    List<MessageResponse> selectMessagesByIds(@Param("ids") List<Long> ids);
+
+    /**
+     * 按ID顺序分批查询可检索的文本消息（用于重建搜索索引，仅返回 id、relationship_id、content）
+     *
+     * @param afterId 起始消息ID（不含）
+     * @param limit 限制数量
+     * @return 消息列表
+     */
+    List<ChatMessage> selectIndexableMessages(@Param("afterId") Long afterId, @Param("limit") Integer limit);
+}
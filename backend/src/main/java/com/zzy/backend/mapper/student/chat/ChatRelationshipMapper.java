@@ -47,6 +47,14 @@ public interface ChatRelationshipMapper {
      */
     List<ChatListItemResponse> selectChatListByUserId(@Param("userId") Long userId);
 
+    /**
+     * 查询与用户有聊天关系的对方用户ID
+     *
+     * @param userId 用户ID
+     * @return 对方用户ID列表
+     */
+    List<Long> selectPeerUserIds(@Param("userId") Long userId);
+
     /**
      * 查询聊天关系详情
      *
@@ -81,13 +89,13 @@ public interface ChatRelationshipMapper {
                            @Param("count") Integer count);
 
     /**
-     * 清空未读消息数
+     * 标记已读：将用户的已读水位推进到最后一条消息，并清空未读消息数
      *
      * @param relationshipId 关系ID
      * @param userId 用户ID（user1或user2）
-     * @return 影响行数
+     * @return 影响行数（无未读内容时为0）
      */
-    int clearUnreadCount(@Param("relationshipId") Long relationshipId, @Param("userId") Long userId);
+    int markRead(@Param("relationshipId") Long relationshipId, @Param("userId") Long userId);
 
     /**
      * 统计用户未读消息总数
@@ -96,5 +104,12 @@ public interface ChatRelationshipMapper {
      * @return 未读消息总数
      */
     Integer countUnreadMessages(@Param("userId") Long userId);
-}
 
+    /**
+     * 查询用户各会话的未读消息数（仅返回未读数大于0的会话）
+     *
+     * @param userId 用户ID
+     * @return 会话未读数列表（仅 relationshipId、unreadCount 有值）
+     */
+    List<ChatListItemResponse> selectUnreadCountsByUserId(@Param("userId") Long userId);
+}
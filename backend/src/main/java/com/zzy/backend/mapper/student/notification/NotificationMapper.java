@@ -48,6 +48,14 @@ public interface NotificationMapper {
      */
     Notification selectById(@Param("id") Long id);
 
+    /**
+     * 插入通知
+     *
+     * @param notification 通知实体（插入后回填ID）
+     * @return 影响行数
+     */
+    int insert(Notification notification);
+
     /**
      * 标记通知为已读
      *
@@ -81,5 +89,13 @@ public interface NotificationMapper {
      * @return 未读通知数
      */
     Integer countUnreadNotifications(@Param("userId") Long userId);
-}
 
+    /**
+     * 按ID批量查询用户的通知（用于增量同步）
+     *
+     * @param userId 用户ID
+     * @param ids 通知ID列表
+     * @return 通知列表（已删除的不返回）
+     */
+    List<NotificationListItemResponse> selectNotificationsByIds(@Param("userId") Long userId, @Param("ids") List<Long> ids);
+}
@@ -1,6 +1,7 @@
 package com.zzy.backend.mapper.student.payment;
 
 import com.zzy.backend.dto.request.student.payment.PaymentListRequest;
+import com.zzy.backend.dto.response.common.StatusSnapshotResponse;
 import com.zzy.backend.dto.response.student.payment.PaymentDetailResponse;
 import com.zzy.backend.dto.response.student.payment.PaymentListItemResponse;
 import com.zzy.backend.entity.student.Payment;
@@ -73,28 +74,51 @@ public interface PaymentMapper {
     PaymentDetailResponse selectPaymentDetail(@Param("id") Long id, @Param("studentId") Long studentId);
 
     /**
-     * 更新支付凭证信息
+     * 更新支付凭证信息（条件更新：归属、起始状态、转账金额与支付金额相差不超过0.01，并将版本号加一）
      *
      * @param id 支付ID
+     * @param studentId 学生用户ID
+     * @param fromStatuses 允许的起始状态
+     * @param toStatus 目标状态
+     * @param expectedVersion 期望版本号（为空时不校验版本）
      * @param transferImage 转账截图URL
      * @param transferTime 转账时间
      * @param transferAccount 转账账号
-     * @param status 支付状态
+     * @param transferAmount 转账金额
      * @return 影响行数
      */
     int updatePaymentProof(@Param("id") Long id,
+                          @Param("studentId") Long studentId,
+                          @Param("fromStatuses") List<Integer> fromStatuses,
+                          @Param("toStatus") Integer toStatus,
+                          @Param("expectedVersion") Integer expectedVersion,
                           @Param("transferImage") String transferImage,
                           @Param("transferTime") java.time.LocalDateTime transferTime,
                           @Param("transferAccount") String transferAccount,
-                          @Param("status") Integer status);
+                          @Param("transferAmount") java.math.BigDecimal transferAmount);
 
     /**
-     * 更新支付方式
+     * 更新支付方式（条件更新：归属、起始状态，并将版本号加一）
      *
      * @param id 支付ID
+     * @param studentId 学生用户ID
+     * @param fromStatuses 允许的状态
+     * @param expectedVersion 期望版本号（为空时不校验版本）
      * @param paymentMethod 支付方式
      * @return 影响行数
      */
-    int updatePaymentMethod(@Param("id") Long id, @Param("paymentMethod") Integer paymentMethod);
+    int updatePaymentMethod(@Param("id") Long id,
+                            @Param("studentId") Long studentId,
+                            @Param("fromStatuses") List<Integer> fromStatuses,
+                            @Param("expectedVersion") Integer expectedVersion,
+                            @Param("paymentMethod") Integer paymentMethod);
+
+    /**
+     * 查询支付状态快照（当前读，加行锁）
+     *
+     * @param id 支付ID
+     * @return 状态快照
+     */
+    StatusSnapshotResponse selectStatusSnapshot(@Param("id") Long id);
 }
 
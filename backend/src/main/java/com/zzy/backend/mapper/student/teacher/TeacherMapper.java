@@ -8,6 +8,7 @@ import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.util.List;
 
 /**
@@ -17,12 +18,20 @@ import java.util.List;
 public interface TeacherMapper {
 
     /**
-     * 查询教师列表（分页）
+     * 查询符合条件的在线教师ID（限定在 onlineUserIds 中，按评分、注册时间倒序）
      *
      * @param request 查询请求参数
-     * @return 教师列表
+     * @return 在线教师ID列表
+     */
+    List<Long> selectOnlineTeacherIds(TeacherListRequest request);
+
+    /**
+     * 分页查询符合条件的离线教师ID（排除 excludedUserIds，按 offlineOffset、offlineLimit 分页）
+     *
+     * @param request 查询请求参数
+     * @return 教师ID列表
      */
-    List<TeacherListItemResponse> selectTeacherList(TeacherListRequest request);
+    List<Long> selectOfflineTeacherIdPage(TeacherListRequest request);
 
     /**
      * 统计教师总数
@@ -32,6 +41,14 @@ public interface TeacherMapper {
      */
     Long countTeacherList(TeacherListRequest request);
 
+    /**
+     * 根据ID批量查询教师列表项（不保证顺序）
+     *
+     * @param userIds 教师用户ID列表（不能为空）
+     * @return 教师列表
+     */
+    List<TeacherListItemResponse> selectTeacherListByIds(@Param("userIds") List<Long> userIds);
+
     /**
      * 查询教师的科目列表
      *
@@ -40,6 +57,14 @@ public interface TeacherMapper {
      */
     List<SubjectResponse> selectTeacherSubjects(@Param("userId") Long userId);
 
+    /**
+     * 批量查询多个教师的科目列表
+     *
+     * @param userIds 教师用户ID列表
+     * @return 科目列表（按教师ID分组排序，带出所属教师ID）
+     */
+    List<TeacherSubjectResponse> selectTeacherSubjectsByUserIds(@Param("userIds") List<Long> userIds);
+
     /**
      * 查询教师的最低价格
      *
@@ -87,5 +112,30 @@ public interface TeacherMapper {
      * @return 时间表列表
      */
     List<ScheduleResponse> selectTeacherSchedules(@Param("userId") Long userId);
-}
 
+    /**
+     * 查询教师索引基础信息
+     *
+     * @param userId 教师用户ID（为空时查询全部教师）
+     * @return 教师基础信息列表
+     */
+    List<TeacherIndexItemResponse> selectTeacherIndexItems(@Param("userId") Long userId);
+
+    /**
+     * 查询教师索引教学信息（有效的教学信息及其科目）
+     *
+     * @param userId 教师用户ID（为空时查询全部教师）
+     * @return 教学信息列表
+     */
+    List<TeacherTeachingIndexResponse> selectTeacherTeachingIndexItems(@Param("userId") Long userId);
+
+    /**
+     * 查询教师空闲时间索引数据（可用的固定周期时间段及未过期的临时时间段）
+     *
+     * @param userId 教师用户ID（为空时查询全部教师）
+     * @param fromDate 临时时间段的最早结束日期
+     * @return 时间段列表
+     */
+    List<TeacherScheduleIndexResponse> selectScheduleIndexItems(@Param("userId") Long userId,
+                                                                @Param("fromDate") LocalDate fromDate);
+}
@@ -0,0 +1,54 @@
+package com.zzy.backend.mapper.student.teacher;
+
+import com.zzy.backend.entity.teacher.TeacherSearchOutbox;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.List;
+
+/**
+ * 教师搜索汇总Mapper接口（teacher_search 及其变更队列）
+ */
+@Mapper
+public interface TeacherSummaryMapper {
+
+    /**
+     * 写入变更队列
+     *
+     * @param teacherId 教师用户ID（为空表示全部教师）
+     * @return 影响行数
+     */
+    int insertOutbox(@Param("teacherId") Long teacherId);
+
+    /**
+     * 按ID顺序查询待处理的变更
+     *
+     * @param limit 限制数量
+     * @return 变更列表
+     */
+    List<TeacherSearchOutbox> selectPendingOutbox(@Param("limit") Integer limit);
+
+    /**
+     * 删除已处理的变更
+     *
+     * @param ids 变更ID列表
+     * @return 影响行数
+     */
+    int deleteOutbox(@Param("ids") List<Long> ids);
+
+    /**
+     * 重算教师汇总行（不存在则插入）
+     *
+     * @param teacherIds 教师用户ID列表（为空时重算全部教师）
+     * @return 影响行数
+     */
+    int refreshSummaries(@Param("teacherIds") List<Long> teacherIds);
+
+    /**
+     * 删除已不是有效教师的汇总行（角色变更、禁用或删除）
+     *
+     * @param teacherIds 教师用户ID列表（为空时检查全部汇总行）
+     * @return 影响行数
+     */
+    int deleteStaleSummaries(@Param("teacherIds") List<Long> teacherIds);
+}
@@ -0,0 +1,35 @@
+package com.zzy.backend.service.common;
+
+/**
+ * 数据版本服务接口
+ * <p>
+ * 每类数据维护一个递增版本号（Redis data:version:{name}），写路径修改数据后递增版本号，
+ * 依赖该数据的缓存（如接口响应缓存）比较版本号判断是否失效。
+ */
+public interface DataVersionService {
+
+    /**
+     * 数据类别：教学阶段、科目等基础目录
+     */
+    String CATALOG = "catalog";
+
+    /**
+     * 数据类别：教师信息（资料、评分、教学信息等）
+     */
+    String TEACHER = "teacher";
+
+    /**
+     * 获取当前版本号（读取本地缓存，其他实例的递增在刷新间隔内可见）
+     *
+     * @param name 数据类别
+     * @return 版本号
+     */
+    long current(String name);
+
+    /**
+     * 递增版本号
+     *
+     * @param name 数据类别
+     */
+    void bump(String name);
+}
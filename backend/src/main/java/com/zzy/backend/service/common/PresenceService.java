@@ -0,0 +1,61 @@
+package com.zzy.backend.service.common;
+
+import java.util.Set;
+
+/**
+ * 在线状态服务接口
+ * <p>
+ * 在线状态只保存在 Redis 中（心跳续期，过期即离线），不写 users.online_status；
+ * 读取使用本地定期刷新的在线用户快照。
+ */
+public interface PresenceService {
+
+    /**
+     * 心跳：标记用户在线并续期
+     *
+     * @param userId 用户ID
+     */
+    void heartbeat(Long userId);
+
+    /**
+     * 标记用户离线
+     *
+     * @param userId 用户ID
+     */
+    void offline(Long userId);
+
+    /**
+     * 用户是否在线（读取在线快照）
+     *
+     * @param userId 用户ID
+     * @return 是否在线
+     */
+    boolean isOnline(Long userId);
+
+    /**
+     * 在线状态（读取在线快照）
+     *
+     * @param userId 用户ID
+     * @return 在线状态：0-离线，1-在线
+     */
+    Integer getOnlineStatus(Long userId);
+
+    /**
+     * 获取在线用户快照
+     *
+     * @return 在线用户ID集合（只读，内容未变化时为同一对象）
+     */
+    Set<Long> getOnlineUserIds();
+
+    /**
+     * 在线快照版本号（快照内容变化时递增）
+     *
+     * @return 版本号
+     */
+    long getSnapshotVersion();
+
+    /**
+     * 从 Redis 刷新在线快照，并清理已过期的心跳
+     */
+    void refreshSnapshot();
+}
@@ -0,0 +1,128 @@
+package com.zzy.backend.service.common.impl;
+
+import com.zzy.backend.event.TeacherChangedEvent;
+import com.zzy.backend.service.common.DataVersionService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 数据版本服务实现类
+ * <p>
+ * 共享计数保存在 Redis 中（data:version:{name}），各实例定期拉取；本地版本号在观察到共享计数变化时加一，
+ * 因此本地版本号只增不减（Redis 数据被清空或读到旧值也只会多失效一次，不会让旧缓存重新生效）。
+ * Redis 不可用时本实例递增仍然生效，缓存仅在本实例内失效。
+ */
+@Slf4j
+@Service
+public class DataVersionServiceImpl implements DataVersionService {
+
+    private static final String VERSION_KEY_PREFIX = "data:version:";
+
+    @Autowired
+    private RedisTemplate<String, Object> redisTemplate;
+
+    /**
+     * 数据类别 -> 版本状态
+     */
+    private final Map<String, Version> versions = new ConcurrentHashMap<>();
+
+    @Override
+    public long current(String name) {
+        return version(name).local;
+    }
+
+    @Override
+    public void bump(String name) {
+        Long shared = null;
+        try {
+            shared = redisTemplate.opsForValue().increment(VERSION_KEY_PREFIX + name);
+        } catch (Exception e) {
+            log.warn("递增数据版本失败, name: {}, 错误: {}", name, e.getMessage());
+        }
+        version(name).advance(shared);
+    }
+
+    /**
+     * 定期拉取其他实例（或其他系统）递增的共享计数
+     */
+    @Scheduled(fixedDelayString = "${data-version.refresh-interval:2000}")
+    public void refresh() {
+        if (versions.isEmpty()) {
+            return;
+        }
+        List<String> names = new ArrayList<>(versions.keySet());
+        List<String> keys = new ArrayList<>(names.size());
+        for (String name : names) {
+            keys.add(VERSION_KEY_PREFIX + name);
+        }
+        try {
+            List<Object> values = redisTemplate.opsForValue().multiGet(keys);
+            if (values == null) {
+                return;
+            }
+            for (int i = 0; i < names.size(); i++) {
+                Object value = values.get(i);
+                Long shared = value != null ? Long.valueOf(value.toString()) : null;
+                versions.get(names.get(i)).observe(shared);
+            }
+        } catch (Exception e) {
+            log.warn("刷新数据版本失败, 错误: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 教师数据变更提交后递增教师版本号
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onTeacherChanged(TeacherChangedEvent event) {
+        bump(TEACHER);
+    }
+
+    private Version version(String name) {
+        return versions.computeIfAbsent(name, key -> new Version());
+    }
+
+    /**
+     * 单个数据类别的版本状态
+     */
+    private static final class Version {
+
+        /**
+         * 最近一次看到的共享计数（首次拉取前为空）
+         */
+        private Long shared;
+
+        private volatile long local;
+
+        /**
+         * 拉取到共享计数：与上次看到的不同时本地版本号加一（首次拉取到已有计数也会加一，只多失效一次）
+         */
+        synchronized void observe(Long value) {
+            if (!Objects.equals(shared, value)) {
+                local++;
+                shared = value;
+            }
+        }
+
+        /**
+         * 本实例递增：本地版本号总是加一
+         */
+        synchronized void advance(Long value) {
+            local++;
+            if (value != null) {
+                shared = value;
+            }
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.zzy.backend.service.common.impl;
+
+import com.zzy.backend.service.common.PresenceService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * 在线状态服务实现类
+ * <p>
+ * Redis 有序集合 presence:online：成员为用户ID，分数为心跳过期时间戳（毫秒）。
+ * 心跳将过期时间后延，分数小于当前时间即视为离线；定时任务清理过期成员并刷新本地在线快照，
+ * 列表、详情等读取只查快照，不访问 Redis 和 MySQL。
+ */
+@Slf4j
+@Service
+public class PresenceServiceImpl implements PresenceService {
+
+    private static final RedisSerializer<String> STRING_SERIALIZER = new StringRedisSerializer();
+
+    private static final byte[] PRESENCE_KEY = STRING_SERIALIZER.serialize("presence:online");
+
+    @Value("${presence.ttl-seconds:90}")
+    private long ttlSeconds;
+
+    @Autowired
+    private RedisTemplate<String, Object> redisTemplate;
+
+    private volatile Set<Long> onlineUserIds = Collections.emptySet();
+
+    private volatile long snapshotVersion;
+
+    @Override
+    public void heartbeat(Long userId) {
+        if (userId == null) {
+            return;
+        }
+        double expireAt = System.currentTimeMillis() + ttlSeconds * 1000;
+        redisTemplate.execute((RedisCallback<Boolean>) connection ->
+                connection.zSetCommands().zAdd(PRESENCE_KEY, expireAt, member(userId)));
+    }
+
+    @Override
+    public void offline(Long userId) {
+        if (userId == null) {
+            return;
+        }
+        redisTemplate.execute((RedisCallback<Long>) connection ->
+                connection.zSetCommands().zRem(PRESENCE_KEY, member(userId)));
+    }
+
+    @Override
+    public boolean isOnline(Long userId) {
+        return userId != null && onlineUserIds.contains(userId);
+    }
+
+    @Override
+    public Integer getOnlineStatus(Long userId) {
+        return isOnline(userId) ? 1 : 0;
+    }
+
+    @Override
+    public Set<Long> getOnlineUserIds() {
+        return onlineUserIds;
+    }
+
+    @Override
+    public long getSnapshotVersion() {
+        return snapshotVersion;
+    }
+
+    /**
+     * 定期刷新在线快照（多实例各自刷新，清理过期成员是幂等的）
+     */
+    @Override
+    @Scheduled(fixedDelayString = "${presence.snapshot-interval:5000}")
+    public void refreshSnapshot() {
+        long now = System.currentTimeMillis();
+        try {
+            Set<byte[]> members = redisTemplate.execute((RedisCallback<Set<byte[]>>) connection -> load(connection, now));
+            Set<Long> snapshot = new HashSet<>();
+            if (members != null) {
+                for (byte[] member : members) {
+                    snapshot.add(Long.valueOf(STRING_SERIALIZER.deserialize(member)));
+                }
+            }
+            // 未变化时保留原快照对象，依赖快照的派生结构（如教师默认排名）无需重建
+            if (!snapshot.equals(onlineUserIds)) {
+                onlineUserIds = Collections.unmodifiableSet(snapshot);
+                snapshotVersion++;
+            }
+        } catch (Exception e) {
+            // Redis 不可用时保留上一次快照
+            log.warn("刷新在线快照失败, 错误: {}", e.getMessage());
+        }
+    }
+
+    private Set<byte[]> load(RedisConnection connection, long now) {
+        connection.zSetCommands().zRemRangeByScore(PRESENCE_KEY, Double.NEGATIVE_INFINITY, now);
+        return connection.zSetCommands().zRangeByScore(PRESENCE_KEY, now, Double.POSITIVE_INFINITY);
+    }
+
+    private static byte[] member(Long userId) {
+        return STRING_SERIALIZER.serialize(String.valueOf(userId));
+    }
+}
@@ -0,0 +1,15 @@
+package com.zzy.backend.service.student.appointment;
+
+/**
+ * 预约生命周期服务接口
+ * 定期推进到期的预约：课程开始前仍未确认的预约自动取消，已结束的已确认课程自动完成，并清理过去日期的时间格占用
+ */
+public interface AppointmentLifecycleService {
+
+    /**
+     * 执行一轮到期预约流转（多实例部署时只有持有租约的实例执行）
+     *
+     * @return 本轮流转成功的预约数
+     */
+    int sweep();
+}
@@ -4,9 +4,11 @@ import com.zzy.backend.common.page.PageResult;
 import com.zzy.backend.dto.request.student.appointment.AppointmentListRequest;
 import com.zzy.backend.dto.request.student.appointment.CancelAppointmentRequest;
 import com.zzy.backend.dto.request.student.appointment.CreateAppointmentRequest;
+import com.zzy.backend.dto.request.student.appointment.CreateRecurringAppointmentRequest;
 import com.zzy.backend.dto.response.student.appointment.AppointmentDetailResponse;
 import com.zzy.backend.dto.response.student.appointment.AppointmentListItemResponse;
 import com.zzy.backend.dto.response.student.appointment.CreateAppointmentResponse;
+import com.zzy.backend.dto.response.student.appointment.CreateRecurringAppointmentResponse;
 
 /**
  * 预约服务接口
@@ -22,6 +24,15 @@ public interface AppointmentService {
      */
     CreateAppointmentResponse createAppointment(CreateAppointmentRequest request, Long studentId);
 
+    /**
+     * 创建周期预约（按每周上课日展开为多次课程，整体成功或整体失败）
+     *
+     * @param request 创建周期预约请求
+     * @param studentId 学生用户ID
+     * @return 周期预约ID及各次课程的预约
+     */
+    CreateRecurringAppointmentResponse createRecurringAppointments(CreateRecurringAppointmentRequest request, Long studentId);
+
     /**
      * 获取预约列表
      *
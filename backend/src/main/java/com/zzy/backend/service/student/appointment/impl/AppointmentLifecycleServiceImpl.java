@@ -0,0 +1,177 @@
+package com.zzy.backend.service.student.appointment.impl;
+
+import com.zzy.backend.common.lease.LeaseManager;
+import com.zzy.backend.common.transition.StatusTransition;
+import com.zzy.backend.common.transition.StatusTransitionEngine;
+import com.zzy.backend.common.transition.TransitionOutcome;
+import com.zzy.backend.entity.student.Appointment;
+import com.zzy.backend.event.AppointmentEvent;
+import com.zzy.backend.mapper.student.appointment.AppointmentMapper;
+import com.zzy.backend.service.student.appointment.AppointmentLifecycleService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 预约生命周期服务实现类
+ * <p>
+ * 按 (status, appointment_date, end_time) 索引分批取出到期预约，每批一个事务，
+ * 逐条以扫描时读到的版本号执行条件更新（与学生取消、教师确认并发时由版本号裁决，不会覆盖对方的修改）。
+ * 多实例部署时通过 Redis 租约保证同一时刻只有一个实例执行，批次之间续期，续期失败立即停止。
+ * 每轮最后分批删除已过去日期的时间格占用（过去的时间不会再被预约，占用记录不再有意义）。
+ */
+@Slf4j
+@Service
+public class AppointmentLifecycleServiceImpl implements AppointmentLifecycleService {
+
+    private static final String LEASE_NAME = "appointment:lifecycle";
+
+    private static final String EXPIRE_REASON = "教师未在课程开始前确认，系统自动取消";
+
+    @Value("${appointment.lifecycle.enabled:true}")
+    private boolean enabled;
+
+    @Value("${appointment.lifecycle.batch-size:200}")
+    private int batchSize;
+
+    @Value("${appointment.lifecycle.max-batches-per-run:50}")
+    private int maxBatchesPerRun;
+
+    @Value("${appointment.lifecycle.lease-seconds:120}")
+    private long leaseSeconds;
+
+    @Autowired
+    private AppointmentMapper appointmentMapper;
+
+    @Autowired
+    private StatusTransitionEngine statusTransitionEngine;
+
+    @Autowired
+    private SlotReservationEngine slotReservationEngine;
+
+    @Autowired
+    private LeaseManager leaseManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Override
+    @Scheduled(fixedDelayString = "${appointment.lifecycle.interval:60000}", initialDelayString = "${appointment.lifecycle.interval:60000}")
+    public int sweep() {
+        if (!enabled) {
+            return 0;
+        }
+        Duration lease = Duration.ofSeconds(leaseSeconds);
+        String token = leaseManager.tryAcquire(LEASE_NAME, lease);
+        if (token == null) {
+            log.debug("预约生命周期租约由其他实例持有，本轮跳过");
+            return 0;
+        }
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            int expired = sweep(1, StatusTransition.APPOINTMENT_EXPIRE, now, token, lease);
+            int completed = sweep(2, StatusTransition.APPOINTMENT_COMPLETE, now, token, lease);
+            if (expired > 0 || completed > 0) {
+                log.info("预约生命周期流转完成, 超时取消: {}, 自动完成: {}", expired, completed);
+            }
+            int purged = purgePastSlotLocks(now, token, lease);
+            if (purged > 0) {
+                log.info("已清理过去日期的时间格占用, 条数: {}", purged);
+            }
+            return expired + completed;
+        } finally {
+            leaseManager.release(LEASE_NAME, token);
+        }
+    }
+
+    /**
+     * 分批流转某一状态的到期预约
+     */
+    private int sweep(int status, StatusTransition transition, LocalDateTime now, String token, Duration lease) {
+        int total = 0;
+        for (int i = 0; i < maxBatchesPerRun; i++) {
+            if (i > 0 && !leaseManager.renew(LEASE_NAME, token, lease)) {
+                log.warn("预约生命周期租约已丢失，停止本轮流转");
+                break;
+            }
+            List<Appointment> due = appointmentMapper.selectDueAppointments(status, now.toLocalDate(),
+                    now.toLocalTime(), batchSize);
+            if (due.isEmpty()) {
+                break;
+            }
+            Integer moved = transactionTemplate.execute(tx -> {
+                int count = 0;
+                for (Appointment appointment : due) {
+                    if (transition(appointment, transition)) {
+                        count++;
+                    }
+                }
+                return count;
+            });
+            int count = moved == null ? 0 : moved;
+            total += count;
+            // 整批均未流转成功（如持续版本冲突）时停止，避免本轮反复读取同一批
+            if (due.size() < batchSize || count == 0) {
+                break;
+            }
+        }
+        return total;
+    }
+
+    /**
+     * 分批删除今天之前的时间格占用，每批单独提交，批次之间续期
+     */
+    private int purgePastSlotLocks(LocalDateTime now, String token, Duration lease) {
+        int total = 0;
+        for (int i = 0; i < maxBatchesPerRun; i++) {
+            if (!leaseManager.renew(LEASE_NAME, token, lease)) {
+                log.warn("预约生命周期租约已丢失，停止清理时间格占用");
+                break;
+            }
+            int deleted = appointmentMapper.deletePastSlotLocks(now.toLocalDate(), batchSize);
+            total += deleted;
+            if (deleted < batchSize) {
+                break;
+            }
+        }
+        return total;
+    }
+
+    /**
+     * 以扫描时的版本号流转单个预约
+     */
+    private boolean transition(Appointment appointment, StatusTransition transition) {
+        Long id = appointment.getId();
+        String reason = transition.getToStatus() == 4 ? EXPIRE_REASON : null;
+        TransitionOutcome outcome = statusTransitionEngine.executeWithRetry(transition, null, appointment.getVersion(),
+                version -> appointmentMapper.transitionStatus(id, null, transition.getFromStatuses(),
+                        transition.getToStatus(), version, reason, null),
+                () -> appointmentMapper.selectStatusSnapshot(id));
+        if (!outcome.isSuccess()) {
+            log.debug("预约{}跳过, id: {}, 结果: {}, 当前状态: {}",
+                    transition.getName(), id, outcome.getResult(), outcome.getCurrentStatus());
+            return false;
+        }
+
+        if (transition.getToStatus() == 4) {
+            // 超时取消：释放时间格占用
+            appointmentMapper.deleteSlotLocks(id);
+            slotReservationEngine.release(appointment.getTeacherId(), appointment.getAppointmentDate(),
+                    appointment.getStartTime(), appointment.getEndTime());
+            appointment.setStatus(4);
+            eventPublisher.publishEvent(new AppointmentEvent(AppointmentEvent.Type.CANCELLED, appointment));
+        }
+        return true;
+    }
+}
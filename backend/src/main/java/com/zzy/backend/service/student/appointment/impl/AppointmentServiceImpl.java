@@ -2,26 +2,44 @@ package com.zzy.backend.service.student.appointment.impl;
 
 import com.zzy.backend.common.exception.BusinessException;
 import com.zzy.backend.common.page.PageResult;
+import com.zzy.backend.common.transition.StatusTransition;
+import com.zzy.backend.common.transition.StatusTransitionEngine;
+import com.zzy.backend.common.transition.TransitionOutcome;
 import com.zzy.backend.common.util.DateTimeUtil;
 import com.zzy.backend.common.util.OrderNoGenerator;
 import com.zzy.backend.dto.request.student.appointment.AppointmentListRequest;
 import com.zzy.backend.dto.request.student.appointment.CancelAppointmentRequest;
 import com.zzy.backend.dto.request.student.appointment.CreateAppointmentRequest;
+import com.zzy.backend.dto.request.student.appointment.CreateRecurringAppointmentRequest;
 import com.zzy.backend.dto.response.student.appointment.AppointmentDetailResponse;
 import com.zzy.backend.dto.response.student.appointment.AppointmentListItemResponse;
 import com.zzy.backend.dto.response.student.appointment.CreateAppointmentResponse;
+import com.zzy.backend.dto.response.student.appointment.CreateRecurringAppointmentResponse;
 import com.zzy.backend.entity.student.Appointment;
+import com.zzy.backend.entity.student.AppointmentSeries;
+import com.zzy.backend.entity.student.AppointmentSlotLock;
+import com.zzy.backend.event.AppointmentEvent;
 import com.zzy.backend.mapper.student.appointment.AppointmentMapper;
 import com.zzy.backend.service.student.appointment.AppointmentService;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.DayOfWeek;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 /**
  * 预约服务实现类
@@ -33,6 +51,18 @@ public class AppointmentServiceImpl implements AppointmentService {
     @Autowired
     private AppointmentMapper appointmentMapper;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private SlotReservationEngine slotReservationEngine;
+
+    @Autowired
+    private StatusTransitionEngine statusTransitionEngine;
+
+    @Value("${appointment.recurring.max-occurrences:100}")
+    private int maxRecurringOccurrences;
+
     @Override
     @Transactional(rollbackFor = Exception.class)
     public CreateAppointmentResponse createAppointment(CreateAppointmentRequest request, Long studentId) {
@@ -73,15 +103,198 @@ public class AppointmentServiceImpl implements AppointmentService {
         appointment.setCreatedAt(now);
         appointment.setUpdatedAt(now);
 
-        // 5. 保存预约记录
+        // 5. 占用教师时间段（本地位图快速拒绝冲突，不同教师互不等待）
+        List<Integer> slotIndexes = slotReservationEngine.reserve(appointment.getTeacherId(),
+                appointment.getAppointmentDate(), appointment.getStartTime(), appointment.getEndTime());
+
+        // 6. 保存预约记录
         int result = appointmentMapper.insert(appointment);
         if (result <= 0) {
             throw new BusinessException("创建预约失败");
         }
 
+        // 7. 写入时间格占用，唯一键兜底防止多实例并发重复预约
+        try {
+            appointmentMapper.insertSlotLocks(appointment.getTeacherId(), toSlotLocks(appointment, slotIndexes));
+        } catch (DuplicateKeyException e) {
+            log.warn("时间格占用冲突, teacherId: {}, date: {}", appointment.getTeacherId(), appointment.getAppointmentDate());
+            throw new BusinessException("该时间段教师已有预约，请选择其他时间");
+        }
+
         log.info("预约创建成功, orderNo: {}, appointmentId: {}", orderNo, appointment.getId());
+        eventPublisher.publishEvent(new AppointmentEvent(AppointmentEvent.Type.CREATED, appointment));
+
+        // 8. 构建响应
+        return toCreateResponse(appointment);
+    }
+
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public CreateRecurringAppointmentResponse createRecurringAppointments(CreateRecurringAppointmentRequest request, Long studentId) {
+        log.info("创建周期预约, studentId: {}, request: {}", studentId, request);
+
+        // 1. 参数校验并展开课程日期
+        LocalTime startTime = DateTimeUtil.parseTimeShort(request.getStartTime());
+        LocalTime endTime = DateTimeUtil.parseTimeShort(request.getEndTime());
+        validateTimeRange(startTime, endTime, request.getDuration());
+        List<LocalDate> dates = expandOccurrences(request, startTime);
+
+        // 2. 一次性检查并占用全部日期的时间段，任一日期冲突即整体失败
+        List<Integer> slotIndexes = slotReservationEngine.reserveAll(request.getTeacherId(), dates, startTime, endTime);
+
+        LocalDateTime now = LocalDateTime.now();
+
+        // 3. 保存周期规则
+        AppointmentSeries series = new AppointmentSeries();
+        series.setStudentId(studentId);
+        series.setTeacherId(request.getTeacherId());
+        series.setStageId(request.getStageId());
+        series.setSubjectId(request.getSubjectId());
+        series.setWeekdays(request.getWeekdays().stream().distinct().sorted()
+                .map(String::valueOf).collect(Collectors.joining(",")));
+        series.setStartTime(startTime);
+        series.setEndTime(endTime);
+        series.setStartDate(dates.get(0));
+        series.setEndDate(dates.get(dates.size() - 1));
+        series.setOccurrenceCount(dates.size());
+        series.setCreatedAt(now);
+        series.setUpdatedAt(now);
+        if (appointmentMapper.insertSeries(series) <= 0) {
+            throw new BusinessException("创建周期预约失败");
+        }
+
+        // 4. 构建各次课程的预约（订单号批量生成，金额由服务端按单价计算）
+        BigDecimal totalAmount = request.getPricePerHour()
+                .multiply(BigDecimal.valueOf(request.getDuration()))
+                .divide(BigDecimal.valueOf(60), 2, RoundingMode.HALF_UP);
+        List<String> orderNos = OrderNoGenerator.generateAppointmentOrderNos(dates.size());
+        List<Appointment> appointments = new ArrayList<>(dates.size());
+        for (int i = 0; i < dates.size(); i++) {
+            Appointment appointment = new Appointment();
+            appointment.setOrderNo(orderNos.get(i));
+            appointment.setSeriesId(series.getId());
+            appointment.setStudentId(studentId);
+            appointment.setTeacherId(request.getTeacherId());
+            appointment.setStageId(request.getStageId());
+            appointment.setSubjectId(request.getSubjectId());
+            appointment.setAppointmentDate(dates.get(i));
+            appointment.setStartTime(startTime);
+            appointment.setEndTime(endTime);
+            appointment.setDuration(request.getDuration());
+            appointment.setPricePerHour(request.getPricePerHour());
+            appointment.setTotalAmount(totalAmount);
+            appointment.setStudentName(request.getStudentName());
+            appointment.setStudentGrade(request.getStudentGrade());
+            appointment.setStudentPhone(request.getStudentPhone());
+            appointment.setRemark(request.getRemark());
+            appointment.setStatus(1);
+            appointment.setVersion(1);
+            appointment.setCreatedAt(now);
+            appointment.setUpdatedAt(now);
+            appointments.add(appointment);
+        }
+
+        // 5. 多行插入全部预约
+        int result = appointmentMapper.insertBatch(appointments);
+        if (result != appointments.size()) {
+            throw new BusinessException("创建周期预约失败");
+        }
+
+        // 6. 一条语句写入全部时间格占用，唯一键兜底防止多实例并发重复预约
+        List<AppointmentSlotLock> locks = new ArrayList<>(appointments.size() * slotIndexes.size());
+        for (Appointment appointment : appointments) {
+            locks.addAll(toSlotLocks(appointment, slotIndexes));
+        }
+        try {
+            appointmentMapper.insertSlotLocks(request.getTeacherId(), locks);
+        } catch (DuplicateKeyException e) {
+            log.warn("周期预约时间格占用冲突, teacherId: {}, seriesId: {}", request.getTeacherId(), series.getId());
+            throw new BusinessException("该时间段教师已有预约，请选择其他时间");
+        }
+
+        log.info("周期预约创建成功, seriesId: {}, count: {}", series.getId(), appointments.size());
+        List<CreateAppointmentResponse> items = new ArrayList<>(appointments.size());
+        for (Appointment appointment : appointments) {
+            eventPublisher.publishEvent(new AppointmentEvent(AppointmentEvent.Type.CREATED, appointment));
+            items.add(toCreateResponse(appointment));
+        }
+
+        CreateRecurringAppointmentResponse response = new CreateRecurringAppointmentResponse();
+        response.setSeriesId(series.getId());
+        response.setCount(items.size());
+        response.setTotalAmount(totalAmount.multiply(BigDecimal.valueOf(items.size())));
+        response.setAppointments(items);
+        return response;
+    }
+
+    /**
+     * 按每周上课日展开起止日期内的课程日期（跳过今天已开始的时间段）
+     */
+    private List<LocalDate> expandOccurrences(CreateRecurringAppointmentRequest request, LocalTime startTime) {
+        LocalDate startDate = DateTimeUtil.parseDate(request.getStartDate());
+        LocalDate endDate = DateTimeUtil.parseDate(request.getEndDate());
+        if (startDate == null || endDate == null) {
+            throw new BusinessException("日期格式不正确");
+        }
+        if (endDate.isBefore(startDate)) {
+            throw new BusinessException("结束日期不能早于起始日期");
+        }
+        LocalDate today = LocalDate.now();
+        if (startDate.isBefore(today)) {
+            throw new BusinessException("起始日期不能是过去的时间");
+        }
 
-        // 6. 构建响应
+        Set<DayOfWeek> weekdays = request.getWeekdays().stream()
+                .map(DayOfWeek::of)
+                .collect(Collectors.toCollection(() -> EnumSet.noneOf(DayOfWeek.class)));
+        boolean startedToday = startTime.isBefore(LocalTime.now());
+        List<LocalDate> dates = new ArrayList<>();
+        for (LocalDate date = startDate; !date.isAfter(endDate); date = date.plusDays(1)) {
+            if (!weekdays.contains(date.getDayOfWeek()) || (date.equals(today) && startedToday)) {
+                continue;
+            }
+            if (dates.size() >= maxRecurringOccurrences) {
+                throw new BusinessException("周期预约课程次数不能超过" + maxRecurringOccurrences + "次");
+            }
+            dates.add(date);
+        }
+        if (dates.isEmpty()) {
+            throw new BusinessException("所选日期范围内没有可预约的上课日");
+        }
+        return dates;
+    }
+
+    /**
+     * 验证时间段与时长
+     */
+    private void validateTimeRange(LocalTime startTime, LocalTime endTime, Integer duration) {
+        if (startTime == null || endTime == null) {
+            throw new BusinessException("时间格式不正确");
+        }
+        if (!endTime.isAfter(startTime)) {
+            throw new BusinessException("结束时间必须晚于开始时间");
+        }
+        int calculatedDuration = (int) java.time.Duration.between(startTime, endTime).toMinutes();
+        if (Math.abs(calculatedDuration - duration) > 1) {
+            throw new BusinessException("时长与时间段不匹配，计算时长：" + calculatedDuration + "分钟，提交时长：" + duration + "分钟");
+        }
+    }
+
+    /**
+     * 构建预约的时间格占用记录
+     */
+    private List<AppointmentSlotLock> toSlotLocks(Appointment appointment, List<Integer> slotIndexes) {
+        List<AppointmentSlotLock> locks = new ArrayList<>(slotIndexes.size());
+        for (Integer slotIndex : slotIndexes) {
+            locks.add(new AppointmentSlotLock(appointment.getId(), appointment.getAppointmentDate(), slotIndex));
+        }
+        return locks;
+    }
+
+    /**
+     * 构建创建预约响应
+     */
+    private CreateAppointmentResponse toCreateResponse(Appointment appointment) {
         CreateAppointmentResponse response = new CreateAppointmentResponse();
         response.setId(appointment.getId());
         response.setOrderNo(appointment.getOrderNo());
@@ -90,7 +303,6 @@ public class AppointmentServiceImpl implements AppointmentService {
         response.setStartTime(appointment.getStartTime());
         response.setEndTime(appointment.getEndTime());
         response.setTotalAmount(appointment.getTotalAmount());
-
         return response;
     }
 
@@ -183,40 +395,50 @@ public class AppointmentServiceImpl implements AppointmentService {
     public boolean cancelAppointment(Long id, CancelAppointmentRequest request, Long studentId) {
         log.info("取消预约, id: {}, studentId: {}, reason: {}", id, studentId, request.getReason());
 
-        // 1. 查询预约记录
-        Appointment appointment = appointmentMapper.selectById(id);
-        if (appointment == null) {
-            throw new BusinessException("预约不存在");
-        }
-
-        // 2. 验证权限（只能取消自己的预约）
-        if (!appointment.getStudentId().equals(studentId)) {
-            throw new BusinessException("无权限取消该预约");
-        }
-
-        // 3. 验证状态（只能取消待确认或已确认的预约）
-        if (appointment.getStatus() == 3) {
-            throw new BusinessException("已完成的预约不能取消");
-        }
-        if (appointment.getStatus() == 4) {
-            throw new BusinessException("该预约已被取消");
+        // 1. 条件更新预约状态（待确认、已确认 -> 已取消），不预先查询
+        StatusTransition transition = StatusTransition.APPOINTMENT_CANCEL;
+        TransitionOutcome outcome = statusTransitionEngine.execute(transition, studentId, request.getVersion(),
+                version -> appointmentMapper.transitionStatus(id, studentId, transition.getFromStatuses(),
+                        transition.getToStatus(), version, request.getReason(), studentId),
+                () -> appointmentMapper.selectStatusSnapshot(id));
+        if (!outcome.isSuccess()) {
+            throw new BusinessException(cancelFailureMessage(outcome));
         }
 
-        // 4. 更新预约状态
-        int result = appointmentMapper.updateAppointmentStatus(
-                id,
-                4, // 已取消
-                request.getReason(),
-                studentId
-        );
+        // 2. 读取已取消的预约（本事务已持有行锁），用于释放时间格与发布事件
+        Appointment appointment = appointmentMapper.selectById(id);
 
-        if (result <= 0) {
-            throw new BusinessException("取消预约失败");
-        }
+        // 3. 释放时间格占用
+        appointmentMapper.deleteSlotLocks(id);
+        slotReservationEngine.release(appointment.getTeacherId(), appointment.getAppointmentDate(),
+                appointment.getStartTime(), appointment.getEndTime());
 
         log.info("预约取消成功, id: {}, orderNo: {}", id, appointment.getOrderNo());
+        eventPublisher.publishEvent(new AppointmentEvent(AppointmentEvent.Type.CANCELLED, appointment));
         return true;
     }
 
+    /**
+     * 取消预约失败原因
+     */
+    private String cancelFailureMessage(TransitionOutcome outcome) {
+        switch (outcome.getResult()) {
+            case NOT_FOUND:
+                return "预约不存在";
+            case FORBIDDEN:
+                return "无权限取消该预约";
+            case INVALID_STATUS:
+                if (Integer.valueOf(3).equals(outcome.getCurrentStatus())) {
+                    return "已完成的预约不能取消";
+                }
+                if (Integer.valueOf(4).equals(outcome.getCurrentStatus())) {
+                    return "该预约已被取消";
+                }
+                return "当前状态不允许取消";
+            case CONFLICT:
+                return "预约已被修改，请刷新后重试";
+            default:
+                return "取消预约失败";
+        }
+    }
 }
-
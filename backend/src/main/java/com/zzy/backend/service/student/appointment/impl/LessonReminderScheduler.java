@@ -0,0 +1,236 @@
+package com.zzy.backend.service.student.appointment.impl;
+
+import com.zzy.backend.common.timer.HierarchicalTimingWheel;
+import com.zzy.backend.entity.notification.Notification;
+import com.zzy.backend.entity.student.Appointment;
+import com.zzy.backend.event.AppointmentEvent;
+import com.zzy.backend.mapper.student.appointment.AppointmentMapper;
+import com.zzy.backend.service.student.notification.NotificationService;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 上课提醒调度器
+ * <p>
+ * 进程内分层时间轮保存提醒时间落在前瞻窗口内的预约（预约ID -> 开课前 N 分钟），每个 tick 只处理到期槽，
+ * 与时间轮中的提醒总数无关。启动时及之后定期按开始时间范围扫描已确认、未提醒的预约重建/补充时间轮；
+ * 预约创建、确认、取消事件实时增删定时器。
+ * <p>
+ * 到期时以条件更新（已确认、未提醒、尚未开始）标记 reminded_at 并在同一事务中给学生和教师各写一条通知，
+ * 状态已变化的预约不会提醒；多实例各自持有时间轮，由条件更新保证同一预约只提醒一次。
+ */
+@Slf4j
+@Component
+public class LessonReminderScheduler {
+
+    private static final DateTimeFormatter TIME_FORMATTER = DateTimeFormatter.ofPattern("HH:mm");
+
+    /**
+     * 通知类型：预约通知
+     */
+    private static final int NOTIFICATION_TYPE_APPOINTMENT = 2;
+
+    @Value("${reminder.enabled:true}")
+    private boolean enabled;
+
+    @Value("${reminder.lead-minutes:15}")
+    private long leadMinutes;
+
+    @Value("${reminder.horizon-minutes:120}")
+    private long horizonMinutes;
+
+    @Value("${reminder.tick-millis:1000}")
+    private long tickMillis;
+
+    @Value("${reminder.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${reminder.sender-threads:2}")
+    private int senderThreads;
+
+    @Autowired
+    private AppointmentMapper appointmentMapper;
+
+    @Autowired
+    private NotificationService notificationService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final ZoneId zone = ZoneId.systemDefault();
+
+    private HierarchicalTimingWheel<Long> wheel;
+
+    private ScheduledExecutorService ticker;
+
+    private ThreadPoolExecutor senderExecutor;
+
+    @PostConstruct
+    public void init() {
+        wheel = new HierarchicalTimingWheel<>(tickMillis, System.currentTimeMillis());
+        if (!enabled) {
+            return;
+        }
+        ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "lesson-reminder-tick");
+            thread.setDaemon(true);
+            return thread;
+        });
+        ticker.scheduleAtFixedRate(this::tick, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+
+        AtomicInteger threadIndex = new AtomicInteger();
+        // 队列满时由时间轮线程发送，提醒不会被丢弃
+        senderExecutor = new ThreadPoolExecutor(senderThreads, senderThreads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(senderThreads * 256), runnable -> {
+            Thread thread = new Thread(runnable, "lesson-reminder-sender-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }, new ThreadPoolExecutor.CallerRunsPolicy());
+
+        Gauge.builder("lesson.reminder.pending", wheel, HierarchicalTimingWheel::size)
+                .description("时间轮中待发送的上课提醒数").register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (ticker != null) {
+            ticker.shutdownNow();
+        }
+        if (senderExecutor != null) {
+            senderExecutor.shutdown();
+        }
+    }
+
+    /**
+     * 按开始时间范围扫描前瞻窗口内已确认、未提醒的预约（启动时立即执行一次，之后定期补充窗口）
+     */
+    @Scheduled(fixedDelayString = "${reminder.reload-interval:600000}")
+    public void reload() {
+        if (!enabled) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime to = now.plusMinutes(leadMinutes + horizonMinutes);
+        int loaded = 0;
+        try {
+            long afterId = 0L;
+            while (true) {
+                List<Appointment> batch = appointmentMapper.selectUpcomingForReminder(now, to, afterId, batchSize);
+                for (Appointment appointment : batch) {
+                    wheel.schedule(appointment.getId(), remindAt(appointment.getAppointmentDate(), appointment.getStartTime()));
+                }
+                loaded += batch.size();
+                if (batch.size() < batchSize) {
+                    break;
+                }
+                afterId = batch.get(batch.size() - 1).getId();
+            }
+            log.debug("上课提醒窗口已加载, 本次: {}, 时间轮中: {}", loaded, wheel.size());
+        } catch (Exception e) {
+            log.warn("加载上课提醒失败, 已加载: {}, 错误: {}", loaded, e.getMessage());
+        }
+    }
+
+    /**
+     * 事务提交后增删提醒（待确认的预约也先放入时间轮，到期时只提醒届时已确认的）
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onAppointmentEvent(AppointmentEvent event) {
+        if (!enabled) {
+            return;
+        }
+        switch (event.getType()) {
+            case CREATED:
+            case CONFIRMED:
+                LocalDateTime startAt = LocalDateTime.of(event.getAppointmentDate(), event.getStartTime());
+                if (startAt.isAfter(LocalDateTime.now())
+                        && !startAt.isAfter(LocalDateTime.now().plusMinutes(leadMinutes + horizonMinutes))) {
+                    wheel.schedule(event.getAppointmentId(), remindAt(event.getAppointmentDate(), event.getStartTime()));
+                }
+                break;
+            case CANCELLED:
+                wheel.cancel(event.getAppointmentId());
+                break;
+            default:
+                break;
+        }
+    }
+
+    private void tick() {
+        try {
+            for (Long appointmentId : wheel.advance(System.currentTimeMillis())) {
+                senderExecutor.execute(() -> remind(appointmentId));
+            }
+        } catch (Exception e) {
+            log.error("上课提醒时间轮推进失败", e);
+        }
+    }
+
+    /**
+     * 发送上课提醒：条件更新成功（仍为已确认、未提醒、未开始）才写入通知
+     */
+    private void remind(Long appointmentId) {
+        try {
+            transactionTemplate.executeWithoutResult(tx -> {
+                LocalDateTime now = LocalDateTime.now();
+                if (appointmentMapper.markReminded(appointmentId, now) <= 0) {
+                    return;
+                }
+                Appointment appointment = appointmentMapper.selectById(appointmentId);
+                LocalDateTime startAt = LocalDateTime.of(appointment.getAppointmentDate(), appointment.getStartTime());
+                long minutes = Math.max(1, (Duration.between(now, startAt).getSeconds() + 59) / 60);
+                String time = appointment.getStartTime().format(TIME_FORMATTER);
+
+                notificationService.createNotification(buildNotification(appointment.getStudentId(), appointment,
+                        "您预约的课程将于" + time + "开始（约" + minutes + "分钟后），请提前做好上课准备。订单号：" + appointment.getOrderNo()));
+                notificationService.createNotification(buildNotification(appointment.getTeacherId(), appointment,
+                        "您的课程将于" + time + "开始（约" + minutes + "分钟后），学生：" + appointment.getStudentName() + "。订单号：" + appointment.getOrderNo()));
+                log.info("上课提醒已发送, appointmentId: {}, startAt: {}", appointmentId, startAt);
+            });
+        } catch (Exception e) {
+            log.error("发送上课提醒失败, appointmentId: {}", appointmentId, e);
+        }
+    }
+
+    private Notification buildNotification(Long userId, Appointment appointment, String content) {
+        Notification notification = new Notification();
+        notification.setUserId(userId);
+        notification.setType(NOTIFICATION_TYPE_APPOINTMENT);
+        notification.setTitle("课程即将开始");
+        notification.setContent(content);
+        notification.setRelatedId(appointment.getId());
+        notification.setRelatedType("appointment");
+        return notification;
+    }
+
+    private long remindAt(LocalDate date, LocalTime startTime) {
+        return LocalDateTime.of(date, startTime).minusMinutes(leadMinutes).atZone(zone).toInstant().toEpochMilli();
+    }
+}
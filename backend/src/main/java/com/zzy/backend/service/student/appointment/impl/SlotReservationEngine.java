@@ -0,0 +1,263 @@
+package com.zzy.backend.service.student.appointment.impl;
+
+import com.zzy.backend.common.exception.BusinessException;
+import com.zzy.backend.dto.response.student.appointment.AppointmentSlotResponse;
+import com.zzy.backend.mapper.student.appointment.AppointmentMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+/**
+ * 预约时间格占用引擎
+ * <p>
+ * 按教师、日期维护 5 分钟粒度的占用位图（每天 288 格），首次访问时从预约表加载。
+ * 预约与释放按教师ID分段加锁，不同教师的预约互不等待；位图只用于快速拒绝冲突，
+ * 最终以 appointment_slot_locks 表的唯一键为准：本地位图显示冲突时重新加载后再判断（其他实例可能已取消），
+ * 写库冲突（其他实例已占用）时事务回滚并丢弃本地位图，下次访问重新加载。
+ */
+@Slf4j
+@Component
+public class SlotReservationEngine {
+
+    /**
+     * 时间格粒度（分钟）
+     */
+    public static final int SLOT_MINUTES = 5;
+
+    /**
+     * 每天的时间格数
+     */
+    public static final int SLOTS_PER_DAY = 24 * 60 / SLOT_MINUTES;
+
+    /**
+     * 分段锁数量（2 的幂）
+     */
+    private static final int STRIPES = 256;
+
+    @Autowired
+    private AppointmentMapper appointmentMapper;
+
+    private final ReentrantLock[] locks = new ReentrantLock[STRIPES];
+
+    /**
+     * 教师ID:日期 -> 占用位图
+     */
+    private final Map<String, BitSet> days = new ConcurrentHashMap<>();
+
+    public SlotReservationEngine() {
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * 占用时间段（需在写入预约的事务中调用，事务回滚时自动丢弃本地位图）
+     *
+     * @param teacherId 教师用户ID
+     * @param date 日期
+     * @param startTime 开始时间
+     * @param endTime 结束时间
+     * @return 占用的时间格序号，用于写入 appointment_slot_locks
+     */
+    public List<Integer> reserve(Long teacherId, LocalDate date, LocalTime startTime, LocalTime endTime) {
+        return reserveAll(teacherId, Collections.singletonList(date), startTime, endTime);
+    }
+
+    /**
+     * 一次占用多天的同一时间段（周期预约）：全部无冲突时才占用，否则整体拒绝
+     *
+     * @param teacherId 教师用户ID
+     * @param dates 日期列表
+     * @param startTime 开始时间
+     * @param endTime 结束时间
+     * @return 每天占用的时间格序号，用于写入 appointment_slot_locks
+     */
+    public List<Integer> reserveAll(Long teacherId, List<LocalDate> dates, LocalTime startTime, LocalTime endTime) {
+        int from = fromSlot(startTime);
+        int to = toSlot(endTime);
+        ReentrantLock lock = lock(teacherId);
+        lock.lock();
+        try {
+            // 本地位图不存在或显示冲突的日期以数据库为准（其他实例可能已取消预约），一次查询加载
+            List<LocalDate> stale = new ArrayList<>();
+            for (LocalDate date : dates) {
+                BitSet day = days.get(key(teacherId, date));
+                if (day == null || overlaps(day, from, to)) {
+                    stale.add(date);
+                }
+            }
+            if (!stale.isEmpty()) {
+                Map<LocalDate, BitSet> loaded = load(teacherId, stale);
+                loaded.forEach((date, day) -> days.put(key(teacherId, date), day));
+            }
+
+            List<LocalDate> conflicts = new ArrayList<>();
+            for (LocalDate date : dates) {
+                if (overlaps(days.get(key(teacherId, date)), from, to)) {
+                    conflicts.add(date);
+                }
+            }
+            if (!conflicts.isEmpty()) {
+                if (dates.size() == 1) {
+                    throw new BusinessException("该时间段教师已有预约，请选择其他时间");
+                }
+                throw new BusinessException("以下日期该时间段教师已有预约：" + conflicts.stream()
+                        .map(LocalDate::toString).collect(Collectors.joining("、")));
+            }
+            for (LocalDate date : dates) {
+                days.get(key(teacherId, date)).set(from, to);
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        afterRollback(() -> {
+            for (LocalDate date : dates) {
+                invalidate(teacherId, date);
+            }
+        });
+
+        List<Integer> slotIndexes = new ArrayList<>(to - from);
+        for (int slot = from; slot < to; slot++) {
+            slotIndexes.add(slot);
+        }
+        return slotIndexes;
+    }
+
+    /**
+     * 释放时间段（需在取消预约的事务中调用，事务提交后生效）
+     *
+     * @param teacherId 教师用户ID
+     * @param date 日期
+     * @param startTime 开始时间
+     * @param endTime 结束时间
+     */
+    public void release(Long teacherId, LocalDate date, LocalTime startTime, LocalTime endTime) {
+        int from = fromSlot(startTime);
+        int to = toSlot(endTime);
+        afterCommit(() -> {
+            ReentrantLock lock = lock(teacherId);
+            lock.lock();
+            try {
+                BitSet day = days.get(key(teacherId, date));
+                if (day != null) {
+                    day.clear(from, to);
+                }
+            } finally {
+                lock.unlock();
+            }
+        });
+    }
+
+    /**
+     * 丢弃本地位图，下次访问时重新加载
+     */
+    public void invalidate(Long teacherId, LocalDate date) {
+        ReentrantLock lock = lock(teacherId);
+        lock.lock();
+        try {
+            days.remove(key(teacherId, date));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 每天凌晨清理已过去日期的位图
+     */
+    @Scheduled(cron = "0 5 0 * * ?")
+    public void evictPastDays() {
+        LocalDate today = LocalDate.now();
+        days.keySet().removeIf(key -> LocalDate.parse(key.substring(key.indexOf(':') + 1)).isBefore(today));
+    }
+
+    /**
+     * 从预约表加载指定日期的占用位图（按日期范围一次查询）
+     */
+    private Map<LocalDate, BitSet> load(Long teacherId, List<LocalDate> dates) {
+        Map<LocalDate, BitSet> loaded = new HashMap<>();
+        for (LocalDate date : dates) {
+            loaded.put(date, new BitSet(SLOTS_PER_DAY));
+        }
+        LocalDate fromDate = Collections.min(dates);
+        LocalDate toDate = Collections.max(dates);
+        List<AppointmentSlotResponse> slots = appointmentMapper.selectActiveSlotsBetween(teacherId, fromDate, toDate);
+        for (AppointmentSlotResponse slot : slots) {
+            BitSet day = loaded.get(slot.getAppointmentDate());
+            if (day != null) {
+                day.set(fromSlot(slot.getStartTime()), toSlot(slot.getEndTime()));
+            }
+        }
+        return loaded;
+    }
+
+    private static boolean overlaps(BitSet day, int from, int to) {
+        int next = day.nextSetBit(from);
+        return next >= 0 && next < to;
+    }
+
+    /**
+     * 开始时间所在的时间格（向下取整）
+     */
+    static int fromSlot(LocalTime time) {
+        return (time.getHour() * 60 + time.getMinute()) / SLOT_MINUTES;
+    }
+
+    /**
+     * 结束时间之后的第一个时间格（向上取整），不足一格的时间段也占用整格
+     */
+    static int toSlot(LocalTime time) {
+        int minutes = time.getHour() * 60 + time.getMinute() + (time.getSecond() > 0 ? 1 : 0);
+        return Math.min((minutes + SLOT_MINUTES - 1) / SLOT_MINUTES, SLOTS_PER_DAY);
+    }
+
+    private ReentrantLock lock(Long teacherId) {
+        return locks[Long.hashCode(teacherId) & (STRIPES - 1)];
+    }
+
+    private static String key(Long teacherId, LocalDate date) {
+        return teacherId + ":" + date;
+    }
+
+    private static void afterRollback(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    action.run();
+                }
+            }
+        });
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
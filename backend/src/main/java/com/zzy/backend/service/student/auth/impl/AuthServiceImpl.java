@@ -5,12 +5,14 @@ import com.zzy.backend.dto.request.student.auth.LoginRequest;
 import com.zzy.backend.dto.request.student.auth.RegisterRequest;
 import com.zzy.backend.dto.response.student.auth.LoginResponse;
 import com.zzy.backend.entity.user.User;
+import com.zzy.backend.event.TeacherChangedEvent;
 import com.zzy.backend.mapper.student.auth.UserMapper;
 import com.zzy.backend.service.student.auth.AuthService;
 import com.zzy.backend.common.util.JwtUtil;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -33,6 +35,9 @@ public class AuthServiceImpl implements AuthService {
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     @Override
     @Transactional(rollbackFor = Exception.class)
     public LoginResponse login(LoginRequest request, String clientIp) {
@@ -130,6 +135,11 @@ public class AuthServiceImpl implements AuthService {
             throw new BusinessException("注册失败，请稍后重试");
         }
 
+        // 6. 注册教师时同步教师搜索数据
+        if (user.getRole() == 2) {
+            eventPublisher.publishEvent(new TeacherChangedEvent(user.getId()));
+        }
+
         log.info("用户注册成功, userId: {}, username: {}", user.getId(), user.getUsername());
         return true;
     }
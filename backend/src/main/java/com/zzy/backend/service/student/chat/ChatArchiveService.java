@@ -0,0 +1,30 @@
+package com.zzy.backend.service.student.chat;
+
+/**
+ * 聊天消息归档服务接口
+ * 定期将超过保留期的消息从热表 chat_messages 搬入压缩的归档表 chat_messages_archive
+ */
+public interface ChatArchiveService {
+
+    /**
+     * 执行一轮归档
+     *
+     * @return 本轮归档的消息数
+     */
+    int archive();
+
+    /**
+     * 是否存在已归档的消息（决定消息查询是否需要向归档表续查）
+     *
+     * @return 是否存在归档消息
+     */
+    boolean hasArchivedMessages();
+
+    /**
+     * 游标之后是否可能存在归档消息
+     *
+     * @param messageId 游标消息ID
+     * @return 游标小于已归档的最大消息ID时返回 true
+     */
+    boolean mayHaveArchivedAfter(Long messageId);
+}
@@ -0,0 +1,29 @@
+package com.zzy.backend.service.student.chat;
+
+import com.zzy.backend.dto.response.student.chat.ChatListItemResponse;
+
+import java.util.List;
+
+/**
+ * 聊天收件箱服务接口
+ * 在 Redis 中为每个用户物化会话列表（按最后消息时间排序），聊天列表读取无需联表
+ */
+public interface ChatInboxService {
+
+    /**
+     * 分页获取用户的会话列表（按最后消息时间倒序）
+     *
+     * @param userId 用户ID
+     * @param offset 偏移量
+     * @param limit 数量，小于等于0表示全部
+     * @return 会话列表
+     */
+    List<ChatListItemResponse> getInbox(Long userId, int offset, int limit);
+
+    /**
+     * 使用户的收件箱缓存失效，下次读取时从数据库重建
+     *
+     * @param userId 用户ID
+     */
+    void invalidate(Long userId);
+}
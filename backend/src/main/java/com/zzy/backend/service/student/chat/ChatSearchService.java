@@ -0,0 +1,34 @@
+package com.zzy.backend.service.student.chat;
+
+import com.zzy.backend.dto.response.student.chat.MessageResponse;
+
+import java.util.List;
+
+/**
+ * 聊天记录搜索服务接口
+ * 基于进程内倒排索引（中文二元分词），不依赖外部搜索服务
+ */
+public interface ChatSearchService {
+
+    /**
+     * 在用户的会话中搜索消息（按消息ID倒序，即最新的在前）
+     *
+     * @param userId 当前用户ID
+     * @param keyword 关键词（多个词用空格分隔，需全部命中）
+     * @param relationshipId 限定会话ID（为空时搜索用户的全部会话）
+     * @param before 翻页游标（只返回ID小于该值的消息）
+     * @param limit 返回数量
+     * @return 消息列表
+     */
+    List<MessageResponse> search(Long userId, String keyword, Long relationshipId, Long before, Integer limit);
+
+    /**
+     * 从数据库全量重建索引（热表与归档表）
+     */
+    void rebuild();
+
+    /**
+     * 将索引快照写入本地磁盘
+     */
+    void snapshot();
+}
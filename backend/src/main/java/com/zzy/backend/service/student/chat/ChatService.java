@@ -3,6 +3,7 @@ package com.zzy.backend.service.student.chat;
 import com.zzy.backend.dto.request.student.chat.SendMessageRequest;
 import com.zzy.backend.dto.response.student.chat.ChatListItemResponse;
 import com.zzy.backend.dto.response.student.chat.ChatRelationshipResponse;
+import com.zzy.backend.dto.response.student.chat.MessageCursorResponse;
 import com.zzy.backend.dto.response.student.chat.MessageResponse;
 import com.zzy.backend.dto.response.student.chat.UnreadCountResponse;
 
@@ -14,12 +15,14 @@ import java.util.List;
 public interface ChatService {
 
     /**
-     * 获取聊天列表
+     * 获取聊天列表（按最后消息时间倒序）
      *
      * @param userId 用户ID
+     * @param page 页码（为空时返回全部）
+     * @param pageSize 每页数量
      * @return 聊天列表
      */
-    List<ChatListItemResponse> getChatList(Long userId);
+    List<ChatListItemResponse> getChatList(Long userId, Integer page, Integer pageSize);
 
     /**
      * 获取聊天消息列表（分页）
@@ -32,6 +35,19 @@ public interface ChatService {
      */
     List<MessageResponse> getChatMessages(Long relationshipId, Long userId, Integer page, Integer pageSize);
 
+    /**
+     * 获取聊天消息列表（游标分页）
+     * before 与 after 均为空时返回最新一页；before 向前加载历史，after 增量拉取新消息
+     *
+     * @param relationshipId 关系ID
+     * @param userId 当前用户ID
+     * @param before 向前翻页游标（消息ID，不含）
+     * @param after 增量拉取游标（消息ID，不含）
+     * @param limit 每次数量
+     * @return 消息游标分页结果
+     */
+    MessageCursorResponse getChatMessagesByCursor(Long relationshipId, Long userId, Long before, Long after, Integer limit);
+
     /**
      * 发送消息
      *
@@ -0,0 +1,51 @@
+package com.zzy.backend.service.student.chat;
+
+import java.util.Map;
+
+/**
+ * 聊天未读数服务接口
+ * 基于 Redis 增量维护每个用户的会话未读数及总未读数，数据库仍为最终数据源
+ */
+public interface ChatUnreadService {
+
+    /**
+     * 获取用户未读消息总数（缓存未命中时从数据库加载）
+     *
+     * @param userId 用户ID
+     * @return 未读消息总数
+     */
+    int getTotalUnread(Long userId);
+
+    /**
+     * 获取用户各会话的未读数（缓存未命中时从数据库加载）
+     *
+     * @param userId 用户ID
+     * @return 关系ID -> 未读数（未读为0的会话不包含在内）
+     */
+    Map<Long, Integer> getUnreadCounts(Long userId);
+
+    /**
+     * 增加用户某会话的未读数
+     *
+     * @param userId 用户ID
+     * @param relationshipId 关系ID
+     * @param delta 增量
+     */
+    void increase(Long userId, Long relationshipId, int delta);
+
+    /**
+     * 清空用户某会话的未读数
+     *
+     * @param userId 用户ID
+     * @param relationshipId 关系ID
+     */
+    void clear(Long userId, Long relationshipId);
+
+    /**
+     * 按数据库重建用户的未读数缓存
+     *
+     * @param userId 用户ID
+     * @return 重建后的未读消息总数
+     */
+    int rebuild(Long userId);
+}
@@ -0,0 +1,115 @@
+package com.zzy.backend.service.student.chat.impl;
+
+import com.zzy.backend.mapper.student.chat.ChatMessageArchiveMapper;
+import com.zzy.backend.service.student.chat.ChatArchiveService;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 聊天消息归档服务实现类
+ * <p>
+ * 按批（复制到归档表 + 从热表删除，同一事务）搬移超过保留期的消息，批次间短暂停顿以减小对线上写入的影响。
+ * 已归档的最大消息ID缓存在内存中，供消息查询判断是否需要续查归档表。
+ */
+@Slf4j
+@Service
+public class ChatArchiveServiceImpl implements ChatArchiveService {
+
+    @Value("${chat.archive.enabled:false}")
+    private boolean enabled;
+
+    @Value("${chat.archive.retention-days:180}")
+    private int retentionDays;
+
+    @Value("${chat.archive.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${chat.archive.max-batches-per-run:500}")
+    private int maxBatchesPerRun;
+
+    @Value("${chat.archive.batch-pause-ms:100}")
+    private long batchPauseMs;
+
+    @Autowired
+    private ChatMessageArchiveMapper archiveMapper;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    /**
+     * 已归档的最大消息ID（0 表示无归档数据）
+     */
+    private volatile long maxArchivedId;
+
+    @PostConstruct
+    public void init() {
+        refreshMaxArchivedId();
+    }
+
+    @Override
+    @Scheduled(cron = "${chat.archive.cron:0 30 3 * * ?}")
+    public int archive() {
+        if (!enabled) {
+            return 0;
+        }
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(retentionDays);
+        log.info("开始归档聊天消息, 截止时间: {}", cutoff);
+
+        int total = 0;
+        for (int i = 0; i < maxBatchesPerRun; i++) {
+            List<Long> ids = archiveMapper.selectArchivableIds(cutoff, batchSize);
+            if (ids.isEmpty()) {
+                break;
+            }
+            Integer moved = transactionTemplate.execute(status -> {
+                archiveMapper.copyToArchive(ids);
+                return archiveMapper.deleteFromHot(ids);
+            });
+            total += moved == null ? 0 : moved;
+            if (ids.size() < batchSize) {
+                break;
+            }
+            try {
+                Thread.sleep(batchPauseMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+
+        refreshMaxArchivedId();
+        log.info("聊天消息归档完成, 归档条数: {}, 已归档最大消息ID: {}", total, maxArchivedId);
+        return total;
+    }
+
+    @Override
+    public boolean hasArchivedMessages() {
+        return maxArchivedId > 0;
+    }
+
+    @Override
+    public boolean mayHaveArchivedAfter(Long messageId) {
+        return messageId != null && messageId < maxArchivedId;
+    }
+
+    /**
+     * 定期刷新已归档的最大消息ID（多实例部署时同步其他实例的归档进度）
+     */
+    @Scheduled(fixedDelayString = "${chat.archive.refresh-interval:600000}", initialDelayString = "${chat.archive.refresh-interval:600000}")
+    public void refreshMaxArchivedId() {
+        try {
+            Long maxId = archiveMapper.selectMaxArchivedId();
+            maxArchivedId = maxId == null ? 0L : maxId;
+        } catch (Exception e) {
+            log.warn("查询已归档最大消息ID失败: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,343 @@
+package com.zzy.backend.service.student.chat.impl;
+
+import com.alibaba.fastjson2.JSON;
+import com.zzy.backend.dto.response.student.chat.ChatListItemResponse;
+import com.zzy.backend.dto.response.student.chat.MessageResponse;
+import com.zzy.backend.event.ChatEvent;
+import com.zzy.backend.event.UserProfileChangedEvent;
+import com.zzy.backend.mapper.student.chat.ChatRelationshipMapper;
+import com.zzy.backend.service.student.chat.ChatInboxService;
+import com.zzy.backend.service.student.chat.ChatUnreadService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 聊天收件箱服务实现类
+ * <p>
+ * 存储结构：
+ * <ul>
+ *     <li>chat:inbox:{userId}：ZSET，member 为关系ID，score 为最后消息时间（毫秒）</li>
+ *     <li>chat:inbox:peer:{userId}：HASH，field 为关系ID，值为对方信息与置顶标记（JSON）</li>
+ *     <li>chat:inbox:last:{relationshipId}：HASH，会话最后一条消息预览（id、type、content、time），双方共用</li>
+ * </ul>
+ * 未读数复用 {@link ChatUnreadService} 的缓存。缓存未命中或数据不完整时按数据库整体重建。
+ * 对方昵称、头像冗余在对方信息中，用户资料变更后清除其所有聊天对象的收件箱缓存。
+ */
+@Slf4j
+@Service
+public class ChatInboxServiceImpl implements ChatInboxService {
+
+    private static final String INBOX_KEY_PREFIX = "chat:inbox:";
+
+    private static final String PEER_KEY_PREFIX = "chat:inbox:peer:";
+
+    private static final String LAST_KEY_PREFIX = "chat:inbox:last:";
+
+    /**
+     * 缓存过期时间（天）
+     */
+    private static final long EXPIRE_DAYS = 7;
+
+    private static final String RECALLED_PREVIEW = "[消息已撤回]";
+
+    /**
+     * 更新会话最后消息（仅当消息ID更新时覆盖）：
+     * KEYS[1]=预览键，ARGV[1]=消息ID，ARGV[2]=类型，ARGV[3]=预览内容，ARGV[4]=时间毫秒，ARGV[5]=过期秒数
+     */
+    private static final RedisScript<Long> UPDATE_LAST_SCRIPT = new DefaultRedisScript<>(
+            "local current = tonumber(redis.call('HGET', KEYS[1], 'id') or '0') "
+                    + "if tonumber(ARGV[1]) < current then return 0 end "
+                    + "redis.call('HSET', KEYS[1], 'id', ARGV[1], 'type', ARGV[2], 'content', ARGV[3], 'time', ARGV[4]) "
+                    + "redis.call('EXPIRE', KEYS[1], ARGV[5]) "
+                    + "return 1",
+            Long.class);
+
+    /**
+     * 撤回时替换预览内容（仅当被撤回的是最后一条消息）：KEYS[1]=预览键，ARGV[1]=消息ID，ARGV[2]=预览内容
+     */
+    private static final RedisScript<Long> RECALL_LAST_SCRIPT = new DefaultRedisScript<>(
+            "if tonumber(redis.call('HGET', KEYS[1], 'id') or '0') == tonumber(ARGV[1]) then "
+                    + "redis.call('HSET', KEYS[1], 'content', ARGV[2]) "
+                    + "return 1 "
+                    + "end "
+                    + "return 0",
+            Long.class);
+
+    /**
+     * 会话移到最前（仅当收件箱已加载且时间更新时）：
+     * KEYS[1]=收件箱键，KEYS[2]=对方信息键（作为已加载标记），ARGV[1]=关系ID，ARGV[2]=时间毫秒
+     */
+    private static final RedisScript<Long> TOUCH_INBOX_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('EXISTS', KEYS[2]) == 0 then return -1 end "
+                    + "local score = redis.call('ZSCORE', KEYS[1], ARGV[1]) "
+                    + "if not score then return 0 end "
+                    + "if tonumber(ARGV[2]) > tonumber(score) then "
+                    + "redis.call('ZADD', KEYS[1], ARGV[2], ARGV[1]) "
+                    + "end "
+                    + "return 1",
+            Long.class);
+
+    @Autowired
+    private RedisTemplate<String, Object> redisTemplate;
+
+    @Autowired
+    private ChatRelationshipMapper chatRelationshipMapper;
+
+    @Autowired
+    private ChatUnreadService chatUnreadService;
+
+    @Override
+    public List<ChatListItemResponse> getInbox(Long userId, int offset, int limit) {
+        try {
+            List<ChatListItemResponse> cached = readInbox(userId, offset, limit);
+            if (cached != null) {
+                return cached;
+            }
+            return page(rebuild(userId), offset, limit);
+        } catch (DataAccessException e) {
+            log.warn("读取收件箱缓存失败，回退数据库, userId: {}, 错误: {}", userId, e.getMessage());
+            return page(chatRelationshipMapper.selectChatListByUserId(userId), offset, limit);
+        }
+    }
+
+    @Override
+    public void invalidate(Long userId) {
+        if (userId == null) {
+            return;
+        }
+        try {
+            redisTemplate.delete(Arrays.asList(inboxKey(userId), peerKey(userId)));
+        } catch (Exception e) {
+            log.warn("清除收件箱缓存失败, userId: {}, 错误: {}", userId, e.getMessage());
+        }
+    }
+
+    /**
+     * 事务提交后同步收件箱：新消息更新预览并将会话移到最前，撤回替换预览内容
+     * 未读数由 {@link ChatUnreadService} 维护，已读事件无需处理
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onChatEvent(ChatEvent event) {
+        try {
+            if (event.getType() == ChatEvent.Type.MESSAGE) {
+                MessageResponse message = event.getMessage();
+                long time = toMillis(message.getCreatedAt());
+                updateLast(event.getRelationshipId(), message.getId(), message.getMessageType(),
+                        previewContent(message.getMessageType(), message.getContent()), time);
+                touch(event.getOperatorId(), event.getRelationshipId(), time);
+                touch(event.getPeerId(), event.getRelationshipId(), time);
+            } else if (event.getType() == ChatEvent.Type.RECALL) {
+                redisTemplate.execute(RECALL_LAST_SCRIPT, Collections.singletonList(lastKey(event.getRelationshipId())),
+                        event.getMessageId(), RECALLED_PREVIEW);
+            }
+        } catch (Exception e) {
+            // 更新失败时清除双方收件箱，下次读取重建
+            log.warn("更新收件箱缓存失败, relationshipId: {}, 错误: {}", event.getRelationshipId(), e.getMessage());
+            invalidate(event.getOperatorId());
+            invalidate(event.getPeerId());
+        }
+    }
+
+    /**
+     * 用户资料变更提交后清除其聊天对象的收件箱缓存（对方信息中冗余了昵称和头像）
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onUserProfileChanged(UserProfileChangedEvent event) {
+        try {
+            List<Long> peerIds = chatRelationshipMapper.selectPeerUserIds(event.getUserId());
+            if (peerIds.isEmpty()) {
+                return;
+            }
+            List<String> keys = new ArrayList<>(peerIds.size() * 2);
+            for (Long peerId : peerIds) {
+                keys.add(inboxKey(peerId));
+                keys.add(peerKey(peerId));
+            }
+            redisTemplate.delete(keys);
+            log.debug("用户资料变更，清除聊天对象收件箱缓存, userId: {}, 会话数: {}", event.getUserId(), peerIds.size());
+        } catch (Exception e) {
+            log.warn("清除聊天对象收件箱缓存失败, userId: {}, 错误: {}", event.getUserId(), e.getMessage());
+        }
+    }
+
+    /**
+     * 从缓存读取收件箱，缓存不存在或数据不完整时返回 null
+     */
+    private List<ChatListItemResponse> readInbox(Long userId, int offset, int limit) {
+        if (!Boolean.TRUE.equals(redisTemplate.hasKey(peerKey(userId)))) {
+            return null;
+        }
+        long end = limit > 0 ? offset + limit - 1L : -1L;
+        Set<Object> members = redisTemplate.opsForZSet().reverseRange(inboxKey(userId), offset, end);
+        if (members == null || members.isEmpty()) {
+            return new ArrayList<>();
+        }
+        List<Object> relationshipIds = new ArrayList<>(members.size());
+        List<Object> fields = new ArrayList<>(members.size());
+        for (Object member : members) {
+            relationshipIds.add(member);
+            fields.add(member.toString());
+        }
+
+        List<Object> peers = redisTemplate.opsForHash().multiGet(peerKey(userId), fields);
+        List<Object> lasts = redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> Object execute(RedisOperations<K, V> operations) {
+                RedisOperations<String, Object> ops = (RedisOperations<String, Object>) operations;
+                for (Object relationshipId : relationshipIds) {
+                    ops.opsForHash().entries(lastKey(((Number) relationshipId).longValue()));
+                }
+                return null;
+            }
+        });
+        Map<Long, Integer> unreadCounts = chatUnreadService.getUnreadCounts(userId);
+
+        List<ChatListItemResponse> list = new ArrayList<>(relationshipIds.size());
+        for (int i = 0; i < relationshipIds.size(); i++) {
+            Object peer = peers.get(i);
+            if (peer == null) {
+                // 会话信息缺失（例如新建会话），整体重建
+                return null;
+            }
+            Long relationshipId = ((Number) relationshipIds.get(i)).longValue();
+            ChatListItemResponse item = JSON.parseObject(peer.toString(), ChatListItemResponse.class);
+            item.setRelationshipId(relationshipId);
+            item.setUnreadCount(unreadCounts.getOrDefault(relationshipId, 0));
+            @SuppressWarnings("unchecked")
+            Map<Object, Object> last = (Map<Object, Object>) lasts.get(i);
+            if (last != null && !last.isEmpty()) {
+                item.setLastMessageId(toLong(last.get("id")));
+                item.setLastMessageType(last.get("type") == null ? null : ((Number) last.get("type")).intValue());
+                item.setLastMessageContent((String) last.get("content"));
+                Long time = toLong(last.get("time"));
+                item.setLastMessageTime(time == null ? null
+                        : LocalDateTime.ofInstant(Instant.ofEpochMilli(time), ZoneId.systemDefault()));
+            }
+            list.add(item);
+        }
+        return list;
+    }
+
+    /**
+     * 按数据库重建用户收件箱
+     */
+    private List<ChatListItemResponse> rebuild(Long userId) {
+        List<ChatListItemResponse> list = chatRelationshipMapper.selectChatListByUserId(userId);
+        String inboxKey = inboxKey(userId);
+        String peerKey = peerKey(userId);
+
+        Map<String, Object> peers = new HashMap<>();
+        for (ChatListItemResponse item : list) {
+            ChatListItemResponse peer = new ChatListItemResponse();
+            peer.setOtherUserId(item.getOtherUserId());
+            peer.setOtherUserName(item.getOtherUserName());
+            peer.setOtherUserAvatar(item.getOtherUserAvatar());
+            peer.setIsTop(item.getIsTop());
+            peers.put(item.getRelationshipId().toString(), JSON.toJSONString(peer));
+        }
+        // 空收件箱也写入占位字段，避免每次读取都访问数据库
+        peers.put("0", JSON.toJSONString(new ChatListItemResponse()));
+
+        redisTemplate.delete(Arrays.asList(inboxKey, peerKey));
+        redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> Object execute(RedisOperations<K, V> operations) {
+                RedisOperations<String, Object> ops = (RedisOperations<String, Object>) operations;
+                for (ChatListItemResponse item : list) {
+                    ops.opsForZSet().add(inboxKey, item.getRelationshipId(), toMillis(item.getLastMessageTime()));
+                }
+                ops.opsForHash().putAll(peerKey, peers);
+                ops.expire(inboxKey, EXPIRE_DAYS, TimeUnit.DAYS);
+                ops.expire(peerKey, EXPIRE_DAYS, TimeUnit.DAYS);
+                return null;
+            }
+        });
+        for (ChatListItemResponse item : list) {
+            if (item.getLastMessageId() != null) {
+                updateLast(item.getRelationshipId(), item.getLastMessageId(), item.getLastMessageType(),
+                        item.getLastMessageContent(), toMillis(item.getLastMessageTime()));
+            }
+        }
+        log.debug("重建收件箱缓存, userId: {}, 会话数: {}", userId, list.size());
+        return list;
+    }
+
+    private void updateLast(Long relationshipId, Long messageId, Integer messageType, String content, long time) {
+        redisTemplate.execute(UPDATE_LAST_SCRIPT, Collections.singletonList(lastKey(relationshipId)),
+                messageId, messageType == null ? 0 : messageType, content == null ? "" : content, time,
+                TimeUnit.DAYS.toSeconds(EXPIRE_DAYS));
+    }
+
+    private void touch(Long userId, Long relationshipId, long time) {
+        Long result = redisTemplate.execute(TOUCH_INBOX_SCRIPT, Arrays.asList(inboxKey(userId), peerKey(userId)),
+                relationshipId, time);
+        if (result != null && result == 0) {
+            // 收件箱已加载但不包含该会话（新建会话），缺少对方信息，清除后重建
+            invalidate(userId);
+        }
+    }
+
+    /**
+     * 与 selectChatListByUserId 保持一致的预览内容
+     */
+    private String previewContent(Integer messageType, String content) {
+        if (messageType != null && messageType == 1) {
+            return content;
+        }
+        if (messageType != null && messageType == 4) {
+            return "[图片]";
+        }
+        return "[消息]";
+    }
+
+    private List<ChatListItemResponse> page(List<ChatListItemResponse> list, int offset, int limit) {
+        if (offset >= list.size()) {
+            return new ArrayList<>();
+        }
+        int end = limit > 0 ? Math.min(list.size(), offset + limit) : list.size();
+        return new ArrayList<>(list.subList(offset, end));
+    }
+
+    private long toMillis(LocalDateTime time) {
+        return time == null ? 0L : time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private Long toLong(Object value) {
+        return value instanceof Number ? ((Number) value).longValue() : null;
+    }
+
+    private String inboxKey(Long userId) {
+        return INBOX_KEY_PREFIX + userId;
+    }
+
+    private String peerKey(Long userId) {
+        return PEER_KEY_PREFIX + userId;
+    }
+
+    private String lastKey(Long relationshipId) {
+        return LAST_KEY_PREFIX + relationshipId;
+    }
+}
@@ -0,0 +1,285 @@
+package com.zzy.backend.service.student.chat.impl;
+
+import com.zzy.backend.entity.chat.ChatMessage;
+import com.zzy.backend.mapper.student.chat.ChatMessageMapper;
+import com.zzy.backend.mapper.student.chat.ChatRelationshipMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 聊天消息批量写入管道（可选，chat.ingest.pipeline-enabled=true 时启用）
+ * <p>
+ * 发送请求只做校验后入队，由单个刷写线程按微批合并写入：
+ * 1. 使用 MyBatis BATCH 执行器批量插入消息，刷写后回填自增ID；
+ * 2. 每个会话只执行一次最后消息更新，每个（会话, 接收者）只执行一次未读数累加；
+ * 3. 整批在同一个 Spring 事务内提交（BATCH 会话使用事务绑定的连接），提交成功后才完成各发送方的 Future（持久化确认）。
+ * <p>
+ * 发送方等待超时时可撤回仍在队列中的消息；已被刷写线程取走的消息不能撤回，发送方需等待该批次的提交结果。
+ */
+@Slf4j
+@Component
+public class ChatMessageIngestPipeline {
+
+    @Value("${chat.ingest.pipeline-enabled:false}")
+    private boolean enabled;
+
+    @Value("${chat.ingest.batch-size:200}")
+    private int batchSize;
+
+    @Value("${chat.ingest.linger-ms:5}")
+    private long lingerMs;
+
+    @Value("${chat.ingest.queue-capacity:10000}")
+    private int queueCapacity;
+
+    @Value("${chat.ingest.ack-timeout-ms:3000}")
+    private long ackTimeoutMs;
+
+    @Autowired
+    private SqlSessionFactory sqlSessionFactory;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private BlockingQueue<PendingMessage> queue;
+
+    private Thread flusher;
+
+    private volatile boolean running;
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        running = true;
+        flusher = new Thread(this::runLoop, "chat-ingest-flusher");
+        flusher.setDaemon(true);
+        flusher.start();
+        log.info("聊天消息批量写入管道已启动, batchSize: {}, lingerMs: {}, queueCapacity: {}", batchSize, lingerMs, queueCapacity);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (flusher == null) {
+            return;
+        }
+        running = false;
+        flusher.interrupt();
+        try {
+            flusher.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        log.info("聊天消息批量写入管道已停止");
+    }
+
+    /**
+     * 管道是否启用
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 发送方等待持久化确认的超时时间（毫秒）
+     */
+    public long getAckTimeoutMs() {
+        return ackTimeoutMs;
+    }
+
+    /**
+     * 提交消息，返回的待写入消息在所在批次提交成功后完成 Future（消息ID已回填）
+     *
+     * @param message 已校验的消息实体（relationshipId 已确定）
+     * @return 待写入消息
+     */
+    public PendingMessage submit(ChatMessage message) {
+        PendingMessage pending = new PendingMessage(message);
+        if (!running || !queue.offer(pending)) {
+            pending.state.set(PendingMessage.WITHDRAWN);
+            pending.future.completeExceptionally(new IllegalStateException("消息写入队列已满或未启动"));
+        }
+        return pending;
+    }
+
+    private void runLoop() {
+        List<PendingMessage> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingMessage first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                // 短暂等待以攒批，高峰期队列中已有积压时直接取满
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(lingerMs);
+                while (batch.size() < batchSize) {
+                    queue.drainTo(batch, batchSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= batchSize || remaining <= 0) {
+                        break;
+                    }
+                    PendingMessage next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                flushClaimed(batch);
+            } catch (InterruptedException e) {
+                // 停止时继续排空队列
+                flushClaimed(batch);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * 跳过发送方已撤回的消息，其余消息标记为写入中后刷写
+     */
+    private void flushClaimed(List<PendingMessage> batch) {
+        batch.removeIf(pending -> !pending.state.compareAndSet(PendingMessage.QUEUED, PendingMessage.WRITING));
+        if (!batch.isEmpty()) {
+            flush(batch);
+        }
+    }
+
+    private void flush(List<PendingMessage> batch) {
+        try {
+            // BATCH 会话在事务内通过 DataSourceUtils 取得事务绑定的连接（autocommit 已关闭），
+            // 消息插入与合并后的会话更新随事务一起提交或回滚
+            transactionTemplate.executeWithoutResult(status -> {
+                try (SqlSession session = sqlSessionFactory.openSession(ExecutorType.BATCH)) {
+                    ChatMessageMapper messageMapper = session.getMapper(ChatMessageMapper.class);
+                    ChatRelationshipMapper relationshipMapper = session.getMapper(ChatRelationshipMapper.class);
+
+                    for (PendingMessage pending : batch) {
+                        messageMapper.insert(pending.message);
+                    }
+                    // 执行批量插入并回填自增ID
+                    session.flushStatements();
+
+                    // 合并会话更新：每个会话取最后一条消息，每个接收者累加未读数
+                    Map<Long, ChatMessage> lastMessages = new LinkedHashMap<>();
+                    Map<UnreadKey, Integer> unreadIncrements = new LinkedHashMap<>();
+                    for (PendingMessage pending : batch) {
+                        ChatMessage message = pending.message;
+                        lastMessages.put(message.getRelationshipId(), message);
+                        if (!message.getSenderId().equals(message.getReceiverId())) {
+                            unreadIncrements.merge(new UnreadKey(message.getRelationshipId(), message.getReceiverId()), 1, Integer::sum);
+                        }
+                    }
+                    for (ChatMessage last : lastMessages.values()) {
+                        relationshipMapper.updateLastMessage(last.getRelationshipId(), last.getId(), last.getCreatedAt());
+                    }
+                    for (Map.Entry<UnreadKey, Integer> entry : unreadIncrements.entrySet()) {
+                        relationshipMapper.increaseUnreadCount(entry.getKey().relationshipId, entry.getKey().receiverId, entry.getValue());
+                    }
+                    session.flushStatements();
+                }
+            });
+            for (PendingMessage pending : batch) {
+                pending.future.complete(pending.message);
+            }
+            log.debug("聊天消息批量写入完成, 条数: {}", batch.size());
+        } catch (Exception e) {
+            // 事务已回滚，整批消息均未写入
+            log.error("聊天消息批量写入失败, 条数: {}", batch.size(), e);
+            for (PendingMessage pending : batch) {
+                pending.message.setId(null);
+                pending.future.completeExceptionally(e);
+            }
+        }
+    }
+
+    /**
+     * 待写入消息
+     */
+    public static final class PendingMessage {
+
+        private static final int QUEUED = 0;
+
+        private static final int WRITING = 1;
+
+        private static final int WITHDRAWN = 2;
+
+        private final ChatMessage message;
+
+        private final CompletableFuture<ChatMessage> future = new CompletableFuture<>();
+
+        private final AtomicInteger state = new AtomicInteger(QUEUED);
+
+        private PendingMessage(ChatMessage message) {
+            this.message = message;
+        }
+
+        /**
+         * 持久化确认：所在批次提交成功后完成，写入失败时异常完成
+         */
+        public CompletableFuture<ChatMessage> getFuture() {
+            return future;
+        }
+
+        /**
+         * 撤回尚在队列中的消息（撤回成功的消息不会被写入）
+         *
+         * @return 是否撤回成功；消息已进入写入批次或已有结果时返回 false
+         */
+        public boolean withdraw() {
+            if (state.compareAndSet(QUEUED, WITHDRAWN)) {
+                future.completeExceptionally(new IllegalStateException("消息已撤回"));
+                return true;
+            }
+            return false;
+        }
+    }
+
+    private static class UnreadKey {
+        private final Long relationshipId;
+        private final Long receiverId;
+
+        UnreadKey(Long relationshipId, Long receiverId) {
+            this.relationshipId = relationshipId;
+            this.receiverId = receiverId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof UnreadKey)) {
+                return false;
+            }
+            UnreadKey that = (UnreadKey) o;
+            return Objects.equals(relationshipId, that.relationshipId) && Objects.equals(receiverId, that.receiverId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(relationshipId, receiverId);
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.zzy.backend.service.student.chat.impl;
+
+import cn.hutool.cache.CacheUtil;
+import cn.hutool.cache.impl.LRUCache;
+import com.zzy.backend.entity.chat.ChatRelationship;
+import com.zzy.backend.mapper.student.chat.ChatRelationshipMapper;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * 聊天关系成员缓存（进程内 LRU）
+ * <p>
+ * 会话创建后参与双方不再变化，缓存 关系ID -> 参与双方 与 用户对 -> 关系ID 两个映射，
+ * 使权限校验与发送消息时的会话查找不再访问数据库。删除会话时需调用 {@link #evict(Long)}。
+ */
+@Slf4j
+@Component
+public class ChatRelationshipCache {
+
+    @Value("${chat.relationship-cache.capacity:10000}")
+    private int capacity;
+
+    @Value("${chat.relationship-cache.ttl-minutes:30}")
+    private long ttlMinutes;
+
+    @Autowired
+    private ChatRelationshipMapper chatRelationshipMapper;
+
+    /**
+     * 关系ID -> {user1Id, user2Id}
+     */
+    private LRUCache<Long, long[]> participantsCache;
+
+    /**
+     * "user1Id:user2Id"（user1Id &lt; user2Id）-> 关系ID
+     */
+    private LRUCache<String, Long> pairCache;
+
+    @PostConstruct
+    public void init() {
+        long timeout = ttlMinutes * 60 * 1000;
+        participantsCache = CacheUtil.newLRUCache(capacity, timeout);
+        pairCache = CacheUtil.newLRUCache(capacity, timeout);
+    }
+
+    /**
+     * 按关系ID获取参与双方（返回的实体只包含 id、user1Id、user2Id）
+     *
+     * @param relationshipId 关系ID
+     * @return 聊天关系，不存在时返回 null
+     */
+    public ChatRelationship getParticipants(Long relationshipId) {
+        long[] users = participantsCache.get(relationshipId);
+        if (users != null) {
+            return toRelationship(relationshipId, users[0], users[1]);
+        }
+        ChatRelationship relationship = chatRelationshipMapper.selectById(relationshipId);
+        if (relationship != null) {
+            put(relationship.getId(), relationship.getUser1Id(), relationship.getUser2Id());
+        }
+        return relationship;
+    }
+
+    /**
+     * 按用户对获取关系（返回的实体只包含 id、user1Id、user2Id）
+     *
+     * @param userA 用户ID
+     * @param userB 用户ID
+     * @return 聊天关系，不存在时返回 null
+     */
+    public ChatRelationship getByUserPair(Long userA, Long userB) {
+        Long user1Id = Math.min(userA, userB);
+        Long user2Id = Math.max(userA, userB);
+        Long relationshipId = pairCache.get(pairKey(user1Id, user2Id));
+        if (relationshipId != null) {
+            return toRelationship(relationshipId, user1Id, user2Id);
+        }
+        ChatRelationship relationship = chatRelationshipMapper.selectByUserPair(user1Id, user2Id);
+        if (relationship != null) {
+            put(relationship.getId(), relationship.getUser1Id(), relationship.getUser2Id());
+        }
+        return relationship;
+    }
+
+    /**
+     * 缓存新建的关系；处于事务中时在提交后才写入，避免回滚后缓存不存在的关系
+     */
+    public void cacheCreated(ChatRelationship relationship) {
+        Long id = relationship.getId();
+        Long user1Id = relationship.getUser1Id();
+        Long user2Id = relationship.getUser2Id();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    put(id, user1Id, user2Id);
+                }
+            });
+        } else {
+            put(id, user1Id, user2Id);
+        }
+    }
+
+    /**
+     * 删除会话时移除缓存
+     *
+     * @param relationshipId 关系ID
+     */
+    public void evict(Long relationshipId) {
+        long[] users = participantsCache.get(relationshipId, false);
+        participantsCache.remove(relationshipId);
+        if (users != null) {
+            pairCache.remove(pairKey(Math.min(users[0], users[1]), Math.max(users[0], users[1])));
+        }
+        log.debug("移除聊天关系缓存, relationshipId: {}", relationshipId);
+    }
+
+    private void put(Long relationshipId, Long user1Id, Long user2Id) {
+        if (relationshipId == null || user1Id == null || user2Id == null) {
+            return;
+        }
+        participantsCache.put(relationshipId, new long[]{user1Id, user2Id});
+        pairCache.put(pairKey(Math.min(user1Id, user2Id), Math.max(user1Id, user2Id)), relationshipId);
+    }
+
+    private String pairKey(long user1Id, long user2Id) {
+        return user1Id + ":" + user2Id;
+    }
+
+    private ChatRelationship toRelationship(Long relationshipId, Long user1Id, Long user2Id) {
+        ChatRelationship relationship = new ChatRelationship();
+        relationship.setId(relationshipId);
+        relationship.setUser1Id(user1Id);
+        relationship.setUser2Id(user2Id);
+        return relationship;
+    }
+}
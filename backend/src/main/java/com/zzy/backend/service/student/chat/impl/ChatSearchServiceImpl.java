@@ -0,0 +1,604 @@
+package com.zzy.backend.service.student.chat.impl;
+
+import com.zzy.backend.common.exception.BusinessException;
+import com.zzy.backend.common.util.NgramTokenizer;
+import com.zzy.backend.dto.response.student.chat.ChatListItemResponse;
+import com.zzy.backend.dto.response.student.chat.MessageResponse;
+import com.zzy.backend.entity.chat.ChatMessage;
+import com.zzy.backend.entity.chat.ChatRelationship;
+import com.zzy.backend.event.ChatEvent;
+import com.zzy.backend.mapper.student.chat.ChatMessageArchiveMapper;
+import com.zzy.backend.mapper.student.chat.ChatMessageMapper;
+import com.zzy.backend.service.student.chat.ChatInboxService;
+import com.zzy.backend.service.student.chat.ChatSearchService;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 聊天记录搜索服务实现类
+ * <p>
+ * 索引结构：词元 -> 升序消息ID列表（倒排表），关系ID -> 升序消息ID列表（会话表），消息ID -> 关系ID（文档表）。
+ * 新消息事件增量写入，撤回事件从文档表移除（倒排表中的失效ID在快照时清理）。
+ * 启动时加载本地快照并从数据库补齐快照之后的消息，无快照时全量重建；命中结果回查数据库校验内容与撤回状态，
+ * 校验过滤后不足一页时从最后一个候选继续向前取候选，直到凑满一页或倒排表扫描完毕。
+ */
+@Slf4j
+@Service
+public class ChatSearchServiceImpl implements ChatSearchService {
+
+    private static final int SNAPSHOT_MAGIC = 0x43534958;
+
+    private static final int SNAPSHOT_VERSION = 1;
+
+    /**
+     * 候选结果放大倍数（回查校验会过滤掉部分候选）
+     */
+    private static final int CANDIDATE_FACTOR = 3;
+
+    @Value("${chat.search.enabled:true}")
+    private boolean enabled;
+
+    @Value("${chat.search.snapshot-path:./data/chat-search-index.bin}")
+    private String snapshotPath;
+
+    @Value("${chat.search.rebuild-batch-size:2000}")
+    private int rebuildBatchSize;
+
+    @Autowired
+    private ChatMessageMapper chatMessageMapper;
+
+    @Autowired
+    private ChatMessageArchiveMapper chatMessageArchiveMapper;
+
+    @Autowired
+    private ChatInboxService chatInboxService;
+
+    @Autowired
+    private ChatRelationshipCache relationshipCache;
+
+    private volatile InvertedIndex index = new InvertedIndex();
+
+    private volatile boolean ready;
+
+    private volatile boolean dirty;
+
+    @PostConstruct
+    public void init() {
+        if (!enabled) {
+            return;
+        }
+        Thread loader = new Thread(() -> {
+            try {
+                if (!loadSnapshot()) {
+                    rebuild();
+                }
+                catchUp(index);
+                ready = true;
+                log.info("聊天搜索索引就绪, 消息数: {}, 词元数: {}", index.docCount(), index.tokenCount());
+            } catch (Exception e) {
+                log.error("聊天搜索索引加载失败", e);
+            }
+        }, "chat-search-loader");
+        loader.setDaemon(true);
+        loader.start();
+    }
+
+    @Override
+    public List<MessageResponse> search(Long userId, String keyword, Long relationshipId, Long before, Integer limit) {
+        if (!enabled) {
+            throw new BusinessException("聊天搜索未开启");
+        }
+        if (!ready) {
+            throw new BusinessException("搜索索引加载中，请稍后重试");
+        }
+        if (keyword == null || keyword.trim().isEmpty()) {
+            throw new BusinessException("搜索关键词不能为空");
+        }
+        if (limit == null || limit < 1) {
+            limit = 20;
+        }
+        if (limit > 50) {
+            limit = 50;
+        }
+
+        Set<String> tokens = NgramTokenizer.tokenize(keyword);
+        for (String token : tokens) {
+            if (token.length() == 1 && NgramTokenizer.isCjk(token.charAt(0))) {
+                throw new BusinessException("中文关键词至少需要2个字");
+            }
+        }
+        if (tokens.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        // 搜索范围：指定会话或用户的全部会话
+        Set<Long> scope = new HashSet<>();
+        if (relationshipId != null) {
+            ChatRelationship relationship = relationshipCache.getParticipants(relationshipId);
+            if (relationship == null) {
+                throw new BusinessException("聊天关系不存在");
+            }
+            if (!userId.equals(relationship.getUser1Id()) && !userId.equals(relationship.getUser2Id())) {
+                throw new BusinessException("无权访问该聊天");
+            }
+            scope.add(relationshipId);
+        } else {
+            for (ChatListItemResponse item : chatInboxService.getInbox(userId, 0, 0)) {
+                scope.add(item.getRelationshipId());
+            }
+        }
+        if (scope.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        String[] terms = keyword.trim().toLowerCase(Locale.ROOT).split("\\s+");
+        int batchSize = limit * CANDIDATE_FACTOR;
+        List<MessageResponse> results = new ArrayList<>(limit);
+        Long cursor = before;
+        while (results.size() < limit) {
+            // 候选按消息ID倒序返回
+            List<Long> candidates = index.search(tokens, scope, cursor, batchSize);
+            if (candidates.isEmpty()) {
+                break;
+            }
+            results.addAll(loadMatching(candidates, terms));
+            if (candidates.size() < batchSize) {
+                break;
+            }
+            cursor = candidates.get(candidates.size() - 1);
+        }
+        return results.size() > limit ? new ArrayList<>(results.subList(0, limit)) : results;
+    }
+
+    /**
+     * 回查候选消息（热表未命中的再查归档表），返回内容包含全部关键词的消息，按ID倒序
+     */
+    private List<MessageResponse> loadMatching(List<Long> candidates, String[] terms) {
+        Map<Long, MessageResponse> found = chatMessageMapper.selectMessagesByIds(candidates).stream()
+                .collect(Collectors.toMap(MessageResponse::getId, Function.identity()));
+        List<Long> missing = candidates.stream().filter(id -> !found.containsKey(id)).collect(Collectors.toList());
+        if (!missing.isEmpty()) {
+            chatMessageArchiveMapper.selectMessagesByIds(missing).forEach(m -> found.put(m.getId(), m));
+        }
+        return found.values().stream()
+                .filter(m -> matchesAll(m.getContent(), terms))
+                .sorted(Comparator.comparing(MessageResponse::getId).reversed())
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public void rebuild() {
+        log.info("开始重建聊天搜索索引");
+        InvertedIndex rebuilt = new InvertedIndex();
+        // 归档表中的消息ID更小，先加载以保持倒排表追加有序
+        long lastId = 0;
+        while (true) {
+            List<ChatMessage> batch = chatMessageArchiveMapper.selectIndexableMessages(lastId, rebuildBatchSize);
+            batch.forEach(rebuilt::add);
+            if (batch.size() < rebuildBatchSize) {
+                break;
+            }
+            lastId = batch.get(batch.size() - 1).getId();
+        }
+        catchUp(rebuilt);
+        index = rebuilt;
+        dirty = true;
+        // 重建期间产生的新消息
+        catchUp(index);
+        log.info("聊天搜索索引重建完成, 消息数: {}, 词元数: {}", rebuilt.docCount(), rebuilt.tokenCount());
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${chat.search.snapshot-interval:300000}", initialDelayString = "${chat.search.snapshot-interval:300000}")
+    public void snapshot() {
+        if (!enabled || !ready || !dirty) {
+            return;
+        }
+        dirty = false;
+        Path target = Paths.get(snapshotPath);
+        Path temp = Paths.get(snapshotPath + ".tmp");
+        try {
+            if (target.getParent() != null) {
+                Files.createDirectories(target.getParent());
+            }
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                    new GZIPOutputStream(Files.newOutputStream(temp))))) {
+                out.writeInt(SNAPSHOT_MAGIC);
+                out.writeInt(SNAPSHOT_VERSION);
+                index.writeTo(out);
+            }
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            log.info("聊天搜索索引快照已保存, 路径: {}", target.toAbsolutePath());
+        } catch (IOException e) {
+            dirty = true;
+            log.error("保存聊天搜索索引快照失败", e);
+        }
+    }
+
+    /**
+     * 事务提交后增量更新索引：新文本消息加入，撤回的消息移除
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onChatEvent(ChatEvent event) {
+        if (!enabled) {
+            return;
+        }
+        if (event.getType() == ChatEvent.Type.MESSAGE) {
+            MessageResponse message = event.getMessage();
+            if (message.getMessageType() != null && message.getMessageType() == 1) {
+                index.add(message.getId(), message.getRelationshipId(), message.getContent());
+                dirty = true;
+            }
+        } else if (event.getType() == ChatEvent.Type.RECALL) {
+            index.remove(event.getMessageId());
+            dirty = true;
+        }
+    }
+
+    /**
+     * 从热表补齐索引中最大消息ID之后的消息
+     */
+    private void catchUp(InvertedIndex target) {
+        long lastId = target.maxId();
+        while (true) {
+            List<ChatMessage> batch = chatMessageMapper.selectIndexableMessages(lastId, rebuildBatchSize);
+            batch.forEach(target::add);
+            if (batch.size() < rebuildBatchSize) {
+                break;
+            }
+            lastId = batch.get(batch.size() - 1).getId();
+        }
+    }
+
+    private boolean loadSnapshot() {
+        Path path = Paths.get(snapshotPath);
+        if (!Files.exists(path)) {
+            return false;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                new GZIPInputStream(Files.newInputStream(path))))) {
+            if (in.readInt() != SNAPSHOT_MAGIC || in.readInt() != SNAPSHOT_VERSION) {
+                log.warn("聊天搜索索引快照格式不匹配，将全量重建");
+                return false;
+            }
+            index = InvertedIndex.readFrom(in);
+            log.info("已加载聊天搜索索引快照, 消息数: {}", index.docCount());
+            return true;
+        } catch (IOException e) {
+            log.warn("加载聊天搜索索引快照失败，将全量重建: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    private boolean matchesAll(String content, String[] terms) {
+        if (content == null) {
+            return false;
+        }
+        String lower = content.toLowerCase(Locale.ROOT);
+        for (String term : terms) {
+            if (!lower.contains(term)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 倒排索引（读写锁保护）
+     */
+    private static class InvertedIndex {
+
+        private final Map<String, PostingList> postings = new HashMap<>();
+
+        /**
+         * 关系ID -> 该会话的消息ID（撤回的消息不从中删除，查询时以文档表为准）
+         */
+        private final Map<Long, PostingList> conversations = new HashMap<>();
+
+        private final Map<Long, Long> documents = new HashMap<>();
+
+        private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+        private long maxId;
+
+        void add(ChatMessage message) {
+            add(message.getId(), message.getRelationshipId(), message.getContent());
+        }
+
+        void add(Long messageId, Long relationshipId, String content) {
+            if (messageId == null || relationshipId == null) {
+                return;
+            }
+            Set<String> tokens = NgramTokenizer.tokenize(content);
+            lock.writeLock().lock();
+            try {
+                documents.put(messageId, relationshipId);
+                conversations.computeIfAbsent(relationshipId, key -> new PostingList()).add(messageId);
+                for (String token : tokens) {
+                    postings.computeIfAbsent(token, key -> new PostingList()).add(messageId);
+                }
+                maxId = Math.max(maxId, messageId);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        void remove(Long messageId) {
+            lock.writeLock().lock();
+            try {
+                documents.remove(messageId);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        /**
+         * 多词元求交，从 before 之前（二分定位）按ID倒序扫描驱动列表，其余词元倒排表二分判断是否包含。
+         * 驱动列表取最短词元倒排表与调用方会话消息表（多会话按ID归并）中较短者，
+         * 常见词元不会因其他用户的消息而放大扫描量。
+         */
+        List<Long> search(Set<String> tokens, Set<Long> scope, Long before, int limit) {
+            lock.readLock().lock();
+            try {
+                List<PostingList> lists = new ArrayList<>(tokens.size());
+                for (String token : tokens) {
+                    PostingList list = postings.get(token);
+                    if (list == null) {
+                        return new ArrayList<>();
+                    }
+                    lists.add(list);
+                }
+                lists.sort(Comparator.comparingInt(list -> list.size));
+                PostingList shortest = lists.get(0);
+
+                List<PostingList> scopeLists = new ArrayList<>(scope.size());
+                long scopeSize = 0;
+                for (Long relationshipId : scope) {
+                    PostingList list = conversations.get(relationshipId);
+                    if (list != null) {
+                        scopeLists.add(list);
+                        scopeSize += list.size;
+                    }
+                }
+                if (scopeLists.isEmpty()) {
+                    return new ArrayList<>();
+                }
+
+                long upper = before != null ? before : Long.MAX_VALUE;
+                List<Long> result = new ArrayList<>(limit);
+                if (scopeSize < shortest.size) {
+                    // 按会话消息表归并：每个会话一个游标，每次取ID最大者
+                    PriorityQueue<Cursor> queue = new PriorityQueue<>(scopeLists.size(),
+                            Comparator.comparingLong(Cursor::current).reversed());
+                    for (PostingList list : scopeLists) {
+                        int position = list.lastIndexBefore(upper);
+                        if (position >= 0) {
+                            queue.add(new Cursor(list, position));
+                        }
+                    }
+                    while (!queue.isEmpty() && result.size() < limit) {
+                        Cursor cursor = queue.poll();
+                        long id = cursor.current();
+                        if (documents.containsKey(id) && containsAll(lists, 0, id)) {
+                            result.add(id);
+                        }
+                        if (--cursor.position >= 0) {
+                            queue.add(cursor);
+                        }
+                    }
+                } else {
+                    for (int i = shortest.lastIndexBefore(upper); i >= 0 && result.size() < limit; i--) {
+                        long id = shortest.ids[i];
+                        Long relationshipId = documents.get(id);
+                        if (relationshipId == null || !scope.contains(relationshipId)) {
+                            continue;
+                        }
+                        if (containsAll(lists, 1, id)) {
+                            result.add(id);
+                        }
+                    }
+                }
+                return result;
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        private static boolean containsAll(List<PostingList> lists, int from, long id) {
+            for (int j = from; j < lists.size(); j++) {
+                if (!lists.get(j).contains(id)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        long maxId() {
+            lock.readLock().lock();
+            try {
+                return maxId;
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        int docCount() {
+            lock.readLock().lock();
+            try {
+                return documents.size();
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        int tokenCount() {
+            lock.readLock().lock();
+            try {
+                return postings.size();
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        /**
+         * 写出快照（跳过已移除的消息）
+         */
+        void writeTo(DataOutputStream out) throws IOException {
+            lock.readLock().lock();
+            try {
+                out.writeLong(maxId);
+                out.writeInt(documents.size());
+                for (Map.Entry<Long, Long> entry : documents.entrySet()) {
+                    out.writeLong(entry.getKey());
+                    out.writeLong(entry.getValue());
+                }
+                out.writeInt(postings.size());
+                for (Map.Entry<String, PostingList> entry : postings.entrySet()) {
+                    PostingList list = entry.getValue();
+                    int live = 0;
+                    for (int i = 0; i < list.size; i++) {
+                        if (documents.containsKey(list.ids[i])) {
+                            live++;
+                        }
+                    }
+                    out.writeUTF(entry.getKey());
+                    out.writeInt(live);
+                    for (int i = 0; i < list.size; i++) {
+                        if (documents.containsKey(list.ids[i])) {
+                            out.writeLong(list.ids[i]);
+                        }
+                    }
+                }
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        static InvertedIndex readFrom(DataInputStream in) throws IOException {
+            InvertedIndex index = new InvertedIndex();
+            index.maxId = in.readLong();
+            int docCount = in.readInt();
+            for (int i = 0; i < docCount; i++) {
+                index.documents.put(in.readLong(), in.readLong());
+            }
+            // 会话消息表不写入快照，按文档表重建
+            Long[] messageIds = index.documents.keySet().toArray(new Long[0]);
+            Arrays.sort(messageIds);
+            for (Long messageId : messageIds) {
+                index.conversations.computeIfAbsent(index.documents.get(messageId), key -> new PostingList()).add(messageId);
+            }
+            int tokenCount = in.readInt();
+            for (int i = 0; i < tokenCount; i++) {
+                String token = in.readUTF();
+                int size = in.readInt();
+                if (size == 0) {
+                    continue;
+                }
+                PostingList list = new PostingList();
+                list.ids = new long[size];
+                for (int j = 0; j < size; j++) {
+                    list.ids[j] = in.readLong();
+                }
+                list.size = size;
+                index.postings.put(token, list);
+            }
+            return index;
+        }
+    }
+
+    /**
+     * 消息ID列表上的倒序游标
+     */
+    private static final class Cursor {
+
+        private final PostingList list;
+
+        private int position;
+
+        Cursor(PostingList list, int position) {
+            this.list = list;
+            this.position = position;
+        }
+
+        long current() {
+            return list.ids[position];
+        }
+    }
+
+    /**
+     * 升序消息ID列表（基本类型数组，避免装箱）
+     */
+    private static class PostingList {
+
+        private long[] ids = new long[4];
+
+        private int size;
+
+        void add(long id) {
+            if (size > 0 && ids[size - 1] >= id) {
+                // 乱序写入（如补齐与事件并发）时按二分位置插入，重复的忽略
+                int pos = Arrays.binarySearch(ids, 0, size, id);
+                if (pos >= 0) {
+                    return;
+                }
+                pos = -pos - 1;
+                ensureCapacity();
+                System.arraycopy(ids, pos, ids, pos + 1, size - pos);
+                ids[pos] = id;
+                size++;
+                return;
+            }
+            ensureCapacity();
+            ids[size++] = id;
+        }
+
+        boolean contains(long id) {
+            return Arrays.binarySearch(ids, 0, size, id) >= 0;
+        }
+
+        /**
+         * 最后一个小于 upper 的位置，不存在时返回 -1
+         */
+        int lastIndexBefore(long upper) {
+            int position = Arrays.binarySearch(ids, 0, size, upper);
+            return (position >= 0 ? position : -position - 1) - 1;
+        }
+
+        private void ensureCapacity() {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, ids.length * 2);
+            }
+        }
+    }
+}
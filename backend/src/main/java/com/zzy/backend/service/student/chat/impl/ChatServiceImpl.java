@@ -3,25 +3,39 @@ package com.zzy.backend.service.student.chat.impl;
 import com.zzy.backend.dto.request.student.chat.SendMessageRequest;
 import com.zzy.backend.dto.response.student.chat.ChatListItemResponse;
 import com.zzy.backend.dto.response.student.chat.ChatRelationshipResponse;
+import com.zzy.backend.dto.response.student.chat.MessageCursorResponse;
 import com.zzy.backend.dto.response.student.chat.MessageResponse;
 import com.zzy.backend.dto.response.student.chat.UnreadCountResponse;
 import com.zzy.backend.entity.chat.ChatMessage;
 import com.zzy.backend.entity.chat.ChatRelationship;
 import com.zzy.backend.common.exception.BusinessException;
+import com.zzy.backend.event.ChatEvent;
 import com.zzy.backend.mapper.student.auth.UserMapper;
+import com.zzy.backend.mapper.student.chat.ChatMessageArchiveMapper;
 import com.zzy.backend.mapper.student.chat.ChatMessageMapper;
 import com.zzy.backend.mapper.student.chat.ChatRelationshipMapper;
+import com.zzy.backend.service.student.chat.ChatArchiveService;
+import com.zzy.backend.service.student.chat.ChatInboxService;
 import com.zzy.backend.service.student.chat.ChatService;
+import com.zzy.backend.service.student.chat.ChatUnreadService;
 import lombok.extern.slf4j.Slf4j;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 /**
  * 聊天服务实现类
@@ -41,10 +55,48 @@ public class ChatServiceImpl implements ChatService {
     @Autowired
     private UserMapper userMapper;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private ChatUnreadService chatUnreadService;
+
+    @Autowired
+    private ChatInboxService chatInboxService;
+
+    @Autowired
+    private ChatArchiveService chatArchiveService;
+
+    @Autowired
+    private ChatMessageArchiveMapper chatMessageArchiveMapper;
+
+    @Autowired
+    private ChatMessageIngestPipeline ingestPipeline;
+
+    @Autowired
+    private ChatRelationshipCache relationshipCache;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
     @Override
-    public List<ChatListItemResponse> getChatList(Long userId) {
-        log.info("获取聊天列表, userId: {}", userId);
-        return chatRelationshipMapper.selectChatListByUserId(userId);
+    public List<ChatListItemResponse> getChatList(Long userId, Integer page, Integer pageSize) {
+        log.info("获取聊天列表, userId: {}, page: {}, pageSize: {}", userId, page, pageSize);
+
+        // 未指定页码时返回全部会话（兼容前端按列表查找会话的用法）
+        if (page == null) {
+            return chatInboxService.getInbox(userId, 0, 0);
+        }
+        if (page < 1) {
+            page = 1;
+        }
+        if (pageSize == null || pageSize < 1) {
+            pageSize = 20;
+        }
+        if (pageSize > 100) {
+            pageSize = 100;
+        }
+        return chatInboxService.getInbox(userId, (page - 1) * pageSize, pageSize);
     }
 
     @Override
@@ -52,15 +104,7 @@ public class ChatServiceImpl implements ChatService {
         log.info("获取聊天消息, relationshipId: {}, userId: {}, page: {}, pageSize: {}", relationshipId, userId, page, pageSize);
 
         // 验证关系是否存在且用户有权限
-        ChatRelationship relationship = chatRelationshipMapper.selectById(relationshipId);
-        if (relationship == null) {
-            throw new BusinessException("聊天关系不存在");
-        }
-        Long user1Id = relationship.getUser1Id();
-        Long user2Id = relationship.getUser2Id();
-        if ((user1Id == null || !user1Id.equals(userId)) && (user2Id == null || !user2Id.equals(userId))) {
-            throw new BusinessException("无权访问该聊天");
-        }
+        checkRelationshipAccess(relationshipId, userId);
 
         // 设置默认分页参数
         if (page == null || page < 1) {
@@ -74,16 +118,97 @@ public class ChatServiceImpl implements ChatService {
         }
 
         int offset = (page - 1) * pageSize;
+        // SQL 已按消息ID正序返回，无需在内存中反转
         List<MessageResponse> messages = chatMessageMapper.selectMessagesByRelationshipId(relationshipId, userId, offset, pageSize);
 
-        // 反转列表，使消息按时间正序排列
-        java.util.Collections.reverse(messages);
-
+        // 热表不足一页时向归档表续查（仅在翻到热表末尾时才需要统计热表条数）
+        if (messages.size() < pageSize && chatArchiveService.hasArchivedMessages()) {
+            Long hotCount = chatMessageMapper.countMessagesByRelationshipId(relationshipId);
+            int archiveOffset = (int) Math.max(0, offset - (hotCount == null ? 0 : hotCount));
+            List<MessageResponse> archived = chatMessageArchiveMapper.selectMessagesByRelationshipId(
+                    relationshipId, archiveOffset, pageSize - messages.size());
+            if (!archived.isEmpty()) {
+                archived.addAll(messages);
+                messages = archived;
+            }
+        }
         return messages;
     }
 
     @Override
-    @Transactional(rollbackFor = Exception.class)
+    public MessageCursorResponse getChatMessagesByCursor(Long relationshipId, Long userId, Long before, Long after, Integer limit) {
+        log.info("游标获取聊天消息, relationshipId: {}, userId: {}, before: {}, after: {}, limit: {}", relationshipId, userId, before, after, limit);
+
+        if (before != null && after != null) {
+            throw new BusinessException("before 与 after 不能同时指定");
+        }
+
+        // 验证关系是否存在且用户有权限
+        checkRelationshipAccess(relationshipId, userId);
+
+        if (limit == null || limit < 1) {
+            limit = 20;
+        }
+        if (limit > 100) {
+            limit = 100;
+        }
+
+        // 多取一条用于判断是否还有更多，避免额外的 count 查询
+        List<MessageResponse> messages;
+        boolean hasMore;
+        if (after != null) {
+            messages = new ArrayList<>();
+            // 游标落在归档区间时先从归档表读取，不足再续查热表
+            if (chatArchiveService.mayHaveArchivedAfter(after)) {
+                messages.addAll(chatMessageArchiveMapper.selectMessagesAfter(relationshipId, after, limit + 1));
+            }
+            if (messages.size() <= limit) {
+                Long hotAfter = messages.isEmpty() ? after : messages.get(messages.size() - 1).getId();
+                messages.addAll(chatMessageMapper.selectMessagesAfter(relationshipId, userId, hotAfter, limit + 1 - messages.size()));
+            }
+            hasMore = messages.size() > limit;
+            if (hasMore) {
+                messages = new ArrayList<>(messages.subList(0, limit));
+            }
+        } else {
+            messages = chatMessageMapper.selectMessagesBefore(relationshipId, userId, before, limit + 1);
+            // 热表不足一页时向归档表续查更早的消息
+            if (messages.size() <= limit && chatArchiveService.hasArchivedMessages()) {
+                Long archiveBefore = messages.isEmpty() ? before : messages.get(0).getId();
+                List<MessageResponse> archived = chatMessageArchiveMapper.selectMessagesBefore(
+                        relationshipId, archiveBefore, limit + 1 - messages.size());
+                if (!archived.isEmpty()) {
+                    archived.addAll(messages);
+                    messages = archived;
+                }
+            }
+            hasMore = messages.size() > limit;
+            if (hasMore) {
+                // 结果按正序排列，多出的一条是最早的那条
+                messages = new ArrayList<>(messages.subList(1, messages.size()));
+            }
+        }
+
+        MessageCursorResponse response = new MessageCursorResponse();
+        response.setList(messages);
+        response.setHasMore(hasMore);
+        if (messages.isEmpty()) {
+            // 无数据时保持原游标，客户端可继续用同一游标轮询
+            response.setBeforeCursor(before);
+            response.setAfterCursor(after);
+        } else {
+            response.setBeforeCursor(messages.get(0).getId());
+            response.setAfterCursor(messages.get(messages.size() - 1).getId());
+        }
+        return response;
+    }
+
+    /**
+     * 发送消息
+     * 默认在单个事务内完成写入；启用批量写入管道时仅校验与确定会话，消息由管道合并写入，
+     * 等待所在批次提交后返回，避免高峰期每条消息长时间占用数据库连接
+     */
+    @Override
     public MessageResponse sendMessage(SendMessageRequest request, Long senderId) {
         log.info("发送消息, senderId: {}, receiverId: {}, messageType: {}", senderId, request.getReceiverId(), request.getMessageType());
 
@@ -116,60 +241,34 @@ public class ChatServiceImpl implements ChatService {
             throw new BusinessException("暂不支持该消息类型");
         }
 
-        // 获取或创建聊天关系
-        Long user1Id = Math.min(senderId, request.getReceiverId());
-        Long user2Id = Math.max(senderId, request.getReceiverId());
-
-        ChatRelationship relationship = chatRelationshipMapper.selectByUserPair(user1Id, user2Id);
-        if (relationship == null) {
-            // 创建新的聊天关系
-            relationship = new ChatRelationship();
-            relationship.setUser1Id(user1Id);
-            relationship.setUser2Id(user2Id);
-            relationship.setUser1UnreadCount(0);
-            relationship.setUser2UnreadCount(0);
-            relationship.setUser1Top(0);
-            relationship.setUser2Top(0);
-            relationship.setStatus(1);
-            relationship.setCreatedAt(LocalDateTime.now());
-            relationship.setUpdatedAt(LocalDateTime.now());
-            chatRelationshipMapper.insert(relationship);
-            log.info("创建新的聊天关系, relationshipId: {}", relationship.getId());
+        ChatMessage message;
+        if (ingestPipeline.isEnabled()) {
+            ChatRelationship relationship = getOrCreateRelationship(senderId, request.getReceiverId());
+            message = awaitPersisted(ingestPipeline.submit(buildMessage(request, senderId, relationship.getId())));
+        } else {
+            message = transactionTemplate.execute(status -> {
+                ChatRelationship relationship = getOrCreateRelationship(senderId, request.getReceiverId());
+                ChatMessage created = buildMessage(request, senderId, relationship.getId());
+                chatMessageMapper.insert(created);
+
+                // 更新聊天关系的最后消息信息
+                chatRelationshipMapper.updateLastMessage(relationship.getId(), created.getId(), created.getCreatedAt());
+
+                // 增加接收者的未读消息数（如果接收者不是发送者）
+                if (!senderId.equals(request.getReceiverId())) {
+                    chatRelationshipMapper.increaseUnreadCount(relationship.getId(), request.getReceiverId(), 1);
+                }
+                return created;
+            });
         }
-
-        // 创建消息
-        ChatMessage message = new ChatMessage();
-        message.setRelationshipId(relationship.getId());
-        message.setSenderId(senderId);
-        message.setReceiverId(request.getReceiverId());
-        message.setMessageType(request.getMessageType());
-        message.setContent(request.getContent());
-        message.setFileUrl(request.getFileUrl());
-        message.setFileName(request.getFileName());
-        message.setFileSize(request.getFileSize());
-        message.setImageWidth(request.getImageWidth());
-        message.setImageHeight(request.getImageHeight());
-        message.setThumbnailUrl(request.getThumbnailUrl());
-        message.setIsRead(0); // 默认未读
-        message.setIsRecalled(0);
-        message.setStatus(1);
-        message.setCreatedAt(LocalDateTime.now());
-        message.setUpdatedAt(LocalDateTime.now());
-
-        chatMessageMapper.insert(message);
         log.info("消息发送成功, messageId: {}", message.getId());
 
-        // 更新聊天关系的最后消息信息
-        chatRelationshipMapper.updateLastMessage(relationship.getId(), message.getId(), message.getCreatedAt());
-
-        // 增加接收者的未读消息数（如果接收者不是发送者）
-        if (!senderId.equals(request.getReceiverId())) {
-            chatRelationshipMapper.increaseUnreadCount(relationship.getId(), request.getReceiverId(), 1);
-        }
-
         // 构建响应
         MessageResponse response = new MessageResponse();
         BeanUtils.copyProperties(message, response);
+
+        // 发布新消息事件（事务提交后推送给在线的会话双方）
+        eventPublisher.publishEvent(ChatEvent.message(response));
         return response;
     }
 
@@ -195,6 +294,9 @@ public class ChatServiceImpl implements ChatService {
         }
 
         int result = chatMessageMapper.recallMessage(messageId, userId);
+        if (result > 0) {
+            eventPublisher.publishEvent(ChatEvent.recall(message));
+        }
         return result > 0;
     }
 
@@ -204,21 +306,20 @@ public class ChatServiceImpl implements ChatService {
         log.info("标记消息已读, relationshipId: {}, userId: {}", relationshipId, userId);
 
         // 验证关系是否存在且用户有权限
-        ChatRelationship relationship = chatRelationshipMapper.selectById(relationshipId);
-        if (relationship == null) {
-            throw new BusinessException("聊天关系不存在");
-        }
+        ChatRelationship relationship = checkRelationshipAccess(relationshipId, userId);
         Long user1Id = relationship.getUser1Id();
         Long user2Id = relationship.getUser2Id();
-        if ((user1Id == null || !user1Id.equals(userId)) && (user2Id == null || !user2Id.equals(userId))) {
-            throw new BusinessException("无权访问该聊天");
-        }
 
-        // 标记消息为已读
-        int result = chatMessageMapper.markMessagesAsRead(relationshipId, userId);
+        // 当前会话未读数，用于推送未读数变化
+        int unread = chatUnreadService.getUnreadCounts(userId).getOrDefault(relationshipId, 0);
 
-        // 清空未读消息数
-        chatRelationshipMapper.clearUnreadCount(relationshipId, userId);
+        // 推进已读水位并清空未读数（单行更新，不再逐条更新消息）
+        int result = chatRelationshipMapper.markRead(relationshipId, userId);
+
+        if (result > 0) {
+            Long peerId = userId.equals(user1Id) ? user2Id : user1Id;
+            eventPublisher.publishEvent(ChatEvent.read(relationshipId, userId, peerId, unread));
+        }
 
         return result >= 0;
     }
@@ -232,15 +333,113 @@ public class ChatServiceImpl implements ChatService {
     @Override
     public UnreadCountResponse getUnreadCount(Long userId) {
         log.info("获取未读消息数, userId: {}", userId);
-        Integer total = chatRelationshipMapper.countUnreadMessages(userId);
-        if (total == null) {
-            total = 0;
-        }
+        // 读取 Redis 中增量维护的总数，避免每次轮询聚合用户的全部会话
+        int total = chatUnreadService.getTotalUnread(userId);
 
         UnreadCountResponse response = new UnreadCountResponse();
         response.setTotal(total);
         response.setCount(total); // 兼容前端
         return response;
     }
-}
 
+    /**
+     * 获取或创建两个用户之间的聊天关系
+     */
+    private ChatRelationship getOrCreateRelationship(Long senderId, Long receiverId) {
+        Long user1Id = Math.min(senderId, receiverId);
+        Long user2Id = Math.max(senderId, receiverId);
+
+        ChatRelationship relationship = relationshipCache.getByUserPair(user1Id, user2Id);
+        if (relationship == null) {
+            // 创建新的聊天关系
+            relationship = new ChatRelationship();
+            relationship.setUser1Id(user1Id);
+            relationship.setUser2Id(user2Id);
+            relationship.setUser1UnreadCount(0);
+            relationship.setUser2UnreadCount(0);
+            relationship.setUser1Top(0);
+            relationship.setUser2Top(0);
+            relationship.setStatus(1);
+            relationship.setCreatedAt(LocalDateTime.now());
+            relationship.setUpdatedAt(LocalDateTime.now());
+            chatRelationshipMapper.insert(relationship);
+            relationshipCache.cacheCreated(relationship);
+            log.info("创建新的聊天关系, relationshipId: {}", relationship.getId());
+        }
+        return relationship;
+    }
+
+    /**
+     * 根据发送请求构建消息实体
+     */
+    private ChatMessage buildMessage(SendMessageRequest request, Long senderId, Long relationshipId) {
+        // 创建消息
+        ChatMessage message = new ChatMessage();
+        message.setRelationshipId(relationshipId);
+        message.setSenderId(senderId);
+        message.setReceiverId(request.getReceiverId());
+        message.setMessageType(request.getMessageType());
+        message.setContent(request.getContent());
+        message.setFileUrl(request.getFileUrl());
+        message.setFileName(request.getFileName());
+        message.setFileSize(request.getFileSize());
+        message.setImageWidth(request.getImageWidth());
+        message.setImageHeight(request.getImageHeight());
+        message.setThumbnailUrl(request.getThumbnailUrl());
+        message.setIsRead(0); // 默认未读
+        message.setIsRecalled(0);
+        message.setStatus(1);
+        message.setCreatedAt(LocalDateTime.now());
+        message.setUpdatedAt(LocalDateTime.now());
+        return message;
+    }
+
+    /**
+     * 等待批量写入管道的持久化确认
+     * 超时或被中断时先撤回仍在队列中的消息再报告失败；消息已进入写入批次时等待该批次的提交结果，
+     * 不在结果未知时报告失败（否则客户端重发会产生重复消息）
+     */
+    private ChatMessage awaitPersisted(ChatMessageIngestPipeline.PendingMessage pending) {
+        CompletableFuture<ChatMessage> future = pending.getFuture();
+        try {
+            return future.get(ingestPipeline.getAckTimeoutMs(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            if (pending.withdraw()) {
+                throw new BusinessException("消息发送被中断，请重试");
+            }
+        } catch (ExecutionException e) {
+            log.error("消息写入失败: {}", e.getMessage());
+            throw new BusinessException("消息发送失败，请稍后重试");
+        } catch (TimeoutException e) {
+            if (pending.withdraw()) {
+                log.warn("消息等待写入超时，已从队列撤回");
+                throw new BusinessException("消息发送超时，请重试");
+            }
+        }
+
+        // 消息已进入写入批次：刷写线程总会以提交或回滚的结果完成 Future
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            log.error("消息写入失败: {}", e.getMessage());
+            throw new BusinessException("消息发送失败，请稍后重试");
+        }
+    }
+
+    /**
+     * 校验聊天关系存在且当前用户为会话参与方
+     */
+    private ChatRelationship checkRelationshipAccess(Long relationshipId, Long userId) {
+        ChatRelationship relationship = relationshipCache.getParticipants(relationshipId);
+        if (relationship == null) {
+            throw new BusinessException("聊天关系不存在");
+        }
+        Long user1Id = relationship.getUser1Id();
+        Long user2Id = relationship.getUser2Id();
+        if ((user1Id == null || !user1Id.equals(userId)) && (user2Id == null || !user2Id.equals(userId))) {
+            throw new BusinessException("无权访问该聊天");
+        }
+        return relationship;
+    }
+}
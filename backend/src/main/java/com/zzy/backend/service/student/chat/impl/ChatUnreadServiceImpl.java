@@ -0,0 +1,238 @@
+package com.zzy.backend.service.student.chat.impl;
+
+import com.zzy.backend.dto.response.student.chat.ChatListItemResponse;
+import com.zzy.backend.event.ChatEvent;
+import com.zzy.backend.mapper.student.chat.ChatRelationshipMapper;
+import com.zzy.backend.service.student.chat.ChatUnreadService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 聊天未读数服务实现类
+ * <p>
+ * 存储结构：Hash chat:unread:{userId}，field 为关系ID，值为该会话未读数，另有 total 字段保存总数。
+ * 增减均通过 Lua 脚本在 Redis 端原子完成；缓存不存在时不做增量，等待下次读取时整体加载。
+ * 每次变更将用户加入脏集合，由后台任务按数据库校正漂移。
+ */
+@Slf4j
+@Service
+public class ChatUnreadServiceImpl implements ChatUnreadService {
+
+    private static final String KEY_PREFIX = "chat:unread:";
+
+    private static final String DIRTY_KEY = "chat:unread:dirty";
+
+    private static final String FIELD_TOTAL = "total";
+
+    /**
+     * 缓存过期时间（秒），不活跃用户的缓存自然淘汰，下次访问重新加载
+     */
+    private static final long EXPIRE_SECONDS = 7 * 24 * 3600L;
+
+    /**
+     * 每轮校正的最大用户数
+     */
+    private static final int RECONCILE_BATCH = 200;
+
+    /**
+     * 增加会话未读数：KEYS[1]=缓存键，ARGV[1]=关系ID，ARGV[2]=增量
+     */
+    private static final RedisScript<Long> INCREASE_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('EXISTS', KEYS[1]) == 1 then "
+                    + "redis.call('HINCRBY', KEYS[1], ARGV[1], ARGV[2]) "
+                    + "return redis.call('HINCRBY', KEYS[1], 'total', ARGV[2]) "
+                    + "end "
+                    + "return -1",
+            Long.class);
+
+    /**
+     * 清空会话未读数：KEYS[1]=缓存键，ARGV[1]=关系ID
+     */
+    private static final RedisScript<Long> CLEAR_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('EXISTS', KEYS[1]) == 1 then "
+                    + "local c = tonumber(redis.call('HGET', KEYS[1], ARGV[1]) or '0') "
+                    + "redis.call('HDEL', KEYS[1], ARGV[1]) "
+                    + "return redis.call('HINCRBY', KEYS[1], 'total', -c) "
+                    + "end "
+                    + "return -1",
+            Long.class);
+
+    /**
+     * 整体加载：KEYS[1]=缓存键，ARGV[1]=过期秒数，其后依次为 关系ID、未读数
+     */
+    private static final RedisScript<Long> LOAD_SCRIPT = new DefaultRedisScript<>(
+            "redis.call('DEL', KEYS[1]) "
+                    + "local total = 0 "
+                    + "for i = 2, #ARGV, 2 do "
+                    + "redis.call('HSET', KEYS[1], ARGV[i], ARGV[i + 1]) "
+                    + "total = total + tonumber(ARGV[i + 1]) "
+                    + "end "
+                    + "redis.call('HSET', KEYS[1], 'total', total) "
+                    + "redis.call('EXPIRE', KEYS[1], ARGV[1]) "
+                    + "return total",
+            Long.class);
+
+    @Autowired
+    private RedisTemplate<String, Object> redisTemplate;
+
+    @Autowired
+    private ChatRelationshipMapper chatRelationshipMapper;
+
+    @Value("${chat.unread.reconcile-enabled:true}")
+    private boolean reconcileEnabled;
+
+    @Override
+    public int getTotalUnread(Long userId) {
+        try {
+            Object total = redisTemplate.opsForHash().get(key(userId), FIELD_TOTAL);
+            if (total instanceof Number) {
+                return Math.max(((Number) total).intValue(), 0);
+            }
+            return rebuild(userId);
+        } catch (Exception e) {
+            log.warn("读取未读数缓存失败，回退数据库, userId: {}, 错误: {}", userId, e.getMessage());
+            Integer total = chatRelationshipMapper.countUnreadMessages(userId);
+            return total == null ? 0 : total;
+        }
+    }
+
+    @Override
+    public Map<Long, Integer> getUnreadCounts(Long userId) {
+        Map<Long, Integer> result = new HashMap<>();
+        try {
+            Map<Object, Object> entries = redisTemplate.opsForHash().entries(key(userId));
+            if (entries.isEmpty()) {
+                rebuild(userId);
+                entries = redisTemplate.opsForHash().entries(key(userId));
+            }
+            for (Map.Entry<Object, Object> entry : entries.entrySet()) {
+                if (FIELD_TOTAL.equals(entry.getKey()) || !(entry.getValue() instanceof Number)) {
+                    continue;
+                }
+                int count = ((Number) entry.getValue()).intValue();
+                if (count > 0) {
+                    result.put(Long.valueOf(entry.getKey().toString()), count);
+                }
+            }
+        } catch (Exception e) {
+            log.warn("读取会话未读数缓存失败，回退数据库, userId: {}, 错误: {}", userId, e.getMessage());
+            for (ChatListItemResponse item : chatRelationshipMapper.selectUnreadCountsByUserId(userId)) {
+                result.put(item.getRelationshipId(), item.getUnreadCount());
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public void increase(Long userId, Long relationshipId, int delta) {
+        execute(INCREASE_SCRIPT, userId, relationshipId, delta);
+    }
+
+    @Override
+    public void clear(Long userId, Long relationshipId) {
+        execute(CLEAR_SCRIPT, userId, relationshipId);
+    }
+
+    @Override
+    public int rebuild(Long userId) {
+        List<ChatListItemResponse> counts = chatRelationshipMapper.selectUnreadCountsByUserId(userId);
+        List<Object> args = new ArrayList<>(counts.size() * 2 + 1);
+        args.add(EXPIRE_SECONDS);
+        for (ChatListItemResponse item : counts) {
+            args.add(item.getRelationshipId());
+            args.add(item.getUnreadCount());
+        }
+        Long total = redisTemplate.execute(LOAD_SCRIPT, Collections.singletonList(key(userId)), args.toArray());
+        return total == null ? 0 : total.intValue();
+    }
+
+    /**
+     * 事务提交后同步未读数：新消息给接收方加一，已读清空读者的会话未读数
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onChatEvent(ChatEvent event) {
+        if (event.getType() == ChatEvent.Type.MESSAGE) {
+            increase(event.getPeerId(), event.getRelationshipId(), 1);
+        } else if (event.getType() == ChatEvent.Type.READ) {
+            clear(event.getOperatorId(), event.getRelationshipId());
+        }
+    }
+
+    /**
+     * 后台校正：对近期有变更的用户按数据库重建缓存，修复并发加载或 Redis 写入失败造成的漂移
+     */
+    @Scheduled(fixedDelayString = "${chat.unread.reconcile-interval:60000}")
+    public void reconcile() {
+        if (!reconcileEnabled) {
+            return;
+        }
+        List<Object> userIds;
+        try {
+            userIds = redisTemplate.opsForSet().pop(DIRTY_KEY, RECONCILE_BATCH);
+        } catch (Exception e) {
+            log.warn("读取未读数脏集合失败, 错误: {}", e.getMessage());
+            return;
+        }
+        if (userIds == null || userIds.isEmpty()) {
+            return;
+        }
+
+        int repaired = 0;
+        for (Object id : userIds) {
+            Long userId = ((Number) id).longValue();
+            try {
+                Object cached = redisTemplate.opsForHash().get(key(userId), FIELD_TOTAL);
+                if (!(cached instanceof Number)) {
+                    // 缓存已过期或未加载，下次读取时会整体加载
+                    continue;
+                }
+                Integer expected = chatRelationshipMapper.countUnreadMessages(userId);
+                int actual = expected == null ? 0 : expected;
+                if (((Number) cached).intValue() != actual) {
+                    log.info("未读数缓存漂移, userId: {}, 缓存: {}, 数据库: {}", userId, cached, actual);
+                    rebuild(userId);
+                    repaired++;
+                }
+            } catch (Exception e) {
+                log.warn("校正未读数缓存失败, userId: {}, 错误: {}", userId, e.getMessage());
+            }
+        }
+        log.debug("未读数校正完成, 检查: {}, 修复: {}", userIds.size(), repaired);
+    }
+
+    private void execute(RedisScript<Long> script, Long userId, Object... args) {
+        if (userId == null) {
+            return;
+        }
+        try {
+            redisTemplate.execute(script, Collections.singletonList(key(userId)), args);
+            redisTemplate.opsForSet().add(DIRTY_KEY, userId);
+        } catch (Exception e) {
+            // Redis 不可用时删除缓存，下次读取从数据库重新加载
+            log.warn("更新未读数缓存失败, userId: {}, 错误: {}", userId, e.getMessage());
+            try {
+                redisTemplate.delete(key(userId));
+            } catch (Exception ignored) {
+                // 忽略
+            }
+        }
+    }
+
+    private String key(Long userId) {
+        return KEY_PREFIX + userId;
+    }
+}
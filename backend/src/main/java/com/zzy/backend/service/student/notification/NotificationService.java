@@ -5,6 +5,7 @@ import com.zzy.backend.dto.request.student.notification.NotificationListRequest;
 import com.zzy.backend.dto.response.student.notification.NotificationDetailResponse;
 import com.zzy.backend.dto.response.student.notification.NotificationListItemResponse;
 import com.zzy.backend.dto.response.student.notification.UnreadCountResponse;
+import com.zzy.backend.entity.notification.Notification;
 
 /**
  * 通知服务接口
@@ -55,6 +56,14 @@ public interface NotificationService {
      */
     boolean deleteNotification(Long id, Long userId);
 
+    /**
+     * 创建通知（事务提交后推送给接收用户）
+     *
+     * @param notification 通知实体（需设置接收用户、类型、标题、内容）
+     * @return 通知ID
+     */
+    Long createNotification(Notification notification);
+
     /**
      * 获取未读通知数
      *
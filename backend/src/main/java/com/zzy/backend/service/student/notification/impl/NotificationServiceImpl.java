@@ -7,15 +7,18 @@ import com.zzy.backend.dto.response.student.notification.NotificationDetailRespo
 import com.zzy.backend.dto.response.student.notification.NotificationListItemResponse;
 import com.zzy.backend.dto.response.student.notification.UnreadCountResponse;
 import com.zzy.backend.entity.notification.Notification;
+import com.zzy.backend.event.NotificationEvent;
 import com.zzy.backend.mapper.student.notification.NotificationMapper;
 import com.zzy.backend.service.student.notification.NotificationService;
 import lombok.extern.slf4j.Slf4j;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 /**
@@ -30,6 +33,9 @@ public class NotificationServiceImpl implements NotificationService {
     @Autowired
     private NotificationMapper notificationMapper;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     @Override
     public PageResult<NotificationListItemResponse> getNotificationList(NotificationListRequest request, Long userId) {
         log.info("查询通知列表, userId: {}, request: {}", userId, request);
@@ -77,6 +83,9 @@ public class NotificationServiceImpl implements NotificationService {
         }
 
         int result = notificationMapper.markAsRead(id, userId);
+        if (result > 0) {
+            eventPublisher.publishEvent(new NotificationEvent(NotificationEvent.Type.READ, userId, id));
+        }
         return result > 0;
     }
 
@@ -86,6 +95,9 @@ public class NotificationServiceImpl implements NotificationService {
         log.info("标记所有通知为已读, userId: {}", userId);
 
         int result = notificationMapper.markAllAsRead(userId);
+        if (result > 0) {
+            eventPublisher.publishEvent(new NotificationEvent(NotificationEvent.Type.READ_ALL, userId, null));
+        }
         return result >= 0;
     }
 
@@ -104,9 +116,30 @@ public class NotificationServiceImpl implements NotificationService {
         }
 
         int result = notificationMapper.deleteNotification(id, userId);
+        if (result > 0) {
+            eventPublisher.publishEvent(new NotificationEvent(NotificationEvent.Type.DELETED, userId, id));
+        }
         return result > 0;
     }
 
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public Long createNotification(Notification notification) {
+        LocalDateTime now = LocalDateTime.now();
+        notification.setIsRead(0);
+        notification.setStatus(1);
+        notification.setCreatedAt(now);
+        notification.setUpdatedAt(now);
+
+        int result = notificationMapper.insert(notification);
+        if (result <= 0) {
+            throw new BusinessException("创建通知失败");
+        }
+        eventPublisher.publishEvent(new NotificationEvent(NotificationEvent.Type.CREATED,
+                notification.getUserId(), notification.getId()));
+        return notification.getId();
+    }
+
     @Override
     public UnreadCountResponse getUnreadCount(Long userId) {
         log.info("获取未读通知数, userId: {}", userId);
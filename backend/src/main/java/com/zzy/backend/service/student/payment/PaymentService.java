@@ -55,9 +55,10 @@ public interface PaymentService {
      *
      * @param id 支付ID
      * @param paymentMethod 支付方式
+     * @param expectedVersion 支付记录版本号（为空时只按状态校验）
      * @param studentId 学生用户ID
      * @return 是否成功
      */
-    boolean updatePaymentMethod(Long id, Integer paymentMethod, Long studentId);
+    boolean updatePaymentMethod(Long id, Integer paymentMethod, Integer expectedVersion, Long studentId);
 }
 
@@ -2,6 +2,9 @@ package com.zzy.backend.service.student.payment.impl;
 
 import com.zzy.backend.common.exception.BusinessException;
 import com.zzy.backend.common.page.PageResult;
+import com.zzy.backend.common.transition.StatusTransition;
+import com.zzy.backend.common.transition.StatusTransitionEngine;
+import com.zzy.backend.common.transition.TransitionOutcome;
 import com.zzy.backend.common.util.OrderNoGenerator;
 import com.zzy.backend.dto.request.student.payment.CreatePaymentRequest;
 import com.zzy.backend.dto.request.student.payment.PaymentListRequest;
@@ -39,6 +42,9 @@ public class PaymentServiceImpl implements PaymentService {
     @Autowired
     private TeacherMapper teacherMapper;
 
+    @Autowired
+    private StatusTransitionEngine statusTransitionEngine;
+
     @Override
     @Transactional(rollbackFor = Exception.class)
     public CreatePaymentResponse createPayment(CreatePaymentRequest request, Long studentId) {
@@ -202,76 +208,74 @@ public class PaymentServiceImpl implements PaymentService {
     public boolean uploadPaymentProof(Long id, UploadPaymentProofRequest request, Long studentId) {
         log.info("上传支付凭证, id: {}, studentId: {}, request: {}", id, studentId, request);
 
-        // 1. 查询支付记录
-        Payment payment = paymentMapper.selectById(id);
-        if (payment == null) {
-            throw new BusinessException("支付记录不存在");
-        }
-
-        // 2. 验证权限（只能上传自己的支付凭证）
-        if (!payment.getStudentId().equals(studentId)) {
-            throw new BusinessException("无权限操作该支付记录");
-        }
-
-        // 3. 验证状态（只能上传待支付状态的支付凭证）
-        if (payment.getStatus() != 1) {
-            throw new BusinessException("当前状态不允许上传凭证，当前状态：" + getStatusText(payment.getStatus()));
-        }
-
-        // 4. 验证转账金额是否匹配（允许0.01的误差）
-        double paymentAmount = payment.getAmount().doubleValue();
-        double transferAmount = request.getTransferAmount().doubleValue();
-        if (Math.abs(paymentAmount - transferAmount) > 0.01) {
-            throw new BusinessException("转账金额与支付金额不匹配，支付金额：" + String.format("%.2f", paymentAmount) + "元，转账金额：" + String.format("%.2f", transferAmount) + "元");
-        }
-
-        // 5. 更新支付凭证信息，状态改为待确认
-        // 注意：transferAmount暂时不存储到数据库，因为数据库schema中没有该字段
-        // 如果需要存储，可以添加到extra字段中，或者修改数据库schema添加transfer_amount字段
-        int result = paymentMapper.updatePaymentProof(
-                id,
-                request.getTransferImage(),
-                request.getTransferTime(),
-                request.getTransferAccount(),
-                2 // 待确认状态
-        );
-
-        if (result <= 0) {
-            throw new BusinessException("上传支付凭证失败");
+        // 1. 条件更新凭证信息（归属、待支付状态、转账金额匹配），状态改为待确认，不预先查询
+        // 注意：transferAmount暂时不存储到数据库，因为数据库schema中没有该字段，仅用于与支付金额比对
+        StatusTransition transition = StatusTransition.PAYMENT_UPLOAD_PROOF;
+        TransitionOutcome outcome = statusTransitionEngine.execute(transition, studentId, request.getVersion(),
+                version -> paymentMapper.updatePaymentProof(
+                        id,
+                        studentId,
+                        transition.getFromStatuses(),
+                        transition.getToStatus(),
+                        version,
+                        request.getTransferImage(),
+                        request.getTransferTime(),
+                        request.getTransferAccount(),
+                        request.getTransferAmount()),
+                () -> paymentMapper.selectStatusSnapshot(id));
+
+        if (!outcome.isSuccess()) {
+            switch (outcome.getResult()) {
+                case NOT_FOUND:
+                    throw new BusinessException("支付记录不存在");
+                case FORBIDDEN:
+                    throw new BusinessException("无权限操作该支付记录");
+                case INVALID_STATUS:
+                    throw new BusinessException("当前状态不允许上传凭证，当前状态：" + getStatusText(outcome.getCurrentStatus()));
+                case REJECTED:
+                    // 状态允许但金额条件不满足：读取支付金额用于提示
+                    Payment payment = paymentMapper.selectById(id);
+                    double paymentAmount = payment.getAmount().doubleValue();
+                    double transferAmount = request.getTransferAmount().doubleValue();
+                    throw new BusinessException("转账金额与支付金额不匹配，支付金额：" + String.format("%.2f", paymentAmount) + "元，转账金额：" + String.format("%.2f", transferAmount) + "元");
+                case CONFLICT:
+                    throw new BusinessException("支付记录已被修改，请刷新后重试");
+                default:
+                    throw new BusinessException("上传支付凭证失败");
+            }
         }
 
-        log.info("支付凭证上传成功, id: {}, paymentNo: {}", id, payment.getPaymentNo());
+        log.info("支付凭证上传成功, id: {}", id);
         return true;
     }
 
     @Override
     @Transactional(rollbackFor = Exception.class)
-    public boolean updatePaymentMethod(Long id, Integer paymentMethod, Long studentId) {
-        log.info("更新支付方式, id: {}, paymentMethod: {}, studentId: {}", id, paymentMethod, studentId);
-
-        // 1. 查询支付记录
-        Payment payment = paymentMapper.selectById(id);
-        if (payment == null) {
-            throw new BusinessException("支付记录不存在");
-        }
-
-        // 2. 验证权限（只能更新自己的支付记录）
-        if (!payment.getStudentId().equals(studentId)) {
-            throw new BusinessException("无权限操作该支付记录");
-        }
-
-        // 3. 验证状态（只能更新待支付状态的支付方式）
-        if (payment.getStatus() != 1) {
-            throw new BusinessException("当前状态不允许更新支付方式，当前状态：" + getStatusText(payment.getStatus()));
-        }
-
-        // 4. 更新支付方式
-        int result = paymentMapper.updatePaymentMethod(id, paymentMethod);
-        if (result <= 0) {
-            throw new BusinessException("更新支付方式失败");
+    public boolean updatePaymentMethod(Long id, Integer paymentMethod, Integer expectedVersion, Long studentId) {
+        log.info("更新支付方式, id: {}, paymentMethod: {}, version: {}, studentId: {}", id, paymentMethod, expectedVersion, studentId);
+
+        // 1. 条件更新支付方式（归属、待支付状态），不预先查询
+        StatusTransition transition = StatusTransition.PAYMENT_UPDATE_METHOD;
+        TransitionOutcome outcome = statusTransitionEngine.execute(transition, studentId, expectedVersion,
+                version -> paymentMapper.updatePaymentMethod(id, studentId, transition.getFromStatuses(), version, paymentMethod),
+                () -> paymentMapper.selectStatusSnapshot(id));
+
+        if (!outcome.isSuccess()) {
+            switch (outcome.getResult()) {
+                case NOT_FOUND:
+                    throw new BusinessException("支付记录不存在");
+                case FORBIDDEN:
+                    throw new BusinessException("无权限操作该支付记录");
+                case INVALID_STATUS:
+                    throw new BusinessException("当前状态不允许更新支付方式，当前状态：" + getStatusText(outcome.getCurrentStatus()));
+                case CONFLICT:
+                    throw new BusinessException("支付记录已被修改，请刷新后重试");
+                default:
+                    throw new BusinessException("更新支付方式失败");
+            }
         }
 
-        log.info("支付方式更新成功, id: {}, paymentNo: {}, paymentMethod: {}", id, payment.getPaymentNo(), paymentMethod);
+        log.info("支付方式更新成功, id: {}, paymentMethod: {}", id, paymentMethod);
         return true;
     }
 
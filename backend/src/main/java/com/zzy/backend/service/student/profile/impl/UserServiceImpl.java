@@ -1,10 +1,15 @@
 package com.zzy.backend.service.student.profile.impl;
 
+import com.zzy.backend.entity.user.User;
+import com.zzy.backend.event.TeacherChangedEvent;
+import com.zzy.backend.event.UserProfileChangedEvent;
 import com.zzy.backend.mapper.student.auth.UserMapper;
 import com.zzy.backend.service.student.profile.UserService;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 /**
  * 用户信息服务实现类
@@ -16,10 +21,19 @@ public class UserServiceImpl implements UserService {
     @Autowired
     private UserMapper userMapper;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     @Override
+    @Transactional(rollbackFor = Exception.class)
     public void updateAvatar(Long userId, String avatarUrl) {
         userMapper.updateAvatar(userId, avatarUrl);
+        eventPublisher.publishEvent(new UserProfileChangedEvent(userId));
+        // 教师头像出现在教师列表和详情中
+        User user = userMapper.selectById(userId);
+        if (user != null && user.getRole() != null && user.getRole() == 2) {
+            eventPublisher.publishEvent(new TeacherChangedEvent(userId));
+        }
         log.info("更新用户头像成功, userId: {}, avatarUrl: {}", userId, avatarUrl);
     }
 }
-
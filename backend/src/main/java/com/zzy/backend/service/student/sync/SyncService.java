@@ -0,0 +1,60 @@
+package com.zzy.backend.service.student.sync;
+
+import com.zzy.backend.dto.response.student.sync.SyncResponse;
+
+/**
+ * 增量同步服务接口
+ * 每个用户维护单调递增的变更序列号，聊天与通知的变更按序记录到变更日志，客户端按序列号拉取增量
+ */
+public interface SyncService {
+
+    /**
+     * 变更类型：新消息
+     */
+    int CHANGE_MESSAGE = 1;
+
+    /**
+     * 变更类型：消息撤回
+     */
+    int CHANGE_RECALL = 2;
+
+    /**
+     * 变更类型：会话已读
+     */
+    int CHANGE_READ = 3;
+
+    /**
+     * 变更类型：通知新增或状态变化
+     */
+    int CHANGE_NOTIFICATION = 4;
+
+    /**
+     * 变更类型：通知删除
+     */
+    int CHANGE_NOTIFICATION_DELETED = 5;
+
+    /**
+     * 变更类型：全部通知已读
+     */
+    int CHANGE_NOTIFICATION_READ_ALL = 6;
+
+    /**
+     * 记录一条变更并递增用户的序列号
+     *
+     * @param userId 用户ID
+     * @param changeType 变更类型
+     * @param relationshipId 关系ID（聊天变更时有值，其余为0）
+     * @param refId 关联ID（消息ID/通知ID，无则为0）
+     * @return 新的序列号，记录失败时返回 null
+     */
+    Long record(Long userId, int changeType, Long relationshipId, Long refId);
+
+    /**
+     * 拉取序列号 since 之后的增量
+     *
+     * @param userId 用户ID
+     * @param since 客户端已同步到的序列号
+     * @return 增量同步结果
+     */
+    SyncResponse sync(Long userId, Long since);
+}
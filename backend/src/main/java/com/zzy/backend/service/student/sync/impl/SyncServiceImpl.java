@@ -0,0 +1,290 @@
+package com.zzy.backend.service.student.sync.impl;
+
+import com.zzy.backend.dto.response.student.chat.ChatListItemResponse;
+import com.zzy.backend.dto.response.student.chat.MessageResponse;
+import com.zzy.backend.dto.response.student.notification.NotificationListItemResponse;
+import com.zzy.backend.dto.response.student.sync.SyncResponse;
+import com.zzy.backend.event.ChatEvent;
+import com.zzy.backend.event.NotificationEvent;
+import com.zzy.backend.mapper.student.chat.ChatMessageMapper;
+import com.zzy.backend.mapper.student.notification.NotificationMapper;
+import com.zzy.backend.service.student.chat.ChatInboxService;
+import com.zzy.backend.service.student.chat.ChatUnreadService;
+import com.zzy.backend.service.student.notification.NotificationService;
+import com.zzy.backend.service.student.sync.SyncService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.GenericToStringSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * 增量同步服务实现类
+ * <p>
+ * 存储结构：sync:seq:{userId} 为用户序列号（INCR，不过期）；sync:log:{userId} 为变更日志 ZSET，
+ * score 为序列号，member 为 "seq:类型:关系ID:关联ID"，只保留最近若干条。
+ * 同步时只取变更涉及的ID，再按ID读取最新状态，多次变更同一对象只返回一次。
+ */
+@Slf4j
+@Service
+public class SyncServiceImpl implements SyncService {
+
+    private static final String SEQ_KEY_PREFIX = "sync:seq:";
+
+    private static final String LOG_KEY_PREFIX = "sync:log:";
+
+    /**
+     * 变更日志保留条数
+     */
+    private static final int LOG_MAX_ENTRIES = 2000;
+
+    /**
+     * 变更日志过期时间（秒），长期离线的客户端需全量刷新
+     */
+    private static final long LOG_EXPIRE_SECONDS = 7 * 24 * 3600L;
+
+    /**
+     * 单次同步最多返回的变更条数
+     */
+    private static final int MAX_CHANGES_PER_SYNC = 500;
+
+    /**
+     * 记录变更：KEYS[1]=序列号键，KEYS[2]=日志键，ARGV[1]=类型，ARGV[2]=关系ID，ARGV[3]=关联ID，ARGV[4]=保留条数，ARGV[5]=过期秒数
+     */
+    private static final RedisScript<Long> RECORD_SCRIPT = new DefaultRedisScript<>(
+            "local seq = redis.call('INCR', KEYS[1]) "
+                    + "redis.call('ZADD', KEYS[2], seq, seq .. ':' .. ARGV[1] .. ':' .. ARGV[2] .. ':' .. ARGV[3]) "
+                    + "local size = redis.call('ZCARD', KEYS[2]) "
+                    + "if size > tonumber(ARGV[4]) then "
+                    + "redis.call('ZREMRANGEBYRANK', KEYS[2], 0, size - tonumber(ARGV[4]) - 1) "
+                    + "end "
+                    + "redis.call('EXPIRE', KEYS[2], ARGV[5]) "
+                    + "return seq",
+            Long.class);
+
+    /**
+     * 读取变更：KEYS[1]=序列号键，KEYS[2]=日志键，ARGV[1]=since，ARGV[2]=最多条数
+     * 返回 [当前序列号, 日志中最早的序列号(-1表示无), 变更...]
+     */
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> READ_SCRIPT = new DefaultRedisScript<>(
+            "local current = redis.call('GET', KEYS[1]) or '0' "
+                    + "local first = redis.call('ZRANGE', KEYS[2], 0, 0, 'WITHSCORES') "
+                    + "local oldest = first[2] or '-1' "
+                    + "local entries = redis.call('ZRANGEBYSCORE', KEYS[2], '(' .. ARGV[1], '+inf', 'LIMIT', 0, ARGV[2]) "
+                    + "table.insert(entries, 1, oldest) "
+                    + "table.insert(entries, 1, current) "
+                    + "return entries",
+            List.class);
+
+    private static final RedisSerializer<String> STRING_SERIALIZER = new StringRedisSerializer();
+
+    private static final RedisSerializer<Long> LONG_SERIALIZER = new GenericToStringSerializer<>(Long.class);
+
+    @Autowired
+    private RedisTemplate<String, Object> redisTemplate;
+
+    @Autowired
+    private ChatMessageMapper chatMessageMapper;
+
+    @Autowired
+    private NotificationMapper notificationMapper;
+
+    @Autowired
+    private ChatInboxService chatInboxService;
+
+    @Autowired
+    private ChatUnreadService chatUnreadService;
+
+    @Autowired
+    private NotificationService notificationService;
+
+    @Override
+    public Long record(Long userId, int changeType, Long relationshipId, Long refId) {
+        if (userId == null) {
+            return null;
+        }
+        try {
+            return redisTemplate.execute(RECORD_SCRIPT, STRING_SERIALIZER, LONG_SERIALIZER,
+                    Arrays.asList(seqKey(userId), logKey(userId)),
+                    String.valueOf(changeType),
+                    String.valueOf(relationshipId == null ? 0L : relationshipId),
+                    String.valueOf(refId == null ? 0L : refId),
+                    String.valueOf(LOG_MAX_ENTRIES),
+                    String.valueOf(LOG_EXPIRE_SECONDS));
+        } catch (Exception e) {
+            // 记录失败时客户端可能错过该变更，删除日志使其下次同步时全量刷新
+            log.warn("记录同步变更失败, userId: {}, type: {}, 错误: {}", userId, changeType, e.getMessage());
+            try {
+                redisTemplate.delete(logKey(userId));
+            } catch (Exception ignored) {
+                // 忽略
+            }
+            return null;
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public SyncResponse sync(Long userId, Long since) {
+        log.info("增量同步, userId: {}, since: {}", userId, since);
+        long from = since == null ? -1L : since;
+
+        List<String> raw = (List<String>) redisTemplate.execute(READ_SCRIPT, STRING_SERIALIZER,
+                (RedisSerializer) STRING_SERIALIZER, Arrays.asList(seqKey(userId), logKey(userId)),
+                String.valueOf(Math.max(from, 0L)), String.valueOf(MAX_CHANGES_PER_SYNC + 1));
+        long current = Long.parseLong(raw.get(0));
+        long oldest = Long.parseLong(raw.get(1));
+        List<String> entries = raw.subList(2, raw.size());
+
+        SyncResponse response = new SyncResponse();
+        response.setChatUnreadCount(chatUnreadService.getTotalUnread(userId));
+        response.setNotificationUnreadCount(notificationService.getUnreadCount(userId).getCount());
+
+        // 首次同步、序列号回退（数据被清空）或日志不连续时要求全量刷新
+        boolean gap = from < current && (oldest < 0 || oldest > from + 1);
+        if (from < 0 || from > current || gap) {
+            response.setSeq(current);
+            response.setFullResync(true);
+            response.setHasMore(false);
+            return response;
+        }
+
+        boolean hasMore = entries.size() > MAX_CHANGES_PER_SYNC;
+        if (hasMore) {
+            entries = entries.subList(0, MAX_CHANGES_PER_SYNC);
+        }
+        response.setFullResync(false);
+        response.setHasMore(hasMore);
+        response.setSeq(hasMore ? Long.parseLong(entries.get(entries.size() - 1).split(":")[0]) : current);
+
+        Set<Long> relationshipIds = new LinkedHashSet<>();
+        Set<Long> messageIds = new LinkedHashSet<>();
+        Set<Long> recalledIds = new LinkedHashSet<>();
+        Set<Long> notificationIds = new LinkedHashSet<>();
+        Set<Long> deletedNotificationIds = new LinkedHashSet<>();
+        boolean notificationsAllRead = false;
+        for (String entry : entries) {
+            String[] parts = entry.split(":");
+            int type = Integer.parseInt(parts[1]);
+            long relationshipId = Long.parseLong(parts[2]);
+            long refId = Long.parseLong(parts[3]);
+            switch (type) {
+                case CHANGE_MESSAGE:
+                    relationshipIds.add(relationshipId);
+                    messageIds.add(refId);
+                    break;
+                case CHANGE_RECALL:
+                    relationshipIds.add(relationshipId);
+                    recalledIds.add(refId);
+                    break;
+                case CHANGE_READ:
+                    relationshipIds.add(relationshipId);
+                    break;
+                case CHANGE_NOTIFICATION:
+                    notificationIds.add(refId);
+                    deletedNotificationIds.remove(refId);
+                    break;
+                case CHANGE_NOTIFICATION_DELETED:
+                    deletedNotificationIds.add(refId);
+                    notificationIds.remove(refId);
+                    break;
+                case CHANGE_NOTIFICATION_READ_ALL:
+                    notificationsAllRead = true;
+                    break;
+                default:
+                    break;
+            }
+        }
+        messageIds.removeAll(recalledIds);
+
+        if (!relationshipIds.isEmpty()) {
+            response.setConversations(chatInboxService.getInbox(userId, 0, 0).stream()
+                    .filter(item -> relationshipIds.contains(item.getRelationshipId()))
+                    .collect(Collectors.toList()));
+        }
+        if (!messageIds.isEmpty()) {
+            List<MessageResponse> messages = new ArrayList<>(chatMessageMapper.selectMessagesByIds(new ArrayList<>(messageIds)));
+            messages.sort(Comparator.comparing(MessageResponse::getId));
+            response.setMessages(messages);
+        }
+        response.setRecalledMessageIds(new ArrayList<>(recalledIds));
+        if (!notificationIds.isEmpty()) {
+            List<NotificationListItemResponse> notifications =
+                    notificationMapper.selectNotificationsByIds(userId, new ArrayList<>(notificationIds));
+            Set<Long> existing = notifications.stream().map(NotificationListItemResponse::getId).collect(Collectors.toSet());
+            notificationIds.stream().filter(id -> !existing.contains(id)).forEach(deletedNotificationIds::add);
+            response.setNotifications(notifications);
+        }
+        response.setDeletedNotificationIds(new ArrayList<>(deletedNotificationIds));
+        response.setNotificationsAllRead(notificationsAllRead);
+        return response;
+    }
+
+    /**
+     * 事务提交后记录聊天变更（会话双方各记一条）
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onChatEvent(ChatEvent event) {
+        int changeType;
+        switch (event.getType()) {
+            case MESSAGE:
+                changeType = CHANGE_MESSAGE;
+                break;
+            case RECALL:
+                changeType = CHANGE_RECALL;
+                break;
+            case READ:
+                changeType = CHANGE_READ;
+                break;
+            default:
+                return;
+        }
+        record(event.getOperatorId(), changeType, event.getRelationshipId(), event.getMessageId());
+        record(event.getPeerId(), changeType, event.getRelationshipId(), event.getMessageId());
+    }
+
+    /**
+     * 事务提交后记录通知变更
+     * 新通知只经 NotificationService#createNotification 写入，其他写入路径需同样发布 CREATED 事件，否则增量同步会漏掉该通知
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onNotificationEvent(NotificationEvent event) {
+        switch (event.getType()) {
+            case CREATED:
+            case READ:
+                record(event.getUserId(), CHANGE_NOTIFICATION, 0L, event.getNotificationId());
+                break;
+            case DELETED:
+                record(event.getUserId(), CHANGE_NOTIFICATION_DELETED, 0L, event.getNotificationId());
+                break;
+            case READ_ALL:
+                record(event.getUserId(), CHANGE_NOTIFICATION_READ_ALL, 0L, 0L);
+                break;
+            default:
+                break;
+        }
+    }
+
+    private String seqKey(Long userId) {
+        return SEQ_KEY_PREFIX + userId;
+    }
+
+    private String logKey(Long userId) {
+        return LOG_KEY_PREFIX + userId;
+    }
+}
@@ -0,0 +1,32 @@
+package com.zzy.backend.service.student.teacher;
+
+import com.zzy.backend.common.page.PageResult;
+import com.zzy.backend.dto.request.student.teacher.TeacherAvailabilityRequest;
+import com.zzy.backend.dto.response.student.teacher.TeacherListItemResponse;
+
+/**
+ * 教师空闲查询服务接口
+ * 基于进程内按星期划分的时间段索引与预约占用表，不逐个教师扫描时间表和预约
+ */
+public interface TeacherAvailabilityService {
+
+    /**
+     * 查询在指定日期时间段内有空的教师（时间表覆盖该时间段，且没有冲突的未取消预约）
+     *
+     * @param request 查询请求参数
+     * @return 分页结果（排序与教师列表一致）
+     */
+    PageResult<TeacherListItemResponse> search(TeacherAvailabilityRequest request);
+
+    /**
+     * 从数据库全量重建索引
+     */
+    void rebuild();
+
+    /**
+     * 重新加载单个教师的时间表与教学信息
+     *
+     * @param teacherId 教师用户ID
+     */
+    void refresh(Long teacherId);
+}
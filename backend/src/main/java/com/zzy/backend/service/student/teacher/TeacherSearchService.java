@@ -0,0 +1,55 @@
+package com.zzy.backend.service.student.teacher;
+
+import com.zzy.backend.common.page.PageResult;
+import com.zzy.backend.dto.request.student.teacher.TeacherListRequest;
+import com.zzy.backend.dto.response.student.teacher.TeacherListItemResponse;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 教师搜索服务接口
+ * 基于进程内索引（二元分词倒排表 + 筛选属性），排序与数据库查询一致
+ */
+public interface TeacherSearchService {
+
+    /**
+     * 索引是否可用（未开启或加载中时由调用方回退到数据库查询）
+     */
+    boolean isReady();
+
+    /**
+     * 查询教师列表（分页）
+     *
+     * @param request 查询请求参数（已校验分页参数）
+     * @return 分页结果
+     */
+    PageResult<TeacherListItemResponse> search(TeacherListRequest request);
+
+    /**
+     * 索引快照版本号（每次重建或刷新替换快照时递增，供响应缓存判断失效）
+     *
+     * @return 版本号
+     */
+    long getSnapshotVersion();
+
+    /**
+     * 按列表排序规则返回指定教师（不存在或已失效的教师被忽略）
+     *
+     * @param teacherIds 教师用户ID集合
+     * @return 教师列表
+     */
+    List<TeacherListItemResponse> listByIds(Collection<Long> teacherIds);
+
+    /**
+     * 从数据库全量重建索引
+     */
+    void rebuild();
+
+    /**
+     * 重新加载单个教师的索引数据
+     *
+     * @param teacherId 教师用户ID
+     */
+    void refresh(Long teacherId);
+}
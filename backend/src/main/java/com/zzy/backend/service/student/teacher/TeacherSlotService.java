@@ -0,0 +1,26 @@
+package com.zzy.backend.service.student.teacher;
+
+import com.zzy.backend.dto.response.student.teacher.SlotCalendarResponse;
+
+/**
+ * 教师可预约日历服务接口
+ * 由固定周期与临时时间表展开未来若干天的时间段并扣除已有预约，按教师缓存
+ */
+public interface TeacherSlotService {
+
+    /**
+     * 查询教师未来若干天的可预约日历
+     *
+     * @param teacherId 教师用户ID
+     * @param days 天数（从今天起，为空时使用默认值）
+     * @return 可预约日历
+     */
+    SlotCalendarResponse getSlotCalendar(Long teacherId, Integer days);
+
+    /**
+     * 清除教师的日历缓存
+     *
+     * @param teacherId 教师用户ID
+     */
+    void evict(Long teacherId);
+}
@@ -0,0 +1,27 @@
+package com.zzy.backend.service.student.teacher;
+
+/**
+ * 教师搜索汇总服务接口
+ * 维护 teacher_search 汇总表：业务写入时在同一事务内记录变更，后台任务异步重算
+ */
+public interface TeacherSummaryService {
+
+    /**
+     * 记录教师变更（需在修改教师数据的事务内调用）
+     *
+     * @param teacherId 教师用户ID（为空表示全部教师）
+     */
+    void markChanged(Long teacherId);
+
+    /**
+     * 处理变更队列，重算对应教师的汇总行
+     *
+     * @return 处理的变更数
+     */
+    int processOutbox();
+
+    /**
+     * 全量重算汇总表
+     */
+    void refreshAll();
+}
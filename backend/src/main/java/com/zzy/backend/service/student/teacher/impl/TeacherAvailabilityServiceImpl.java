@@ -0,0 +1,534 @@
+package com.zzy.backend.service.student.teacher.impl;
+
+import com.zzy.backend.common.exception.BusinessException;
+import com.zzy.backend.common.page.PageResult;
+import com.zzy.backend.common.util.DateTimeUtil;
+import com.zzy.backend.dto.request.student.teacher.TeacherAvailabilityRequest;
+import com.zzy.backend.dto.response.student.appointment.AppointmentSlotResponse;
+import com.zzy.backend.dto.response.student.teacher.TeacherListItemResponse;
+import com.zzy.backend.dto.response.student.teacher.TeacherScheduleIndexResponse;
+import com.zzy.backend.dto.response.student.teacher.TeacherTeachingIndexResponse;
+import com.zzy.backend.event.AppointmentEvent;
+import com.zzy.backend.event.TeacherChangedEvent;
+import com.zzy.backend.mapper.student.appointment.AppointmentMapper;
+import com.zzy.backend.mapper.student.teacher.TeacherMapper;
+import com.zzy.backend.service.student.teacher.TeacherAvailabilityService;
+import com.zzy.backend.service.student.teacher.TeacherSearchService;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * 教师空闲查询服务实现类
+ * <p>
+ * 时间表索引：按星期（1-7）分组、按开始时间排序的时间段数组，查询时二分定位开始时间早于窗口结束的时间段，
+ * 再按教师合并相邻时间段判断是否覆盖整个窗口（临时时间段需日期在生效范围内）。索引不可变，变化时整体替换。
+ * 预约占用表：日期 -> 教师 -> 预约ID -> 占用分钟区间，只保存今天及以后的未取消预约，由预约事件增量维护。
+ * 时间统一换算为当天的分钟数比较。
+ */
+@Slf4j
+@Service
+public class TeacherAvailabilityServiceImpl implements TeacherAvailabilityService {
+
+    @Value("${teacher.availability.enabled:true}")
+    private boolean enabled;
+
+    /**
+     * 最多可查询的天数（从今天起）
+     */
+    @Value("${teacher.availability.max-days-ahead:90}")
+    private int maxDaysAhead;
+
+    @Autowired
+    private TeacherMapper teacherMapper;
+
+    @Autowired
+    private AppointmentMapper appointmentMapper;
+
+    @Autowired
+    private TeacherSearchService teacherSearchService;
+
+    private volatile ScheduleIndex scheduleIndex;
+
+    private volatile Map<LocalDate, Map<Long, Map<Long, int[]>>> busySlots = new ConcurrentHashMap<>();
+
+    /**
+     * 保护索引替换与增量更新，只在内存操作期间持有（全量查询不在锁内）
+     */
+    private final Object writeLock = new Object();
+
+    /**
+     * 串行化全量重建
+     */
+    private final Object rebuildLock = new Object();
+
+    /**
+     * 重建期间提交的预约事件，新占用表替换前重放（受 writeLock 保护，未在重建时为空）
+     */
+    private List<AppointmentEvent> bufferedEvents;
+
+    /**
+     * 重建期间刷新过的教师，新索引替换后重新刷新（受 writeLock 保护，未在重建时为空）
+     */
+    private Set<Long> bufferedRefreshes;
+
+    @PostConstruct
+    public void init() {
+        if (!enabled) {
+            return;
+        }
+        Thread loader = new Thread(() -> {
+            try {
+                rebuild();
+            } catch (Exception e) {
+                log.error("教师空闲时间索引加载失败", e);
+            }
+        }, "teacher-availability-loader");
+        loader.setDaemon(true);
+        loader.start();
+    }
+
+    @Override
+    public PageResult<TeacherListItemResponse> search(TeacherAvailabilityRequest request) {
+        if (!enabled) {
+            throw new BusinessException("教师空闲查询未开启");
+        }
+        ScheduleIndex index = scheduleIndex;
+        if (index == null || !teacherSearchService.isReady()) {
+            throw new BusinessException("教师空闲时间索引加载中，请稍后重试");
+        }
+        request.validate();
+
+        LocalDate date;
+        LocalTime startTime;
+        LocalTime endTime;
+        try {
+            date = DateTimeUtil.parseDate(request.getDate());
+            startTime = DateTimeUtil.parseTimeShort(request.getStartTime());
+            endTime = DateTimeUtil.parseTimeShort(request.getEndTime());
+        } catch (DateTimeParseException e) {
+            throw new BusinessException("日期或时间格式不正确");
+        }
+        if (date == null || startTime == null || endTime == null) {
+            throw new BusinessException("日期和时间段不能为空");
+        }
+        if (!endTime.isAfter(startTime)) {
+            throw new BusinessException("结束时间必须晚于开始时间");
+        }
+        LocalDate today = LocalDate.now();
+        if (date.isBefore(today)) {
+            throw new BusinessException("不能查询过去的日期");
+        }
+        if (date.isAfter(today.plusDays(maxDaysAhead))) {
+            throw new BusinessException("最多只能查询" + maxDaysAhead + "天内的空闲时间");
+        }
+
+        int start = toMinutes(startTime);
+        int end = toMinutes(endTime);
+        Map<Long, Map<Long, int[]>> busyOnDate = busySlots.getOrDefault(date, Collections.emptyMap());
+        Set<Long> available = new HashSet<>();
+        for (Long teacherId : index.coveringTeachers(date, start, end)) {
+            if (!index.teaches(teacherId, request.getStageId(), request.getSubjectId())) {
+                continue;
+            }
+            if (conflicts(busyOnDate.get(teacherId), start, end)) {
+                continue;
+            }
+            available.add(teacherId);
+        }
+
+        List<TeacherListItemResponse> teachers = teacherSearchService.listByIds(available);
+        int fromIndex = Math.min((request.getPage() - 1) * request.getPageSize(), teachers.size());
+        int toIndex = Math.min(fromIndex + request.getPageSize(), teachers.size());
+        return PageResult.of(new ArrayList<>(teachers.subList(fromIndex, toIndex)), (long) teachers.size(),
+                request.getPage(), request.getPageSize());
+    }
+
+    /**
+     * 全量重建：在锁外查询并构建新索引，期间的预约事件和教师刷新先缓冲，
+     * 替换时在锁内重放预约事件（重放是幂等的），替换后重新刷新期间变更的教师
+     */
+    @Override
+    public void rebuild() {
+        synchronized (rebuildLock) {
+            long start = System.currentTimeMillis();
+            LocalDate today = LocalDate.now();
+            synchronized (writeLock) {
+                bufferedEvents = new ArrayList<>();
+                bufferedRefreshes = new HashSet<>();
+            }
+            Set<Long> staleTeachers = Collections.emptySet();
+            try {
+                List<TeacherScheduleIndexResponse> schedules = teacherMapper.selectScheduleIndexItems(null, today);
+                List<TeacherTeachingIndexResponse> teachings = teacherMapper.selectTeacherTeachingIndexItems(null);
+                List<AppointmentSlotResponse> slots = appointmentMapper.selectActiveSlots(null, today);
+
+                ScheduleIndex index = new ScheduleIndex(schedules,
+                        groupByTeacher(teachings, TeacherTeachingIndexResponse::getTeacherId));
+                Map<LocalDate, Map<Long, Map<Long, int[]>>> busy = new ConcurrentHashMap<>();
+                for (AppointmentSlotResponse slot : slots) {
+                    addBusy(busy, slot.getId(), slot.getTeacherId(), slot.getAppointmentDate(), slot.getStartTime(), slot.getEndTime());
+                }
+
+                synchronized (writeLock) {
+                    for (AppointmentEvent event : bufferedEvents) {
+                        applyEvent(busy, event);
+                    }
+                    scheduleIndex = index;
+                    busySlots = busy;
+                    staleTeachers = bufferedRefreshes;
+                }
+                log.info("教师空闲时间索引重建完成, 时间段数: {}, 预约数: {}, 耗时: {}ms",
+                        schedules.size(), slots.size(), System.currentTimeMillis() - start);
+            } finally {
+                synchronized (writeLock) {
+                    bufferedEvents = null;
+                    bufferedRefreshes = null;
+                }
+            }
+            for (Long teacherId : staleTeachers) {
+                refresh(teacherId);
+            }
+        }
+    }
+
+    /**
+     * 刷新单个教师：在锁外查询，锁内只替换该教师的时间段与教学信息
+     */
+    @Override
+    public void refresh(Long teacherId) {
+        if (teacherId == null) {
+            return;
+        }
+        List<TeacherScheduleIndexResponse> schedules = teacherMapper.selectScheduleIndexItems(teacherId, LocalDate.now());
+        List<TeacherTeachingIndexResponse> teachings = teacherMapper.selectTeacherTeachingIndexItems(teacherId);
+        synchronized (writeLock) {
+            if (bufferedRefreshes != null) {
+                bufferedRefreshes.add(teacherId);
+            }
+            ScheduleIndex current = scheduleIndex;
+            if (current == null) {
+                return;
+            }
+            scheduleIndex = current.replace(teacherId, schedules, teachings);
+        }
+        log.debug("教师空闲时间索引已刷新, teacherId: {}", teacherId);
+    }
+
+    /**
+     * 定期全量重建：清理过期日期的占用数据，并兜底未发布事件的数据修改
+     */
+    @Scheduled(fixedDelayString = "${teacher.availability.rebuild-interval:600000}", initialDelayString = "${teacher.availability.rebuild-interval:600000}")
+    public void scheduledRebuild() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            rebuild();
+        } catch (Exception e) {
+            log.error("教师空闲时间索引定期重建失败", e);
+        }
+    }
+
+    /**
+     * 事务提交后更新预约占用表
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onAppointmentEvent(AppointmentEvent event) {
+        if (!enabled) {
+            return;
+        }
+        synchronized (writeLock) {
+            applyEvent(busySlots, event);
+            if (bufferedEvents != null) {
+                bufferedEvents.add(event);
+            }
+        }
+    }
+
+    /**
+     * 事务提交后刷新变更教师的时间表
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onTeacherChanged(TeacherChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        try {
+            if (event.getTeacherId() == null) {
+                rebuild();
+            } else {
+                refresh(event.getTeacherId());
+            }
+        } catch (Exception e) {
+            log.error("刷新教师空闲时间索引失败, teacherId: {}", event.getTeacherId(), e);
+        }
+    }
+
+    private static void applyEvent(Map<LocalDate, Map<Long, Map<Long, int[]>>> busy, AppointmentEvent event) {
+        switch (event.getType()) {
+            case CREATED:
+                if (!event.getAppointmentDate().isBefore(LocalDate.now())) {
+                    addBusy(busy, event.getAppointmentId(), event.getTeacherId(),
+                            event.getAppointmentDate(), event.getStartTime(), event.getEndTime());
+                }
+                break;
+            case CANCELLED:
+                Map<Long, Map<Long, int[]>> byTeacher = busy.get(event.getAppointmentDate());
+                Map<Long, int[]> slots = byTeacher != null ? byTeacher.get(event.getTeacherId()) : null;
+                if (slots != null) {
+                    slots.remove(event.getAppointmentId());
+                }
+                break;
+            default:
+                break;
+        }
+    }
+
+    private static void addBusy(Map<LocalDate, Map<Long, Map<Long, int[]>>> busy, Long appointmentId, Long teacherId,
+                                LocalDate date, LocalTime startTime, LocalTime endTime) {
+        if (date == null || startTime == null || endTime == null) {
+            return;
+        }
+        busy.computeIfAbsent(date, k -> new ConcurrentHashMap<>())
+                .computeIfAbsent(teacherId, k -> new ConcurrentHashMap<>())
+                .put(appointmentId, new int[]{toMinutes(startTime), toMinutes(endTime)});
+    }
+
+    private static boolean conflicts(Map<Long, int[]> slots, int start, int end) {
+        if (slots == null) {
+            return false;
+        }
+        for (int[] slot : slots.values()) {
+            if (slot[0] < end && slot[1] > start) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int toMinutes(LocalTime time) {
+        return time.getHour() * 60 + time.getMinute();
+    }
+
+    private static <T> Map<Long, List<T>> groupByTeacher(List<T> rows, Function<T, Long> teacherId) {
+        Map<Long, List<T>> grouped = new HashMap<>();
+        for (T row : rows) {
+            grouped.computeIfAbsent(teacherId.apply(row), k -> new ArrayList<>()).add(row);
+        }
+        return grouped;
+    }
+
+    /**
+     * 时间段（分钟）
+     */
+    private static final class Interval {
+
+        private final Long teacherId;
+
+        private final int start;
+
+        private final int end;
+
+        /**
+         * 生效日期范围（固定周期时间段为空）
+         */
+        private final LocalDate startDate;
+
+        private final LocalDate endDate;
+
+        Interval(TeacherScheduleIndexResponse row) {
+            this.teacherId = row.getTeacherId();
+            this.start = toMinutes(row.getStartTime());
+            // 结束时间 00:00 视为当天结束
+            int endMinutes = toMinutes(row.getEndTime());
+            this.end = endMinutes == 0 ? 24 * 60 : endMinutes;
+            boolean temporary = Integer.valueOf(2).equals(row.getScheduleType());
+            this.startDate = temporary ? row.getStartDate() : null;
+            this.endDate = temporary ? row.getEndDate() : null;
+        }
+
+        boolean appliesOn(LocalDate date) {
+            return (startDate == null || !date.isBefore(startDate)) && (endDate == null || !date.isAfter(endDate));
+        }
+    }
+
+    /**
+     * 时间表索引（不可变）
+     */
+    private static final class ScheduleIndex {
+
+        private static final Comparator<Interval> BY_START = Comparator.comparingInt(interval -> interval.start);
+
+        /**
+         * 下标为星期（1-7），每组按开始时间升序
+         */
+        private final Interval[][] byWeekday;
+
+        /**
+         * 教师ID -> 教学信息（刷新时原地替换单个教师）
+         */
+        private final Map<Long, List<TeacherTeachingIndexResponse>> teachingsByTeacher;
+
+        ScheduleIndex(List<TeacherScheduleIndexResponse> schedules,
+                      Map<Long, List<TeacherTeachingIndexResponse>> teachingsByTeacher) {
+            this.teachingsByTeacher = new ConcurrentHashMap<>(teachingsByTeacher);
+            this.byWeekday = new Interval[8][];
+            List<List<Interval>> lists = intervalsByWeekday(schedules);
+            for (int weekday = 1; weekday < 8; weekday++) {
+                byWeekday[weekday] = lists.get(weekday).toArray(new Interval[0]);
+            }
+        }
+
+        private ScheduleIndex(Interval[][] byWeekday, Map<Long, List<TeacherTeachingIndexResponse>> teachingsByTeacher) {
+            this.byWeekday = byWeekday;
+            this.teachingsByTeacher = teachingsByTeacher;
+        }
+
+        /**
+         * 替换单个教师：每个星期去掉该教师的旧时间段，再按开始时间归并插入新时间段，不涉及该教师的星期直接共享
+         */
+        ScheduleIndex replace(Long teacherId, List<TeacherScheduleIndexResponse> schedules,
+                              List<TeacherTeachingIndexResponse> teachings) {
+            List<List<Interval>> added = intervalsByWeekday(schedules);
+            Interval[][] weekdays = new Interval[8][];
+            for (int weekday = 1; weekday < 8; weekday++) {
+                Interval[] intervals = byWeekday[weekday];
+                List<Interval> additions = added.get(weekday);
+                int removed = 0;
+                for (Interval interval : intervals) {
+                    if (interval.teacherId.equals(teacherId)) {
+                        removed++;
+                    }
+                }
+                if (removed == 0 && additions.isEmpty()) {
+                    weekdays[weekday] = intervals;
+                    continue;
+                }
+                Interval[] merged = new Interval[intervals.length - removed + additions.size()];
+                int n = 0;
+                int next = 0;
+                for (Interval interval : intervals) {
+                    if (interval.teacherId.equals(teacherId)) {
+                        continue;
+                    }
+                    while (next < additions.size() && additions.get(next).start < interval.start) {
+                        merged[n++] = additions.get(next++);
+                    }
+                    merged[n++] = interval;
+                }
+                while (next < additions.size()) {
+                    merged[n++] = additions.get(next++);
+                }
+                weekdays[weekday] = merged;
+            }
+            if (teachings.isEmpty()) {
+                teachingsByTeacher.remove(teacherId);
+            } else {
+                teachingsByTeacher.put(teacherId, teachings);
+            }
+            return new ScheduleIndex(weekdays, teachingsByTeacher);
+        }
+
+        /**
+         * 按星期分组的有效时间段，每组按开始时间升序
+         */
+        private static List<List<Interval>> intervalsByWeekday(List<TeacherScheduleIndexResponse> schedules) {
+            List<List<Interval>> lists = new ArrayList<>();
+            for (int weekday = 0; weekday < 8; weekday++) {
+                lists.add(new ArrayList<>());
+            }
+            for (TeacherScheduleIndexResponse row : schedules) {
+                Integer weekday = row.getWeekday();
+                if (weekday == null || weekday < 1 || weekday > 7 || row.getStartTime() == null || row.getEndTime() == null) {
+                    continue;
+                }
+                Interval interval = new Interval(row);
+                if (interval.end > interval.start) {
+                    lists.get(weekday).add(interval);
+                }
+            }
+            for (List<Interval> list : lists) {
+                list.sort(BY_START);
+            }
+            return lists;
+        }
+
+        /**
+         * 时间表完整覆盖 [start, end) 的教师（同一教师的相邻时间段可拼接）
+         */
+        Set<Long> coveringTeachers(LocalDate date, int start, int end) {
+            Interval[] intervals = byWeekday[date.getDayOfWeek().getValue()];
+            // 二分查找第一个开始时间 >= end 的位置，之后的时间段不可能与窗口相交
+            int low = 0;
+            int high = intervals.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (intervals[mid].start < end) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            // 按开始时间顺序推进每个教师已覆盖到的位置
+            Map<Long, Integer> coveredUntil = new HashMap<>();
+            Set<Long> covering = new HashSet<>();
+            for (int i = 0; i < low; i++) {
+                Interval interval = intervals[i];
+                if (interval.end <= start || !interval.appliesOn(date) || covering.contains(interval.teacherId)) {
+                    continue;
+                }
+                int cursor = coveredUntil.getOrDefault(interval.teacherId, start);
+                if (cursor < 0) {
+                    continue;
+                }
+                if (interval.start > cursor) {
+                    // 出现空档，之后的时间段开始得更晚，该教师无法覆盖窗口
+                    coveredUntil.put(interval.teacherId, -1);
+                    continue;
+                }
+                cursor = Math.max(cursor, interval.end);
+                coveredUntil.put(interval.teacherId, cursor);
+                if (cursor >= end) {
+                    covering.add(interval.teacherId);
+                }
+            }
+            return covering;
+        }
+
+        /**
+         * 是否教授指定阶段和科目（同时指定时需为同一条教学信息）
+         */
+        boolean teaches(Long teacherId, Integer stageId, Integer subjectId) {
+            if (stageId == null && subjectId == null) {
+                return true;
+            }
+            for (TeacherTeachingIndexResponse teaching : teachingsByTeacher.getOrDefault(teacherId, Collections.emptyList())) {
+                if ((stageId == null || stageId.equals(teaching.getStageId()))
+                        && (subjectId == null || subjectId.equals(teaching.getSubjectId()))) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package com.zzy.backend.service.student.teacher.impl;
+
+import cn.hutool.cache.CacheUtil;
+import cn.hutool.cache.impl.LRUCache;
+import com.zzy.backend.dto.response.common.TeachingStageResponse;
+import com.zzy.backend.dto.response.student.teacher.ScheduleResponse;
+import com.zzy.backend.dto.response.student.teacher.TeacherDetailResponse;
+import com.zzy.backend.dto.response.student.teacher.TeachingResponse;
+import com.zzy.backend.event.TeacherChangedEvent;
+import com.zzy.backend.mapper.student.teacher.TeacherMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 教师详情缓存（进程内 LRU + 过期时间）
+ * <p>
+ * 同一教师的并发未命中合并为一次加载（single-flight），其余请求等待同一结果；
+ * 加载时先查基本信息，再并发查询阶段、教学信息、时间表三个子查询。不存在的教师同样缓存，避免反复穿透。
+ * 教师数据变更后在事务提交时清除对应缓存；加载过程中被清除的结果不会写入缓存。
+ * 指标（/actuator/metrics、/actuator/prometheus）：teacher.detail.cache.requests{result=hit|miss}、teacher.detail.cache.load、teacher.detail.cache.size。
+ */
+@Slf4j
+@Component
+public class TeacherDetailCache {
+
+    @Value("${teacher.detail-cache.capacity:2000}")
+    private int capacity;
+
+    @Value("${teacher.detail-cache.ttl-seconds:60}")
+    private long ttlSeconds;
+
+    @Value("${teacher.detail-cache.loader-threads:8}")
+    private int loaderThreads;
+
+    @Autowired
+    private TeacherMapper teacherMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    /**
+     * 教师ID -> 详情（Optional.empty() 表示教师不存在）
+     */
+    private LRUCache<Long, Optional<TeacherDetailResponse>> cache;
+
+    /**
+     * 正在加载的教师ID -> 加载结果
+     */
+    private final ConcurrentHashMap<Long, CompletableFuture<Optional<TeacherDetailResponse>>> inFlight = new ConcurrentHashMap<>();
+
+    private ThreadPoolExecutor loaderExecutor;
+
+    private Counter hitCounter;
+
+    private Counter missCounter;
+
+    private Timer loadTimer;
+
+    @PostConstruct
+    public void init() {
+        cache = CacheUtil.newLRUCache(capacity, ttlSeconds * 1000);
+        AtomicInteger threadIndex = new AtomicInteger();
+        // 队列满时由调用线程执行，子查询不会被丢弃
+        loaderExecutor = new ThreadPoolExecutor(loaderThreads, loaderThreads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(loaderThreads * 16), runnable -> {
+            Thread thread = new Thread(runnable, "teacher-detail-loader-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }, new ThreadPoolExecutor.CallerRunsPolicy());
+
+        hitCounter = Counter.builder("teacher.detail.cache.requests").tag("result", "hit")
+                .description("教师详情缓存请求数").register(meterRegistry);
+        missCounter = Counter.builder("teacher.detail.cache.requests").tag("result", "miss")
+                .description("教师详情缓存请求数").register(meterRegistry);
+        loadTimer = Timer.builder("teacher.detail.cache.load")
+                .description("教师详情缓存未命中时的加载耗时").register(meterRegistry);
+        Gauge.builder("teacher.detail.cache.size", cache, LRUCache::size)
+                .description("教师详情缓存条目数").register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        loaderExecutor.shutdown();
+    }
+
+    /**
+     * 获取教师详情
+     *
+     * @param teacherId 教师用户ID
+     * @return 教师详情，不存在时返回 null
+     */
+    public TeacherDetailResponse get(Long teacherId) {
+        // 读取不刷新过期时间，条目按写入时间过期
+        Optional<TeacherDetailResponse> cached = cache.get(teacherId, false);
+        if (cached != null) {
+            hitCounter.increment();
+            return cached.orElse(null);
+        }
+        missCounter.increment();
+
+        CompletableFuture<Optional<TeacherDetailResponse>> future = new CompletableFuture<>();
+        CompletableFuture<Optional<TeacherDetailResponse>> existing = inFlight.putIfAbsent(teacherId, future);
+        if (existing != null) {
+            return await(existing).orElse(null);
+        }
+
+        try {
+            Optional<TeacherDetailResponse> loaded = Optional.ofNullable(loadTimer.record(() -> load(teacherId)));
+            // 加载期间被清除（inFlight 已被移除）时不写入缓存，避免缓存旧数据
+            if (inFlight.remove(teacherId, future)) {
+                cache.put(teacherId, loaded);
+            }
+            future.complete(loaded);
+            return loaded.orElse(null);
+        } catch (RuntimeException e) {
+            inFlight.remove(teacherId, future);
+            future.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /**
+     * 清除教师详情缓存
+     *
+     * @param teacherId 教师用户ID
+     */
+    public void evict(Long teacherId) {
+        cache.remove(teacherId);
+        inFlight.remove(teacherId);
+    }
+
+    /**
+     * 事务提交后清除变更教师的详情缓存
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onTeacherChanged(TeacherChangedEvent event) {
+        if (event.getTeacherId() == null) {
+            cache.clear();
+            inFlight.clear();
+        } else {
+            evict(event.getTeacherId());
+        }
+    }
+
+    private TeacherDetailResponse load(Long teacherId) {
+        log.info("加载教师详情, userId: {}", teacherId);
+
+        // 查询教师基本信息
+        TeacherDetailResponse detail = teacherMapper.selectTeacherDetail(teacherId);
+        if (detail == null) {
+            return null;
+        }
+
+        // 并发查询教学阶段、教学信息、时间表
+        CompletableFuture<List<TeachingStageResponse>> stages =
+                CompletableFuture.supplyAsync(() -> teacherMapper.selectTeacherStages(teacherId), loaderExecutor);
+        CompletableFuture<List<TeachingResponse>> teachings =
+                CompletableFuture.supplyAsync(() -> teacherMapper.selectTeacherTeachings(teacherId), loaderExecutor);
+        CompletableFuture<List<ScheduleResponse>> schedules =
+                CompletableFuture.supplyAsync(() -> teacherMapper.selectTeacherSchedules(teacherId), loaderExecutor);
+
+        detail.setStages(await(stages));
+        detail.setTeachings(await(teachings));
+        detail.setSchedules(await(schedules));
+        return detail;
+    }
+
+    private static <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+}
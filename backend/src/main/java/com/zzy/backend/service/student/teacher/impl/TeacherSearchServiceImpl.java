@@ -0,0 +1,1015 @@
+package com.zzy.backend.service.student.teacher.impl;
+
+import com.zzy.backend.common.page.PageResult;
+import com.zzy.backend.common.util.NgramTokenizer;
+import com.zzy.backend.dto.request.student.teacher.TeacherListRequest;
+import com.zzy.backend.dto.response.common.SubjectResponse;
+import com.zzy.backend.dto.response.student.teacher.TeacherFacetResponse;
+import com.zzy.backend.dto.response.student.teacher.TeacherIndexItemResponse;
+import com.zzy.backend.dto.response.student.teacher.TeacherListItemResponse;
+import com.zzy.backend.dto.response.student.teacher.TeacherListPageResponse;
+import com.zzy.backend.dto.response.student.teacher.TeacherTeachingIndexResponse;
+import com.zzy.backend.event.TeacherChangedEvent;
+import com.zzy.backend.mapper.student.teacher.TeacherMapper;
+import com.zzy.backend.service.common.PresenceService;
+import com.zzy.backend.service.student.teacher.TeacherSearchService;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 教师搜索服务实现类
+ * <p>
+ * 索引为不可变快照：教师文档按评分、注册时间倒序（空值排最后）预先排好，在线状态取自在线快照，
+ * 查询时先遍历在线教师、再遍历离线教师，实现在线优先排序。
+ * 倒排表记录二元词元 -> 升序排名位置。关键词先用倒排表求交集得到候选，再逐个校验子串包含，
+ * 结果与 SQL 的 LIKE '%关键词%' 一致。阶段、科目、认证状态、价格分桶预先建成位图，筛选为位图求交，
+ * 评分与价格分桶边界再逐个校验；需要时在同一次遍历中得到结果位图并计算分面统计。
+ * 无筛选条件的默认列表只记录在线教师的排名位置（有序），离线教师的位置由序号二分换算，按页码直接取区间，
+ * 深分页不需遍历前面的教师，在线快照变化时也只需处理在线教师。
+ * 全量重建在锁外构建新快照后整体替换；单个教师变化时由旧快照派生新快照，只二分插入该教师、复制受影响的倒排表与位图，
+ * 不重新排序和分词。查询无需加锁。
+ */
+@Slf4j
+@Service
+public class TeacherSearchServiceImpl implements TeacherSearchService {
+
+    /**
+     * 与 ORDER BY tp.rating DESC, u.created_at DESC 一致（MySQL 倒序时 NULL 排最后），ID 倒序兜底；在线优先在查询时处理
+     */
+    private static final Comparator<TeacherDoc> RANKING = Comparator
+            .comparing((TeacherDoc doc) -> doc.rating, Comparator.nullsLast(Comparator.<BigDecimal>reverseOrder()))
+            .thenComparing(doc -> doc.createdAt, Comparator.nullsLast(Comparator.<LocalDateTime>reverseOrder()))
+            .thenComparing(doc -> doc.id, Comparator.reverseOrder());
+
+    /**
+     * 价格分桶宽度（元）与桶数，最后一个桶包含所有更高的价格
+     */
+    private static final int PRICE_BUCKET_WIDTH = 50;
+
+    private static final int PRICE_BUCKET_COUNT = 40;
+
+    @Value("${teacher.search.index-enabled:true}")
+    private boolean enabled;
+
+    @Autowired
+    private TeacherMapper teacherMapper;
+
+    @Autowired
+    private PresenceService presenceService;
+
+    private volatile Snapshot snapshot;
+
+    private volatile long snapshotVersion;
+
+    /**
+     * 默认列表排名（随索引快照、在线快照失效）
+     */
+    private volatile DefaultRanking defaultRanking;
+
+    /**
+     * 串行化默认排名的构建，每个索引快照与在线快照组合只构建一次
+     */
+    private final Object rankingLock = new Object();
+
+    /**
+     * 保护快照替换，只在内存操作期间持有（数据库查询不在锁内）
+     */
+    private final Object writeLock = new Object();
+
+    /**
+     * 串行化全量重建
+     */
+    private final Object rebuildLock = new Object();
+
+    /**
+     * 重建期间刷新过的教师，新快照替换后重新刷新（受 writeLock 保护，未在重建时为空）
+     */
+    private Set<Long> bufferedRefreshes;
+
+    @PostConstruct
+    public void init() {
+        if (!enabled) {
+            return;
+        }
+        Thread loader = new Thread(() -> {
+            try {
+                rebuild();
+            } catch (Exception e) {
+                log.error("教师搜索索引加载失败", e);
+            }
+        }, "teacher-search-loader");
+        loader.setDaemon(true);
+        loader.start();
+    }
+
+    @Override
+    public boolean isReady() {
+        return enabled && snapshot != null;
+    }
+
+    @Override
+    public PageResult<TeacherListItemResponse> search(TeacherListRequest request) {
+        Snapshot current = snapshot;
+        if (isDefaultListing(request)) {
+            return searchDefault(current, request);
+        }
+        String keyword = request.getKeyword();
+        boolean hasKeyword = keyword != null && !keyword.isEmpty();
+        String lowerKeyword = hasKeyword ? keyword.toLowerCase(Locale.ROOT) : null;
+        boolean withFacets = Boolean.TRUE.equals(request.getWithFacets());
+
+        // 位图求交得到候选，再逐个校验关键词子串与价格、评分边界
+        BitSet candidates = current.filter(request, hasKeyword ? lowerKeyword : null);
+        BitSet matched = withFacets ? new BitSet(current.ranked.length) : null;
+
+        // 在线教师优先：先遍历在线候选，再遍历离线候选，各自保持预排好的顺序
+        BitSet online = current.positionsOf(presenceService.getOnlineUserIds());
+        BitSet onlineCandidates = (BitSet) candidates.clone();
+        onlineCandidates.and(online);
+        candidates.andNot(online);
+
+        int offset = request.getOffset();
+        int pageSize = request.getPageSize();
+        List<TeacherListItemResponse> list = new ArrayList<>();
+        long total = 0;
+        for (BitSet pass : Arrays.asList(onlineCandidates, candidates)) {
+            boolean isOnline = pass == onlineCandidates;
+            for (int position = pass.nextSetBit(0); position >= 0; position = pass.nextSetBit(position + 1)) {
+                TeacherDoc doc = current.ranked[position];
+                if (hasKeyword && !doc.containsText(lowerKeyword)) {
+                    continue;
+                }
+                if (!doc.matches(request)) {
+                    continue;
+                }
+                if (total >= offset && list.size() < pageSize) {
+                    list.add(doc.toResponse(isOnline));
+                }
+                if (matched != null) {
+                    matched.set(position);
+                }
+                total++;
+            }
+        }
+
+        return pageResponse(current, request, list, total, matched);
+    }
+
+    /**
+     * 默认列表（无任何筛选条件）：按预计算的排名数组直接取页，任意页码均为 O(页大小)
+     */
+    private PageResult<TeacherListItemResponse> searchDefault(Snapshot current, TeacherListRequest request) {
+        DefaultRanking ranking = defaultRanking(current);
+        int total = current.ranked.length;
+        int from = Math.min(request.getOffset(), total);
+        int to = Math.min(from + request.getPageSize(), total);
+        List<TeacherListItemResponse> list = new ArrayList<>(to - from);
+        for (int index = from; index < to; index++) {
+            list.add(current.ranked[ranking.position(index)].toResponse(index < ranking.onlinePositions.length));
+        }
+
+        BitSet matched = null;
+        if (Boolean.TRUE.equals(request.getWithFacets())) {
+            matched = new BitSet(current.ranked.length);
+            matched.set(0, current.ranked.length);
+        }
+        return pageResponse(current, request, list, total, matched);
+    }
+
+    /**
+     * 获取默认排名；索引快照或在线快照变化后首次访问时在锁内构建一次（O(在线用户数)，与教师总数无关）
+     */
+    private DefaultRanking defaultRanking(Snapshot current) {
+        Set<Long> onlineUserIds = presenceService.getOnlineUserIds();
+        DefaultRanking ranking = defaultRanking;
+        if (ranking != null && ranking.matches(current, onlineUserIds)) {
+            return ranking;
+        }
+        synchronized (rankingLock) {
+            ranking = defaultRanking;
+            if (ranking == null || !ranking.matches(current, onlineUserIds)) {
+                ranking = new DefaultRanking(current, onlineUserIds);
+                defaultRanking = ranking;
+            }
+            return ranking;
+        }
+    }
+
+    private static boolean isDefaultListing(TeacherListRequest request) {
+        return (request.getKeyword() == null || request.getKeyword().isEmpty())
+                && request.getStageId() == null
+                && request.getSubjectId() == null
+                && request.getMinRating() == null
+                && request.getMinPrice() == null
+                && request.getMaxPrice() == null
+                && request.getCertified() == null;
+    }
+
+    private PageResult<TeacherListItemResponse> pageResponse(Snapshot current, TeacherListRequest request,
+                                                             List<TeacherListItemResponse> list, long total, BitSet matched) {
+        TeacherListPageResponse result = new TeacherListPageResponse();
+        result.setList(list);
+        result.setTotal(total);
+        result.setPage(request.getPage());
+        result.setPageSize(request.getPageSize());
+        result.setTotalPages((int) Math.ceil((double) total / request.getPageSize()));
+        if (matched != null) {
+            result.setStageFacets(current.facets(current.stageBits, current.stageLabels, matched));
+            result.setSubjectFacets(current.facets(current.subjectBits, current.subjectLabels, matched));
+            result.setCertifiedCount((long) intersectionCount(current.certifiedBits, matched));
+        }
+        return result;
+    }
+
+    @Override
+    public List<TeacherListItemResponse> listByIds(Collection<Long> teacherIds) {
+        Snapshot current = snapshot;
+        List<TeacherDoc> docs = new ArrayList<>(teacherIds.size());
+        for (Long teacherId : teacherIds) {
+            TeacherDoc doc = current.byId.get(teacherId);
+            if (doc != null) {
+                docs.add(doc);
+            }
+        }
+        Set<Long> onlineUserIds = presenceService.getOnlineUserIds();
+        docs.sort(Comparator.comparing((TeacherDoc doc) -> !onlineUserIds.contains(doc.id)).thenComparing(RANKING));
+        List<TeacherListItemResponse> list = new ArrayList<>(docs.size());
+        for (TeacherDoc doc : docs) {
+            list.add(doc.toResponse(onlineUserIds.contains(doc.id)));
+        }
+        return list;
+    }
+
+    private static int intersectionCount(BitSet a, BitSet b) {
+        BitSet copy = (BitSet) a.clone();
+        copy.and(b);
+        return copy.cardinality();
+    }
+
+    @Override
+    public long getSnapshotVersion() {
+        return snapshotVersion;
+    }
+
+    /**
+     * 全量重建：在锁外查询并构建新快照，期间刷新的教师先记录，替换后重新刷新，避免被重建前读到的旧数据覆盖
+     */
+    @Override
+    public void rebuild() {
+        synchronized (rebuildLock) {
+            long start = System.currentTimeMillis();
+            synchronized (writeLock) {
+                bufferedRefreshes = new HashSet<>();
+            }
+            Set<Long> staleTeachers = Collections.emptySet();
+            try {
+                List<TeacherIndexItemResponse> items = teacherMapper.selectTeacherIndexItems(null);
+                List<TeacherTeachingIndexResponse> teachings = teacherMapper.selectTeacherTeachingIndexItems(null);
+                Snapshot rebuilt = new Snapshot(buildDocs(items, teachings).values());
+                synchronized (writeLock) {
+                    snapshot = rebuilt;
+                    snapshotVersion++;
+                    staleTeachers = bufferedRefreshes;
+                }
+                log.info("教师搜索索引重建完成, 教师数: {}, 耗时: {}ms", rebuilt.ranked.length, System.currentTimeMillis() - start);
+            } finally {
+                synchronized (writeLock) {
+                    bufferedRefreshes = null;
+                }
+            }
+            for (Long teacherId : staleTeachers) {
+                refresh(teacherId);
+            }
+        }
+    }
+
+    @Override
+    public void refresh(Long teacherId) {
+        if (teacherId == null) {
+            return;
+        }
+        List<TeacherIndexItemResponse> items = teacherMapper.selectTeacherIndexItems(teacherId);
+        List<TeacherTeachingIndexResponse> teachings = teacherMapper.selectTeacherTeachingIndexItems(teacherId);
+        TeacherDoc changed = buildDocs(items, teachings).get(teacherId);
+        synchronized (writeLock) {
+            if (bufferedRefreshes != null) {
+                bufferedRefreshes.add(teacherId);
+            }
+            Snapshot current = snapshot;
+            if (current == null) {
+                return;
+            }
+            snapshot = current.replace(teacherId, changed);
+            snapshotVersion++;
+        }
+        log.debug("教师搜索索引已刷新, teacherId: {}", teacherId);
+    }
+
+    /**
+     * 定期全量重建，兜底未发布变更事件的数据修改（如在线状态、评分统计）
+     */
+    @Scheduled(fixedDelayString = "${teacher.search.rebuild-interval:300000}", initialDelayString = "${teacher.search.rebuild-interval:300000}")
+    public void scheduledRebuild() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            rebuild();
+        } catch (Exception e) {
+            log.error("教师搜索索引定期重建失败", e);
+        }
+    }
+
+    /**
+     * 事务提交后刷新变更教师的索引
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onTeacherChanged(TeacherChangedEvent event) {
+        if (!enabled || snapshot == null) {
+            return;
+        }
+        try {
+            if (event.getTeacherId() == null) {
+                rebuild();
+            } else {
+                refresh(event.getTeacherId());
+            }
+        } catch (Exception e) {
+            log.error("刷新教师搜索索引失败, teacherId: {}", event.getTeacherId(), e);
+        }
+    }
+
+    private Map<Long, TeacherDoc> buildDocs(List<TeacherIndexItemResponse> items,
+                                            List<TeacherTeachingIndexResponse> teachings) {
+        Map<Long, List<TeacherTeachingIndexResponse>> teachingsByTeacher = new HashMap<>();
+        for (TeacherTeachingIndexResponse teaching : teachings) {
+            teachingsByTeacher.computeIfAbsent(teaching.getTeacherId(), k -> new ArrayList<>()).add(teaching);
+        }
+        Map<Long, TeacherDoc> docs = new LinkedHashMap<>();
+        for (TeacherIndexItemResponse item : items) {
+            docs.put(item.getId(), new TeacherDoc(item,
+                    teachingsByTeacher.getOrDefault(item.getId(), Collections.emptyList())));
+        }
+        return docs;
+    }
+
+    private static int priceBucket(BigDecimal price) {
+        int bucket = price.intValue() / PRICE_BUCKET_WIDTH;
+        return Math.max(0, Math.min(bucket, PRICE_BUCKET_COUNT - 1));
+    }
+
+    /**
+     * 阶段或科目的展示信息
+     */
+    private static final class Label {
+
+        private final String name;
+
+        private final Integer sortOrder;
+
+        Label(String name, Integer sortOrder) {
+            this.name = name;
+            this.sortOrder = sortOrder;
+        }
+    }
+
+    /**
+     * 索引快照（不可变）
+     * <p>
+     * 位图以排名位置为下标，教师数量即位图长度，位图稠密且按排名顺序遍历即为结果顺序。
+     */
+    private static final class Snapshot {
+
+        private final TeacherDoc[] ranked;
+
+        private final Map<Long, TeacherDoc> byId;
+
+        /**
+         * 教师ID -> 排名位置
+         */
+        private final Map<Long, Integer> positionById;
+
+        /**
+         * 二元词元 -> 升序排名位置
+         */
+        private final Map<String, int[]> postings;
+
+        private final Map<Integer, BitSet> stageBits;
+
+        private final Map<Integer, BitSet> subjectBits;
+
+        private final Map<Integer, Label> stageLabels;
+
+        private final Map<Integer, Label> subjectLabels;
+
+        private final BitSet certifiedBits;
+
+        /**
+         * 按最低价格、最高价格分桶的位图（无教学信息的教师不在任何桶中）
+         */
+        private final BitSet[] lowestPriceBuckets = new BitSet[PRICE_BUCKET_COUNT];
+
+        private final BitSet[] highestPriceBuckets = new BitSet[PRICE_BUCKET_COUNT];
+
+        Snapshot(Collection<TeacherDoc> docs) {
+            this.ranked = docs.toArray(new TeacherDoc[0]);
+            Arrays.sort(ranked, RANKING);
+            this.byId = new HashMap<>(ranked.length * 2);
+            this.positionById = new HashMap<>(ranked.length * 2);
+            this.stageBits = new HashMap<>();
+            this.subjectBits = new HashMap<>();
+            this.stageLabels = new HashMap<>();
+            this.subjectLabels = new HashMap<>();
+            this.certifiedBits = new BitSet(ranked.length);
+            for (int i = 0; i < PRICE_BUCKET_COUNT; i++) {
+                lowestPriceBuckets[i] = new BitSet(ranked.length);
+                highestPriceBuckets[i] = new BitSet(ranked.length);
+            }
+            Map<String, List<Integer>> lists = new HashMap<>();
+            for (int position = 0; position < ranked.length; position++) {
+                TeacherDoc doc = ranked[position];
+                byId.put(doc.id, doc);
+                positionById.put(doc.id, position);
+                for (String gram : doc.grams) {
+                    lists.computeIfAbsent(gram, k -> new ArrayList<>()).add(position);
+                }
+                for (Integer stageId : doc.stageIds) {
+                    stageBits.computeIfAbsent(stageId, k -> new BitSet(ranked.length)).set(position);
+                }
+                for (Integer subjectId : doc.subjectIds) {
+                    subjectBits.computeIfAbsent(subjectId, k -> new BitSet(ranked.length)).set(position);
+                }
+                stageLabels.putAll(doc.stageLabels);
+                subjectLabels.putAll(doc.subjectLabels);
+                if (Boolean.TRUE.equals(doc.certified)) {
+                    certifiedBits.set(position);
+                }
+                if (doc.lowestPrice != null) {
+                    lowestPriceBuckets[priceBucket(doc.lowestPrice)].set(position);
+                    highestPriceBuckets[priceBucket(doc.highestPrice)].set(position);
+                }
+            }
+            this.postings = new HashMap<>(lists.size() * 2);
+            for (Map.Entry<String, List<Integer>> entry : lists.entrySet()) {
+                postings.put(entry.getKey(), entry.getValue().stream().mapToInt(Integer::intValue).toArray());
+            }
+        }
+
+        /**
+         * 由旧快照派生：移除教师的旧文档，按排名二分插入新文档（为空表示教师已不存在）。
+         * 排名位置不变时只复制该教师涉及的倒排表与位图，其余共享；位置变化时平移区间内的位置，不重新排序和分词
+         */
+        private Snapshot(Snapshot previous, Long teacherId, TeacherDoc doc) {
+            Integer oldPosition = previous.positionById.get(teacherId);
+            TeacherDoc oldDoc = oldPosition != null ? previous.ranked[oldPosition] : null;
+            TeacherDoc[] rest = previous.ranked;
+            if (oldPosition != null) {
+                rest = new TeacherDoc[previous.ranked.length - 1];
+                System.arraycopy(previous.ranked, 0, rest, 0, oldPosition);
+                System.arraycopy(previous.ranked, oldPosition + 1, rest, oldPosition, rest.length - oldPosition);
+            }
+            int newPosition = -1;
+            if (doc != null) {
+                int found = Arrays.binarySearch(rest, doc, RANKING);
+                newPosition = found >= 0 ? found : -found - 1;
+                TeacherDoc[] inserted = new TeacherDoc[rest.length + 1];
+                System.arraycopy(rest, 0, inserted, 0, newPosition);
+                inserted[newPosition] = doc;
+                System.arraycopy(rest, newPosition, inserted, newPosition + 1, rest.length - newPosition);
+                rest = inserted;
+            }
+            this.ranked = rest;
+            Shift shift = new Shift(oldPosition != null ? oldPosition : -1, newPosition);
+
+            this.byId = new HashMap<>(previous.byId);
+            byId.remove(teacherId);
+            if (doc != null) {
+                byId.put(teacherId, doc);
+            }
+            if (shift.identity()) {
+                this.positionById = previous.positionById;
+            } else {
+                this.positionById = new HashMap<>(previous.positionById);
+                positionById.remove(teacherId);
+                for (int position = shift.firstMoved(); position <= shift.lastMoved(ranked.length); position++) {
+                    positionById.put(ranked[position].id, position);
+                }
+            }
+
+            Set<String> oldGrams = oldDoc != null ? oldDoc.grams : Collections.emptySet();
+            Set<String> newGrams = doc != null ? doc.grams : Collections.emptySet();
+            this.postings = new HashMap<>(previous.postings.size() * 2);
+            for (Map.Entry<String, int[]> entry : previous.postings.entrySet()) {
+                boolean contained = newGrams.contains(entry.getKey());
+                int[] list = entry.getValue();
+                if (!shift.identity() || oldGrams.contains(entry.getKey()) != contained) {
+                    list = shift.apply(list, contained);
+                }
+                if (list.length > 0) {
+                    postings.put(entry.getKey(), list);
+                }
+            }
+            for (String gram : newGrams) {
+                postings.putIfAbsent(gram, new int[]{newPosition});
+            }
+
+            Set<Integer> stageIds = doc != null ? doc.stageIds : Collections.emptySet();
+            Set<Integer> subjectIds = doc != null ? doc.subjectIds : Collections.emptySet();
+            this.stageBits = shift.apply(previous.stageBits, stageIds);
+            this.subjectBits = shift.apply(previous.subjectBits, subjectIds);
+            this.stageLabels = new HashMap<>(previous.stageLabels);
+            this.subjectLabels = new HashMap<>(previous.subjectLabels);
+            if (doc != null) {
+                stageLabels.putAll(doc.stageLabels);
+                subjectLabels.putAll(doc.subjectLabels);
+            }
+            this.certifiedBits = shift.apply(previous.certifiedBits, doc != null && Boolean.TRUE.equals(doc.certified));
+            int lowestBucket = doc != null && doc.lowestPrice != null ? priceBucket(doc.lowestPrice) : -1;
+            int highestBucket = doc != null && doc.lowestPrice != null ? priceBucket(doc.highestPrice) : -1;
+            for (int i = 0; i < PRICE_BUCKET_COUNT; i++) {
+                lowestPriceBuckets[i] = shift.apply(previous.lowestPriceBuckets[i], i == lowestBucket);
+                highestPriceBuckets[i] = shift.apply(previous.highestPriceBuckets[i], i == highestBucket);
+            }
+        }
+
+        /**
+         * 替换指定教师后的新快照
+         */
+        Snapshot replace(Long teacherId, TeacherDoc doc) {
+            if (doc == null && !positionById.containsKey(teacherId)) {
+                return this;
+            }
+            return new Snapshot(this, teacherId, doc);
+        }
+
+        /**
+         * 用户ID集合对应的排名位置位图（非教师的用户忽略）
+         */
+        BitSet positionsOf(Set<Long> userIds) {
+            BitSet result = new BitSet(ranked.length);
+            for (Long userId : userIds) {
+                Integer position = positionById.get(userId);
+                if (position != null) {
+                    result.set(position);
+                }
+            }
+            return result;
+        }
+
+        /**
+         * 按关键词候选、阶段、科目、认证状态、价格分桶求交，得到候选位图（价格边界桶与评分需逐个校验）
+         */
+        BitSet filter(TeacherListRequest request, String lowerKeyword) {
+            BitSet result = new BitSet(ranked.length);
+            int[] keywordCandidates = lowerKeyword != null ? candidates(lowerKeyword) : null;
+            if (keywordCandidates != null) {
+                for (int position : keywordCandidates) {
+                    result.set(position);
+                }
+            } else {
+                result.set(0, ranked.length);
+            }
+            if (request.getStageId() != null) {
+                result.and(stageBits.getOrDefault(request.getStageId(), new BitSet()));
+            }
+            if (request.getSubjectId() != null) {
+                result.and(subjectBits.getOrDefault(request.getSubjectId(), new BitSet()));
+            }
+            if (request.getCertified() != null) {
+                if (request.getCertified()) {
+                    result.and(certifiedBits);
+                } else {
+                    result.andNot(certifiedBits);
+                }
+            }
+            // 存在价格 >= minPrice 的教学信息：最高价格所在桶不低于 minPrice 所在桶
+            if (request.getMinPrice() != null) {
+                BitSet union = new BitSet(ranked.length);
+                for (int bucket = priceBucket(request.getMinPrice()); bucket < PRICE_BUCKET_COUNT; bucket++) {
+                    union.or(highestPriceBuckets[bucket]);
+                }
+                result.and(union);
+            }
+            // 存在价格 <= maxPrice 的教学信息：最低价格所在桶不高于 maxPrice 所在桶
+            if (request.getMaxPrice() != null) {
+                BitSet union = new BitSet(ranked.length);
+                for (int bucket = 0; bucket <= priceBucket(request.getMaxPrice()); bucket++) {
+                    union.or(lowestPriceBuckets[bucket]);
+                }
+                result.and(union);
+            }
+            return result;
+        }
+
+        /**
+         * 分面统计：各阶段或科目位图与结果位图的交集数量（按排序、ID升序，省略数量为0的项）
+         */
+        List<TeacherFacetResponse> facets(Map<Integer, BitSet> bitsById, Map<Integer, Label> labels, BitSet matched) {
+            List<TeacherFacetResponse> facets = new ArrayList<>();
+            for (Map.Entry<Integer, BitSet> entry : bitsById.entrySet()) {
+                int count = intersectionCount(entry.getValue(), matched);
+                if (count == 0) {
+                    continue;
+                }
+                Label label = labels.get(entry.getKey());
+                TeacherFacetResponse facet = new TeacherFacetResponse();
+                facet.setId(entry.getKey());
+                facet.setName(label != null ? label.name : null);
+                facet.setCount((long) count);
+                facets.add(facet);
+            }
+            facets.sort(Comparator.comparing((TeacherFacetResponse facet) -> {
+                Label label = labels.get(facet.getId());
+                return label != null ? label.sortOrder : null;
+            }, Comparator.nullsLast(Comparator.<Integer>naturalOrder())).thenComparing(TeacherFacetResponse::getId));
+            return facets;
+        }
+
+        /**
+         * 关键词的候选排名位置；关键词不足 2 个字符时返回 null 表示需全量校验
+         */
+        int[] candidates(String lowerKeyword) {
+            Set<String> grams = NgramTokenizer.bigrams(lowerKeyword);
+            if (grams.isEmpty()) {
+                return null;
+            }
+            List<int[]> lists = new ArrayList<>(grams.size());
+            for (String gram : grams) {
+                int[] list = postings.get(gram);
+                if (list == null) {
+                    return new int[0];
+                }
+                lists.add(list);
+            }
+            // 从最短的倒排表开始求交集
+            lists.sort(Comparator.comparingInt(list -> list.length));
+            int[] result = lists.get(0);
+            for (int i = 1; i < lists.size() && result.length > 0; i++) {
+                result = intersect(result, lists.get(i));
+            }
+            return result;
+        }
+
+        private static int[] intersect(int[] a, int[] b) {
+            int[] out = new int[Math.min(a.length, b.length)];
+            int i = 0;
+            int j = 0;
+            int n = 0;
+            while (i < a.length && j < b.length) {
+                if (a[i] == b[j]) {
+                    out[n++] = a[i];
+                    i++;
+                    j++;
+                } else if (a[i] < b[j]) {
+                    i++;
+                } else {
+                    j++;
+                }
+            }
+            return Arrays.copyOf(out, n);
+        }
+    }
+
+    /**
+     * 替换一个教师后排名位置的变化：先移除 removed 处的旧文档，再在 inserted 处插入新文档（-1 表示没有）。
+     * 其余教师的相对顺序不变，因此平移后的倒排表仍然有序
+     */
+    private static final class Shift {
+
+        private final int removed;
+
+        private final int inserted;
+
+        Shift(int removed, int inserted) {
+            this.removed = removed;
+            this.inserted = inserted;
+        }
+
+        /**
+         * 教师仍在原位置，其他教师的位置都不变
+         */
+        boolean identity() {
+            return removed == inserted;
+        }
+
+        int firstMoved() {
+            if (removed < 0 || inserted < 0) {
+                return Math.max(removed, inserted);
+            }
+            return Math.min(removed, inserted);
+        }
+
+        int lastMoved(int length) {
+            if (removed < 0 || inserted < 0) {
+                return length - 1;
+            }
+            return Math.max(removed, inserted);
+        }
+
+        /**
+         * 其他教师的新位置
+         */
+        int map(int position) {
+            int shifted = removed >= 0 && position > removed ? position - 1 : position;
+            return inserted >= 0 && shifted >= inserted ? shifted + 1 : shifted;
+        }
+
+        /**
+         * 平移升序位置列表，去掉旧位置，contained 时插入新位置
+         */
+        int[] apply(int[] positions, boolean contained) {
+            int[] result = new int[positions.length + 1];
+            int n = 0;
+            boolean pending = contained;
+            for (int position : positions) {
+                if (position == removed) {
+                    continue;
+                }
+                int mapped = map(position);
+                if (pending && inserted < mapped) {
+                    result[n++] = inserted;
+                    pending = false;
+                }
+                result[n++] = mapped;
+            }
+            if (pending) {
+                result[n++] = inserted;
+            }
+            return Arrays.copyOf(result, n);
+        }
+
+        /**
+         * 平移位图，去掉旧位置，contained 时设置新位置；位置不变且该位不变时直接共享原位图
+         */
+        BitSet apply(BitSet bits, boolean contained) {
+            boolean wasContained = removed >= 0 && bits.get(removed);
+            if (identity() && wasContained == contained) {
+                return bits;
+            }
+            BitSet result;
+            if (identity()) {
+                result = (BitSet) bits.clone();
+                result.clear(removed);
+            } else {
+                result = new BitSet(bits.length() + 1);
+                for (int position = bits.nextSetBit(0); position >= 0; position = bits.nextSetBit(position + 1)) {
+                    if (position != removed) {
+                        result.set(map(position));
+                    }
+                }
+            }
+            if (contained) {
+                result.set(inserted);
+            }
+            return result;
+        }
+
+        Map<Integer, BitSet> apply(Map<Integer, BitSet> bitsById, Set<Integer> containedIds) {
+            Map<Integer, BitSet> result = new HashMap<>(bitsById.size() * 2);
+            for (Map.Entry<Integer, BitSet> entry : bitsById.entrySet()) {
+                result.put(entry.getKey(), apply(entry.getValue(), containedIds.contains(entry.getKey())));
+            }
+            for (Integer id : containedIds) {
+                result.computeIfAbsent(id, k -> apply(new BitSet(), true));
+            }
+            return result;
+        }
+    }
+
+    /**
+     * 默认列表排名：在线教师的排名位置在前、离线教师在后，各自保持快照中的顺序。
+     * 只保存在线教师的位置，离线教师按序号换算位置
+     */
+    private static final class DefaultRanking {
+
+        private final Snapshot snapshot;
+
+        private final Set<Long> onlineUserIds;
+
+        /**
+         * 在线教师在快照中的排名位置（升序），排名序号小于其长度的为在线教师
+         */
+        private final int[] onlinePositions;
+
+        DefaultRanking(Snapshot snapshot, Set<Long> onlineUserIds) {
+            this.snapshot = snapshot;
+            this.onlineUserIds = onlineUserIds;
+            int[] positions = new int[onlineUserIds.size()];
+            int n = 0;
+            for (Long userId : onlineUserIds) {
+                Integer position = snapshot.positionById.get(userId);
+                if (position != null) {
+                    positions[n++] = position;
+                }
+            }
+            this.onlinePositions = Arrays.copyOf(positions, n);
+            Arrays.sort(onlinePositions);
+        }
+
+        boolean matches(Snapshot current, Set<Long> currentOnlineUserIds) {
+            return snapshot == current && onlineUserIds == currentOnlineUserIds;
+        }
+
+        /**
+         * 排名序号 -> 快照中的排名位置
+         */
+        int position(int index) {
+            if (index < onlinePositions.length) {
+                return onlinePositions[index];
+            }
+            // 第 offline 个离线教师的位置 = offline + 排在它之前的在线教师数；
+            // onlinePositions[j] - j 为第 j 个在线教师之前的离线教师数，单调不减，可二分
+            int offline = index - onlinePositions.length;
+            int low = 0;
+            int high = onlinePositions.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (onlinePositions[mid] - mid <= offline) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return offline + low;
+        }
+    }
+
+    /**
+     * 教师文档（不可变）
+     */
+    private static final class TeacherDoc {
+
+        private final Long id;
+        private final String nickname;
+        private final String realName;
+        private final String avatar;
+        private final BigDecimal rating;
+        private final Integer ratingCount;
+        private final Integer teachingYears;
+        private final Boolean certified;
+        private final LocalDateTime createdAt;
+
+        /**
+         * 有效教学信息的最低/最高价格（无教学信息时为空）
+         */
+        private final BigDecimal lowestPrice;
+        private final BigDecimal highestPrice;
+
+        private final Set<Integer> stageIds = new HashSet<>();
+        private final Set<Integer> subjectIds = new HashSet<>();
+        private final Map<Integer, Label> stageLabels = new HashMap<>();
+        private final Map<Integer, Label> subjectLabels = new HashMap<>();
+
+        /**
+         * 关键词匹配文本（小写）：昵称、真实姓名、有效科目名称
+         */
+        private final List<String> texts = new ArrayList<>();
+
+        /**
+         * 匹配文本的二元词元
+         */
+        private final Set<String> grams = new HashSet<>();
+
+        /**
+         * 有效科目列表（去重，按排序、ID升序）
+         */
+        private final List<SubjectResponse> subjects;
+
+        TeacherDoc(TeacherIndexItemResponse item, List<TeacherTeachingIndexResponse> teachings) {
+            this.id = item.getId();
+            this.nickname = item.getNickname();
+            this.realName = item.getRealName();
+            this.avatar = item.getAvatar();
+            this.rating = item.getRating();
+            this.ratingCount = item.getRatingCount();
+            this.teachingYears = item.getTeachingYears();
+            this.certified = item.getCertified();
+            this.createdAt = item.getCreatedAt();
+            addText(nickname);
+            addText(realName);
+
+            BigDecimal lowest = null;
+            BigDecimal highest = null;
+            Map<Integer, SubjectResponse> activeSubjects = new HashMap<>();
+            for (TeacherTeachingIndexResponse teaching : teachings) {
+                if (teaching.getStageId() != null) {
+                    stageIds.add(teaching.getStageId());
+                    stageLabels.put(teaching.getStageId(), new Label(teaching.getStageName(), teaching.getStageSortOrder()));
+                }
+                if (teaching.getSubjectId() != null) {
+                    subjectIds.add(teaching.getSubjectId());
+                    subjectLabels.put(teaching.getSubjectId(), new Label(teaching.getSubjectName(), teaching.getSubjectSortOrder()));
+                }
+                BigDecimal price = teaching.getPricePerHour();
+                if (price != null) {
+                    lowest = lowest == null || price.compareTo(lowest) < 0 ? price : lowest;
+                    highest = highest == null || price.compareTo(highest) > 0 ? price : highest;
+                }
+                if (Boolean.TRUE.equals(teaching.getSubjectActive()) && !activeSubjects.containsKey(teaching.getSubjectId())) {
+                    SubjectResponse subject = new SubjectResponse();
+                    subject.setId(teaching.getSubjectId());
+                    subject.setCode(teaching.getSubjectCode());
+                    subject.setName(teaching.getSubjectName());
+                    subject.setCategory(teaching.getSubjectCategory());
+                    subject.setSortOrder(teaching.getSubjectSortOrder());
+                    activeSubjects.put(teaching.getSubjectId(), subject);
+                    addText(teaching.getSubjectName());
+                }
+            }
+            this.lowestPrice = lowest;
+            this.highestPrice = highest;
+            List<SubjectResponse> sorted = new ArrayList<>(activeSubjects.values());
+            sorted.sort(Comparator.comparing(SubjectResponse::getSortOrder, Comparator.nullsFirst(Comparator.<Integer>naturalOrder()))
+                    .thenComparing(SubjectResponse::getId));
+            this.subjects = Collections.unmodifiableList(sorted);
+            for (String text : texts) {
+                grams.addAll(NgramTokenizer.bigrams(text));
+            }
+        }
+
+        private void addText(String text) {
+            if (text != null && !text.isEmpty()) {
+                texts.add(text.toLowerCase(Locale.ROOT));
+            }
+        }
+
+        boolean containsText(String lowerKeyword) {
+            for (String text : texts) {
+                if (text.contains(lowerKeyword)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * 与 TeacherMapper.xml 中 allFilterConditions（除关键词外）的语义一致
+         */
+        boolean matches(TeacherListRequest request) {
+            if (request.getStageId() != null && !stageIds.contains(request.getStageId())) {
+                return false;
+            }
+            if (request.getSubjectId() != null && !subjectIds.contains(request.getSubjectId())) {
+                return false;
+            }
+            if (request.getCertified() != null && request.getCertified() != Boolean.TRUE.equals(certified)) {
+                return false;
+            }
+            if (request.getMinRating() != null) {
+                BigDecimal value = rating != null ? rating : BigDecimal.ZERO;
+                if (value.compareTo(request.getMinRating()) < 0) {
+                    return false;
+                }
+            }
+            // 存在价格 >= minPrice 的教学信息，即最高价格 >= minPrice
+            if (request.getMinPrice() != null
+                    && (highestPrice == null || highestPrice.compareTo(request.getMinPrice()) < 0)) {
+                return false;
+            }
+            // 存在价格 <= maxPrice 的教学信息，即最低价格 <= maxPrice
+            if (request.getMaxPrice() != null
+                    && (lowestPrice == null || lowestPrice.compareTo(request.getMaxPrice()) > 0)) {
+                return false;
+            }
+            return true;
+        }
+
+        TeacherListItemResponse toResponse(boolean online) {
+            TeacherListItemResponse response = new TeacherListItemResponse();
+            response.setId(id);
+            response.setNickname(nickname);
+            response.setRealName(realName);
+            response.setAvatar(avatar);
+            response.setRating(rating != null ? rating : BigDecimal.ZERO);
+            response.setRatingCount(ratingCount);
+            response.setTeachingYears(teachingYears);
+            response.setCertified(certified);
+            response.setOnlineStatus(online ? 1 : 0);
+            response.setMinPrice(lowestPrice != null ? lowestPrice : BigDecimal.ZERO);
+            response.setSubjects(new ArrayList<>(subjects));
+            return response;
+        }
+    }
+}
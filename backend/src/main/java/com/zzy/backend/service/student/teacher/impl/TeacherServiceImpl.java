@@ -2,16 +2,22 @@ package com.zzy.backend.service.student.teacher.impl;
 
 import com.zzy.backend.common.page.PageResult;
 import com.zzy.backend.dto.request.student.teacher.TeacherListRequest;
-import com.zzy.backend.dto.response.common.SubjectResponse;
-import com.zzy.backend.dto.response.common.TeachingStageResponse;
 import com.zzy.backend.dto.response.student.teacher.*;
+import com.zzy.backend.mapper.common.BatchLoader;
 import com.zzy.backend.mapper.student.teacher.TeacherMapper;
+import com.zzy.backend.service.common.PresenceService;
+import com.zzy.backend.service.student.teacher.TeacherSearchService;
 import com.zzy.backend.service.student.teacher.TeacherService;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * 教师服务实现类
@@ -23,51 +29,86 @@ public class TeacherServiceImpl implements TeacherService {
     @Autowired
     private TeacherMapper teacherMapper;
 
+    @Autowired
+    private TeacherSearchService teacherSearchService;
+
+    @Autowired
+    private TeacherDetailCache teacherDetailCache;
+
+    @Autowired
+    private PresenceService presenceService;
+
     @Override
     public PageResult<TeacherListItemResponse> getTeacherList(TeacherListRequest request) {
         // 验证并修正分页参数
         request.validate();
 
-        // 查询教师列表
-        List<TeacherListItemResponse> teacherList = teacherMapper.selectTeacherList(request);
-
-        // 为每个教师填充科目信息（列表查询中已包含认证状态和最低价格）
-        for (TeacherListItemResponse teacher : teacherList) {
-            // 查询教师的科目列表
-            List<SubjectResponse> subjects = teacherMapper.selectTeacherSubjects(teacher.getId());
-            teacher.setSubjects(subjects);
+        // 索引可用时直接从内存索引查询（关键词子串匹配不走数据库全表扫描）
+        if (teacherSearchService.isReady()) {
+            return teacherSearchService.search(request);
         }
 
-        // 统计总数
+        // 在线教师排在前面（各自保持评分顺序）：先查符合条件的在线教师，当前页剩余部分从离线教师中分页查询
+        Set<Long> onlineUserIds = presenceService.getOnlineUserIds();
+        List<Long> onlineIds = new ArrayList<>();
+        if (!onlineUserIds.isEmpty()) {
+            request.setOnlineUserIds(onlineUserIds);
+            onlineIds = teacherMapper.selectOnlineTeacherIds(request);
+        }
         Long total = teacherMapper.countTeacherList(request);
 
+        int offset = request.getOffset();
+        int fromIndex = Math.min(offset, onlineIds.size());
+        int toIndex = Math.min(offset + request.getPageSize(), onlineIds.size());
+        List<Long> pageIds = new ArrayList<>(onlineIds.subList(fromIndex, toIndex));
+        int remaining = request.getPageSize() - pageIds.size();
+        if (remaining > 0 && total != null && total > offset + pageIds.size()) {
+            request.setExcludedUserIds(onlineIds);
+            request.setOfflineOffset(Math.max(0, offset - onlineIds.size()));
+            request.setOfflineLimit(remaining);
+            pageIds.addAll(teacherMapper.selectOfflineTeacherIdPage(request));
+        }
+
+        List<TeacherListItemResponse> teacherList = new ArrayList<>(pageIds.size());
+        if (!pageIds.isEmpty()) {
+            Map<Long, TeacherListItemResponse> teacherById = new HashMap<>();
+            for (TeacherListItemResponse teacher : teacherMapper.selectTeacherListByIds(pageIds)) {
+                teacherById.put(teacher.getId(), teacher);
+            }
+            for (Long teacherId : pageIds) {
+                TeacherListItemResponse teacher = teacherById.get(teacherId);
+                if (teacher != null) {
+                    teacher.setOnlineStatus(onlineUserIds.contains(teacherId) ? 1 : 0);
+                    teacherList.add(teacher);
+                }
+            }
+        }
+
+        // 批量填充当前页教师的科目信息（列表查询中已包含认证状态和最低价格）
+        BatchLoader.attachMany(teacherList,
+                TeacherListItemResponse::getId,
+                teacherMapper::selectTeacherSubjectsByUserIds,
+                TeacherSubjectResponse::getTeacherId,
+                (teacher, subjects) -> teacher.setSubjects(new ArrayList<>(subjects)));
+
         // 构建分页结果
-        return PageResult.of(teacherList, total, request.getPage(), request.getPageSize());
+        return PageResult.of(teacherList, total != null ? total : 0L, request.getPage(), request.getPageSize());
     }
 
     @Override
     public TeacherDetailResponse getTeacherDetail(Long userId) {
         log.info("查询教师详情, userId: {}", userId);
 
-        // 查询教师基本信息
-        TeacherDetailResponse detail = teacherMapper.selectTeacherDetail(userId);
-        if (detail == null) {
+        // 读穿缓存：未命中时合并并发加载，子查询并发执行
+        TeacherDetailResponse cached = teacherDetailCache.get(userId);
+        if (cached == null) {
             return null;
         }
 
-        // 查询教学阶段列表
-        List<TeachingStageResponse> stages = teacherMapper.selectTeacherStages(userId);
-        detail.setStages(stages);
-
-        // 查询教学信息列表
-        List<TeachingResponse> teachings = teacherMapper.selectTeacherTeachings(userId);
-        detail.setTeachings(teachings);
-
-        // 查询时间表列表
-        List<ScheduleResponse> schedules = teacherMapper.selectTeacherSchedules(userId);
-        detail.setSchedules(schedules);
-
+        // 缓存对象共享，复制后叠加在线快照中的在线状态
+        TeacherDetailResponse detail = new TeacherDetailResponse();
+        BeanUtils.copyProperties(cached, detail);
+        detail.setOnlineStatus(presenceService.getOnlineStatus(userId));
         return detail;
     }
 }
-
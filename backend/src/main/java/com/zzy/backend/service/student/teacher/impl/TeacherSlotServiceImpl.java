@@ -0,0 +1,373 @@
+package com.zzy.backend.service.student.teacher.impl;
+
+import com.alibaba.fastjson2.JSON;
+import com.zzy.backend.common.exception.BusinessException;
+import com.zzy.backend.common.util.DateTimeUtil;
+import com.zzy.backend.dto.response.student.appointment.AppointmentSlotResponse;
+import com.zzy.backend.dto.response.student.teacher.SlotCalendarResponse;
+import com.zzy.backend.dto.response.student.teacher.SlotDayResponse;
+import com.zzy.backend.dto.response.student.teacher.SlotResponse;
+import com.zzy.backend.dto.response.student.teacher.TeacherScheduleIndexResponse;
+import com.zzy.backend.event.AppointmentEvent;
+import com.zzy.backend.event.TeacherChangedEvent;
+import com.zzy.backend.mapper.student.appointment.AppointmentMapper;
+import com.zzy.backend.mapper.student.teacher.TeacherMapper;
+import com.zzy.backend.service.student.teacher.TeacherSlotService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 教师可预约日历服务实现类
+ * <p>
+ * 缓存键 teacher:slots:{teacherId}，值为 JSON 字符串，记录生成日期；跨天或过期后重新计算。
+ * 预约创建、取消以及教师时间表变更后只删除对应教师的缓存。
+ * 每个教师有一个代数 teacher:slots:gen:{teacherId}，删除缓存时递增；回填缓存前先读取代数，
+ * 计算完成后仅当代数未变时写入，避免读库期间发生的删除被较旧的计算结果覆盖。
+ * 计算方式：每天取星期匹配的固定周期时间段与生效范围内的临时时间段，合并重叠部分后按未取消预约切分为可约/已约时间段。
+ * 缓存内容按整天计算，返回前再把当天的可约时间段裁剪到当前时间（缓存最长保留 cache-ttl-minutes）。
+ */
+@Slf4j
+@Service
+public class TeacherSlotServiceImpl implements TeacherSlotService {
+
+    private static final String CACHE_KEY_PREFIX = "teacher:slots:";
+
+    private static final String GENERATION_KEY_PREFIX = "teacher:slots:gen:";
+
+    /**
+     * 删除缓存：KEYS[1]=缓存键，KEYS[2]=代数键，ARGV[1]=代数有效期（毫秒）
+     */
+    private static final RedisScript<Long> EVICT_SCRIPT = new DefaultRedisScript<>(
+            "local generation = redis.call('INCR', KEYS[2]) "
+                    + "redis.call('PEXPIRE', KEYS[2], ARGV[1]) "
+                    + "redis.call('DEL', KEYS[1]) "
+                    + "return generation",
+            Long.class);
+
+    /**
+     * 回填缓存：KEYS[1]=缓存键，KEYS[2]=代数键，ARGV[1]=缓存值，ARGV[2]=读库前的代数，ARGV[3]=缓存有效期（毫秒）
+     */
+    private static final RedisScript<Long> FILL_SCRIPT = new DefaultRedisScript<>(
+            "if (redis.call('GET', KEYS[2]) or '0') == ARGV[2] then "
+                    + "redis.call('SET', KEYS[1], ARGV[1], 'PX', ARGV[3]) "
+                    + "return 1 "
+                    + "end "
+                    + "return 0",
+            Long.class);
+
+    private static final int MINUTES_PER_DAY = 24 * 60;
+
+    /**
+     * 默认返回天数
+     */
+    @Value("${teacher.slots.default-days:14}")
+    private int defaultDays;
+
+    /**
+     * 最大天数（缓存按最大天数计算）
+     */
+    @Value("${teacher.slots.max-days:30}")
+    private int maxDays;
+
+    @Value("${teacher.slots.cache-ttl-minutes:30}")
+    private long cacheTtlMinutes;
+
+    @Autowired
+    private TeacherMapper teacherMapper;
+
+    @Autowired
+    private AppointmentMapper appointmentMapper;
+
+    @Autowired
+    private RedisTemplate<String, Object> redisTemplate;
+
+    @Override
+    public SlotCalendarResponse getSlotCalendar(Long teacherId, Integer days) {
+        int count = days == null ? defaultDays : days;
+        if (count < 1 || count > maxDays) {
+            throw new BusinessException("天数必须在1到" + maxDays + "之间");
+        }
+        LocalDate today = LocalDate.now();
+
+        SlotCalendarResponse calendar = readCache(teacherId, today);
+        if (calendar == null) {
+            // 代数须在读库之前获取
+            Long generation = readGeneration(teacherId);
+            calendar = buildCalendar(teacherId, today);
+            if (generation != null) {
+                writeCache(teacherId, calendar, generation);
+            }
+        }
+
+        // 返回副本，不修改缓存中的计算结果
+        SlotCalendarResponse result = new SlotCalendarResponse();
+        result.setTeacherId(calendar.getTeacherId());
+        result.setStartDate(calendar.getStartDate());
+        result.setDays(new ArrayList<>(calendar.getDays().subList(0, Math.min(count, calendar.getDays().size()))));
+        if (!result.getDays().isEmpty()) {
+            result.getDays().set(0, trimToNow(result.getDays().get(0), LocalTime.now()));
+        }
+        return result;
+    }
+
+    @Override
+    public void evict(Long teacherId) {
+        if (teacherId == null) {
+            return;
+        }
+        try {
+            // 代数键的有效期长于缓存，保证进行中的回填在代数过期前已结束
+            redisTemplate.execute(EVICT_SCRIPT, Arrays.asList(cacheKey(teacherId), generationKey(teacherId)),
+                    TimeUnit.MINUTES.toMillis(cacheTtlMinutes * 2));
+        } catch (Exception e) {
+            log.warn("清除教师日历缓存失败, teacherId: {}, 错误: {}", teacherId, e.getMessage());
+        }
+    }
+
+    /**
+     * 预约创建或取消后清除该教师的日历缓存
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onAppointmentEvent(AppointmentEvent event) {
+        evict(event.getTeacherId());
+    }
+
+    /**
+     * 教师时间表变更后清除该教师的日历缓存
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onTeacherChanged(TeacherChangedEvent event) {
+        evict(event.getTeacherId());
+    }
+
+    private SlotCalendarResponse buildCalendar(Long teacherId, LocalDate today) {
+        if (teacherMapper.selectTeacherIndexItems(teacherId).isEmpty()) {
+            throw new BusinessException("教师不存在或已被删除");
+        }
+        List<TeacherScheduleIndexResponse> schedules = teacherMapper.selectScheduleIndexItems(teacherId, today);
+        List<AppointmentSlotResponse> appointments = appointmentMapper.selectActiveSlots(teacherId, today);
+
+        Map<LocalDate, List<int[]>> busyByDate = new HashMap<>();
+        for (AppointmentSlotResponse appointment : appointments) {
+            if (appointment.getStartTime() == null || appointment.getEndTime() == null) {
+                continue;
+            }
+            busyByDate.computeIfAbsent(appointment.getAppointmentDate(), k -> new ArrayList<>())
+                    .add(new int[]{toMinutes(appointment.getStartTime()), toMinutes(appointment.getEndTime())});
+        }
+
+        List<SlotDayResponse> days = new ArrayList<>(maxDays);
+        for (int i = 0; i < maxDays; i++) {
+            LocalDate date = today.plusDays(i);
+            List<int[]> open = mergeRanges(openRanges(schedules, date));
+            List<int[]> busy = mergeRanges(busyByDate.getOrDefault(date, new ArrayList<>()));
+
+            SlotDayResponse day = new SlotDayResponse();
+            day.setDate(DateTimeUtil.formatDate(date));
+            day.setWeekday(date.getDayOfWeek().getValue());
+            day.setSlots(split(open, busy));
+            days.add(day);
+        }
+
+        SlotCalendarResponse calendar = new SlotCalendarResponse();
+        calendar.setTeacherId(teacherId);
+        calendar.setStartDate(DateTimeUtil.formatDate(today));
+        calendar.setDays(days);
+        return calendar;
+    }
+
+    /**
+     * 当天生效的时间段：星期匹配，且临时时间段的日期在生效范围内
+     */
+    private List<int[]> openRanges(List<TeacherScheduleIndexResponse> schedules, LocalDate date) {
+        int weekday = date.getDayOfWeek().getValue();
+        List<int[]> ranges = new ArrayList<>();
+        for (TeacherScheduleIndexResponse schedule : schedules) {
+            if (schedule.getWeekday() == null || schedule.getWeekday() != weekday
+                    || schedule.getStartTime() == null || schedule.getEndTime() == null) {
+                continue;
+            }
+            if (Integer.valueOf(2).equals(schedule.getScheduleType())
+                    && ((schedule.getStartDate() != null && date.isBefore(schedule.getStartDate()))
+                    || (schedule.getEndDate() != null && date.isAfter(schedule.getEndDate())))) {
+                continue;
+            }
+            int start = toMinutes(schedule.getStartTime());
+            int end = toMinutes(schedule.getEndTime());
+            // 结束时间 00:00 视为当天结束
+            if (end == 0) {
+                end = MINUTES_PER_DAY;
+            }
+            if (end > start) {
+                ranges.add(new int[]{start, end});
+            }
+        }
+        return ranges;
+    }
+
+    /**
+     * 合并重叠或相邻的区间
+     */
+    private List<int[]> mergeRanges(List<int[]> ranges) {
+        ranges.sort(Comparator.comparingInt(range -> range[0]));
+        List<int[]> merged = new ArrayList<>();
+        for (int[] range : ranges) {
+            int[] last = merged.isEmpty() ? null : merged.get(merged.size() - 1);
+            if (last != null && range[0] <= last[1]) {
+                last[1] = Math.max(last[1], range[1]);
+            } else {
+                merged.add(new int[]{range[0], range[1]});
+            }
+        }
+        return merged;
+    }
+
+    /**
+     * 用已预约区间切分开放区间（两个列表均已合并且有序）
+     */
+    private List<SlotResponse> split(List<int[]> open, List<int[]> busy) {
+        List<SlotResponse> slots = new ArrayList<>();
+        for (int[] range : open) {
+            int cursor = range[0];
+            for (int[] taken : busy) {
+                if (taken[1] <= cursor || taken[0] >= range[1]) {
+                    continue;
+                }
+                if (taken[0] > cursor) {
+                    slots.add(slot(cursor, taken[0], true));
+                }
+                int takenEnd = Math.min(taken[1], range[1]);
+                slots.add(slot(Math.max(cursor, taken[0]), takenEnd, false));
+                cursor = takenEnd;
+            }
+            if (cursor < range[1]) {
+                slots.add(slot(cursor, range[1], true));
+            }
+        }
+        return slots;
+    }
+
+    /**
+     * 当天已开始的可约时间段：已结束的去掉，进行中的从当前时间（向上取整到分钟）开始，已约时间段保持不变
+     */
+    private SlotDayResponse trimToNow(SlotDayResponse day, LocalTime now) {
+        if (day.getSlots() == null) {
+            return day;
+        }
+        int current = toMinutes(now) + (now.getSecond() > 0 || now.getNano() > 0 ? 1 : 0);
+        List<SlotResponse> slots = new ArrayList<>();
+        for (SlotResponse slot : day.getSlots()) {
+            if (!Boolean.TRUE.equals(slot.getAvailable())) {
+                slots.add(slot);
+                continue;
+            }
+            int start = parseMinutes(slot.getStartTime());
+            int end = parseMinutes(slot.getEndTime());
+            if (end <= current) {
+                continue;
+            }
+            slots.add(start < current ? slot(current, end, true) : slot);
+        }
+        SlotDayResponse trimmed = new SlotDayResponse();
+        trimmed.setDate(day.getDate());
+        trimmed.setWeekday(day.getWeekday());
+        trimmed.setSlots(slots);
+        return trimmed;
+    }
+
+    private SlotResponse slot(int start, int end, boolean available) {
+        SlotResponse slot = new SlotResponse();
+        slot.setStartTime(formatMinutes(start));
+        slot.setEndTime(formatMinutes(end));
+        slot.setAvailable(available);
+        return slot;
+    }
+
+    private SlotCalendarResponse readCache(Long teacherId, LocalDate today) {
+        try {
+            Object cached = redisTemplate.opsForValue().get(cacheKey(teacherId));
+            if (cached == null) {
+                return null;
+            }
+            SlotCalendarResponse calendar = JSON.parseObject(cached.toString(), SlotCalendarResponse.class);
+            // 跨天后起始日期变化，需重新计算
+            if (calendar == null || !DateTimeUtil.formatDate(today).equals(calendar.getStartDate())
+                    || calendar.getDays() == null) {
+                return null;
+            }
+            return calendar;
+        } catch (Exception e) {
+            log.warn("读取教师日历缓存失败, teacherId: {}, 错误: {}", teacherId, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 读取教师缓存代数（未删除过缓存时为 0），读取失败返回 null，此时不回填缓存
+     */
+    private Long readGeneration(Long teacherId) {
+        try {
+            Object generation = redisTemplate.opsForValue().get(generationKey(teacherId));
+            return generation == null ? 0L : Long.parseLong(generation.toString());
+        } catch (Exception e) {
+            log.warn("读取教师日历缓存代数失败, teacherId: {}, 错误: {}", teacherId, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 仅当代数与读库前一致时写入缓存
+     */
+    private void writeCache(Long teacherId, SlotCalendarResponse calendar, Long generation) {
+        try {
+            Long written = redisTemplate.execute(FILL_SCRIPT, Arrays.asList(cacheKey(teacherId), generationKey(teacherId)),
+                    JSON.toJSONString(calendar), generation, TimeUnit.MINUTES.toMillis(cacheTtlMinutes));
+            if (written == null || written == 0) {
+                log.debug("教师日历缓存已在计算期间失效，跳过回填, teacherId: {}", teacherId);
+            }
+        } catch (Exception e) {
+            log.warn("写入教师日历缓存失败, teacherId: {}, 错误: {}", teacherId, e.getMessage());
+        }
+    }
+
+    private static int toMinutes(LocalTime time) {
+        return time.getHour() * 60 + time.getMinute();
+    }
+
+    /**
+     * 解析 HH:mm（结束时间可为 24:00）
+     */
+    private static int parseMinutes(String time) {
+        String[] parts = time.split(":");
+        return Integer.parseInt(parts[0]) * 60 + Integer.parseInt(parts[1]);
+    }
+
+    private static String formatMinutes(int minutes) {
+        return String.format("%02d:%02d", minutes / 60, minutes % 60);
+    }
+
+    private String cacheKey(Long teacherId) {
+        return CACHE_KEY_PREFIX + teacherId;
+    }
+
+    private String generationKey(Long teacherId) {
+        return GENERATION_KEY_PREFIX + teacherId;
+    }
+}
@@ -0,0 +1,122 @@
+package com.zzy.backend.service.student.teacher.impl;
+
+import com.zzy.backend.entity.teacher.TeacherSearchOutbox;
+import com.zzy.backend.event.TeacherChangedEvent;
+import com.zzy.backend.mapper.student.teacher.TeacherSummaryMapper;
+import com.zzy.backend.service.student.teacher.TeacherSummaryService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 教师搜索汇总服务实现类
+ * <p>
+ * 变更队列 teacher_search_outbox 与业务数据同事务写入，后台任务按 ID 顺序批量取出，
+ * 在一个事务内重算汇总行、清理失效教师并删除已处理的变更。重算是幂等的，多实例并发处理无副作用。
+ * 变更由 TeacherChangedEvent 的发布方（注册教师、修改头像等）在业务事务内写入；
+ * 未发布变更事件的字段由启动时及定期的全量重算校正。
+ */
+@Slf4j
+@Service
+public class TeacherSummaryServiceImpl implements TeacherSummaryService {
+
+    @Value("${teacher.summary.enabled:true}")
+    private boolean enabled;
+
+    @Value("${teacher.summary.outbox-batch-size:200}")
+    private int outboxBatchSize;
+
+    @Autowired
+    private TeacherSummaryMapper teacherSummaryMapper;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Override
+    public void markChanged(Long teacherId) {
+        teacherSummaryMapper.insertOutbox(teacherId);
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${teacher.summary.outbox-interval:2000}")
+    public int processOutbox() {
+        if (!enabled) {
+            return 0;
+        }
+        int processed = 0;
+        try {
+            while (true) {
+                List<TeacherSearchOutbox> pending = teacherSummaryMapper.selectPendingOutbox(outboxBatchSize);
+                if (pending.isEmpty()) {
+                    break;
+                }
+                boolean refreshAll = false;
+                Set<Long> teacherIds = new LinkedHashSet<>();
+                List<Long> outboxIds = new ArrayList<>(pending.size());
+                for (TeacherSearchOutbox item : pending) {
+                    outboxIds.add(item.getId());
+                    if (item.getTeacherId() == null) {
+                        refreshAll = true;
+                    } else {
+                        teacherIds.add(item.getTeacherId());
+                    }
+                }
+                // 参数为空表示全部教师
+                List<Long> targets = refreshAll ? null : new ArrayList<>(teacherIds);
+                transactionTemplate.executeWithoutResult(status -> {
+                    teacherSummaryMapper.refreshSummaries(targets);
+                    teacherSummaryMapper.deleteStaleSummaries(targets);
+                    teacherSummaryMapper.deleteOutbox(outboxIds);
+                });
+                processed += pending.size();
+                if (pending.size() < outboxBatchSize) {
+                    break;
+                }
+            }
+        } catch (Exception e) {
+            log.error("处理教师汇总变更队列失败", e);
+        }
+        if (processed > 0) {
+            log.debug("教师汇总变更处理完成, 变更数: {}", processed);
+        }
+        return processed;
+    }
+
+    /**
+     * 启动时立即执行一次（不设初始延迟），保证新库或变更队列丢失时汇总表不为空
+     */
+    @Override
+    @Scheduled(fixedDelayString = "${teacher.summary.full-refresh-interval:600000}")
+    public void refreshAll() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            long start = System.currentTimeMillis();
+            transactionTemplate.executeWithoutResult(status -> {
+                teacherSummaryMapper.refreshSummaries(null);
+                teacherSummaryMapper.deleteStaleSummaries(null);
+            });
+            log.info("教师汇总全量重算完成, 耗时: {}ms", System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            log.error("教师汇总全量重算失败", e);
+        }
+    }
+
+    /**
+     * 教师数据变更时在发布方事务内写入变更队列（与业务数据同时提交或回滚）
+     */
+    @EventListener
+    public void onTeacherChanged(TeacherChangedEvent event) {
+        markChanged(event.getTeacherId());
+    }
+}
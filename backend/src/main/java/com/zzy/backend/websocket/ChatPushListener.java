@@ -0,0 +1,98 @@
+package com.zzy.backend.websocket;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zzy.backend.event.ChatEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 聊天事件推送监听器
+ * 事务提交后将聊天事件推送给在线的会话双方，推送帧格式：{"type": "...", "data": {...}}
+ */
+@Slf4j
+@Component
+public class ChatPushListener {
+
+    /**
+     * 推送类型：新消息
+     */
+    public static final String PUSH_MESSAGE = "message";
+
+    /**
+     * 推送类型：消息撤回
+     */
+    public static final String PUSH_RECALL = "recall";
+
+    /**
+     * 推送类型：对方已读
+     */
+    public static final String PUSH_READ = "read";
+
+    /**
+     * 推送类型：未读数变化
+     */
+    public static final String PUSH_UNREAD = "unread";
+
+    @Autowired
+    private WebSocketSessionManager sessionManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onChatEvent(ChatEvent event) {
+        switch (event.getType()) {
+            case MESSAGE:
+                // 双方都推送新消息（发送者的其他终端也需要同步）
+                push(event.getPeerId(), PUSH_MESSAGE, event.getMessage());
+                push(event.getOperatorId(), PUSH_MESSAGE, event.getMessage());
+                push(event.getPeerId(), PUSH_UNREAD, unreadDelta(event.getRelationshipId(), 1));
+                break;
+            case RECALL:
+                Map<String, Object> recall = new LinkedHashMap<>();
+                recall.put("relationshipId", event.getRelationshipId());
+                recall.put("messageId", event.getMessageId());
+                push(event.getPeerId(), PUSH_RECALL, recall);
+                push(event.getOperatorId(), PUSH_RECALL, recall);
+                break;
+            case READ:
+                Map<String, Object> read = new LinkedHashMap<>();
+                read.put("relationshipId", event.getRelationshipId());
+                read.put("readerId", event.getOperatorId());
+                read.put("readAt", event.getOccurredAt());
+                push(event.getPeerId(), PUSH_READ, read);
+                push(event.getOperatorId(), PUSH_UNREAD, unreadDelta(event.getRelationshipId(), -event.getReadCount()));
+                break;
+            default:
+                break;
+        }
+    }
+
+    private Map<String, Object> unreadDelta(Long relationshipId, int delta) {
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("relationshipId", relationshipId);
+        data.put("delta", delta);
+        return data;
+    }
+
+    private void push(Long userId, String type, Object data) {
+        if (!sessionManager.isOnline(userId)) {
+            return;
+        }
+        Map<String, Object> frame = new LinkedHashMap<>();
+        frame.put("type", type);
+        frame.put("data", data);
+        try {
+            sessionManager.sendToUser(userId, objectMapper.writeValueAsString(frame));
+        } catch (JsonProcessingException e) {
+            log.error("推送消息序列化失败, userId: {}, type: {}", userId, type, e);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.zzy.backend.websocket;
+
+import com.zzy.backend.interceptor.WebSocketAuthInterceptor;
+import com.zzy.backend.service.common.PresenceService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.TextWebSocketHandler;
+
+/**
+ * 聊天推送 WebSocket 处理器
+ * 仅用于服务端向客户端推送，客户端只需发送 ping 维持心跳（同时续期在线状态）
+ */
+@Slf4j
+@Component
+public class ChatWebSocketHandler extends TextWebSocketHandler {
+
+    @Autowired
+    private WebSocketSessionManager sessionManager;
+
+    @Autowired
+    private PresenceService presenceService;
+
+    @Override
+    public void afterConnectionEstablished(WebSocketSession session) {
+        Long userId = getUserId(session);
+        sessionManager.register(userId, session);
+        presenceService.heartbeat(userId);
+    }
+
+    @Override
+    protected void handleTextMessage(WebSocketSession session, TextMessage message) {
+        if ("ping".equalsIgnoreCase(message.getPayload().trim())) {
+            Long userId = getUserId(session);
+            presenceService.heartbeat(userId);
+            sessionManager.reply(userId, session, "pong");
+        }
+    }
+
+    @Override
+    public void handleTransportError(WebSocketSession session, Throwable exception) {
+        log.warn("WebSocket 传输异常, sessionId: {}, 错误: {}", session.getId(), exception.getMessage());
+    }
+
+    @Override
+    public void afterConnectionClosed(WebSocketSession session, CloseStatus status) {
+        Long userId = getUserId(session);
+        sessionManager.unregister(userId, session);
+        // 本实例上最后一个连接关闭时立即下线；其他终端仍在心跳时会在下次心跳重新上线
+        if (!sessionManager.isOnline(userId)) {
+            presenceService.offline(userId);
+        }
+    }
+
+    private Long getUserId(WebSocketSession session) {
+        return (Long) session.getAttributes().get(WebSocketAuthInterceptor.ATTR_USER_ID);
+    }
+}
@@ -0,0 +1,60 @@
+package com.zzy.backend.websocket;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zzy.backend.dto.response.student.notification.NotificationListItemResponse;
+import com.zzy.backend.event.NotificationEvent;
+import com.zzy.backend.mapper.student.notification.NotificationMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 通知推送监听器
+ * 新通知提交后推送给在线的接收用户，推送帧格式：{"type": "notification", "data": {...}}
+ */
+@Slf4j
+@Component
+public class NotificationPushListener {
+
+    /**
+     * 推送类型：新通知
+     */
+    public static final String PUSH_NOTIFICATION = "notification";
+
+    @Autowired
+    private WebSocketSessionManager sessionManager;
+
+    @Autowired
+    private NotificationMapper notificationMapper;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onNotificationEvent(NotificationEvent event) {
+        if (event.getType() != NotificationEvent.Type.CREATED || !sessionManager.isOnline(event.getUserId())) {
+            return;
+        }
+        List<NotificationListItemResponse> notifications = notificationMapper.selectNotificationsByIds(
+                event.getUserId(), Collections.singletonList(event.getNotificationId()));
+        if (notifications.isEmpty()) {
+            return;
+        }
+        Map<String, Object> frame = new LinkedHashMap<>();
+        frame.put("type", PUSH_NOTIFICATION);
+        frame.put("data", notifications.get(0));
+        try {
+            sessionManager.sendToUser(event.getUserId(), objectMapper.writeValueAsString(frame));
+        } catch (JsonProcessingException e) {
+            log.error("推送通知序列化失败, userId: {}, notificationId: {}", event.getUserId(), event.getNotificationId(), e);
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.zzy.backend.websocket;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * WebSocket 会话管理器
+ * 按用户维护在线连接（同一用户可多端同时在线）
+ */
+@Slf4j
+@Component
+public class WebSocketSessionManager {
+
+    /**
+     * 单次发送超时时间（毫秒）
+     */
+    private static final int SEND_TIME_LIMIT = 10 * 1000;
+
+    /**
+     * 单个连接的发送缓冲上限（字节），超过后关闭慢连接
+     */
+    private static final int BUFFER_SIZE_LIMIT = 512 * 1024;
+
+    /**
+     * userId -> (sessionId -> 线程安全的会话包装)
+     */
+    private final Map<Long, Map<String, WebSocketSession>> userSessions = new ConcurrentHashMap<>();
+
+    /**
+     * 注册连接
+     */
+    public void register(Long userId, WebSocketSession session) {
+        WebSocketSession decorated = new ConcurrentWebSocketSessionDecorator(session, SEND_TIME_LIMIT, BUFFER_SIZE_LIMIT);
+        userSessions.computeIfAbsent(userId, key -> new ConcurrentHashMap<>()).put(session.getId(), decorated);
+        log.info("WebSocket 连接建立, userId: {}, sessionId: {}", userId, session.getId());
+    }
+
+    /**
+     * 注销连接
+     */
+    public void unregister(Long userId, WebSocketSession session) {
+        userSessions.computeIfPresent(userId, (key, sessions) -> {
+            sessions.remove(session.getId());
+            return sessions.isEmpty() ? null : sessions;
+        });
+        log.info("WebSocket 连接关闭, userId: {}, sessionId: {}", userId, session.getId());
+    }
+
+    /**
+     * 用户是否有在线连接
+     */
+    public boolean isOnline(Long userId) {
+        return userId != null && userSessions.containsKey(userId);
+    }
+
+    /**
+     * 向用户的所有在线连接推送消息
+     *
+     * @return 成功推送的连接数
+     */
+    public int sendToUser(Long userId, String payload) {
+        if (userId == null) {
+            return 0;
+        }
+        Map<String, WebSocketSession> sessions = userSessions.get(userId);
+        if (sessions == null) {
+            return 0;
+        }
+        int sent = 0;
+        for (WebSocketSession session : sessions.values()) {
+            if (send(session, payload)) {
+                sent++;
+            }
+        }
+        return sent;
+    }
+
+    /**
+     * 回复指定连接（使用注册时的线程安全包装，避免与推送并发写）
+     */
+    public void reply(Long userId, WebSocketSession session, String payload) {
+        Map<String, WebSocketSession> sessions = userSessions.get(userId);
+        WebSocketSession decorated = sessions != null ? sessions.get(session.getId()) : null;
+        send(decorated != null ? decorated : session, payload);
+    }
+
+    private boolean send(WebSocketSession session, String payload) {
+        if (!session.isOpen()) {
+            return false;
+        }
+        try {
+            session.sendMessage(new TextMessage(payload));
+            return true;
+        } catch (IOException | IllegalStateException e) {
+            log.warn("WebSocket 推送失败, sessionId: {}, 错误: {}", session.getId(), e.getMessage());
+            try {
+                session.close(CloseStatus.SESSION_NOT_RELIABLE);
+            } catch (IOException ignored) {
+                // 连接已不可用，忽略关闭异常
+            }
+            return false;
+        }
+    }
+}
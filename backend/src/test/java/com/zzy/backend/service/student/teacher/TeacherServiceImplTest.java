@@ -0,0 +1,186 @@
+package com.zzy.backend.service.student.teacher;
+
+import com.zzy.backend.common.page.PageResult;
+import com.zzy.backend.dto.request.student.teacher.TeacherListRequest;
+import com.zzy.backend.dto.response.student.teacher.TeacherListItemResponse;
+import com.zzy.backend.dto.response.student.teacher.TeacherSubjectResponse;
+import com.zzy.backend.mapper.common.BatchLoader;
+import com.zzy.backend.mapper.student.teacher.TeacherMapper;
+import com.zzy.backend.service.common.PresenceService;
+import com.zzy.backend.service.student.teacher.impl.TeacherServiceImpl;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mockingDetails;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 教师列表查询次数测试：每页固定为 在线教师 + 总数 + 离线教师分页 + 按ID取列表项 + 批量科目，不随页码和教师数增长
+ */
+@ExtendWith(MockitoExtension.class)
+class TeacherServiceImplTest {
+
+    @Mock
+    private TeacherMapper teacherMapper;
+
+    /**
+     * 未就绪（默认返回 false），走数据库查询路径
+     */
+    @Mock
+    private TeacherSearchService teacherSearchService;
+
+    /**
+     * 在线快照为空（默认返回空集合）
+     */
+    @Mock
+    private PresenceService presenceService;
+
+    @InjectMocks
+    private TeacherServiceImpl teacherService;
+
+    @Test
+    void getTeacherListUsesConstantQueriesPerPage() {
+        List<TeacherListItemResponse> page = teachers(20);
+        when(teacherMapper.countTeacherList(any())).thenReturn(45L);
+        when(teacherMapper.selectOfflineTeacherIdPage(any())).thenReturn(ids(page));
+        when(teacherMapper.selectTeacherListByIds(anyList())).thenReturn(page);
+        when(teacherMapper.selectTeacherSubjectsByUserIds(anyList())).thenAnswer(invocation -> {
+            List<Long> ids = invocation.getArgument(0);
+            List<TeacherSubjectResponse> rows = new ArrayList<>();
+            // 偶数ID的教师有两个科目，奇数ID的教师没有科目
+            for (Long id : ids) {
+                if (id % 2 == 0) {
+                    rows.add(subject(id, 1));
+                    rows.add(subject(id, 2));
+                }
+            }
+            return rows;
+        });
+
+        TeacherListRequest request = new TeacherListRequest();
+        request.setPageSize(20);
+        PageResult<TeacherListItemResponse> result = teacherService.getTeacherList(request);
+
+        // 在线快照为空时不查询在线教师
+        verify(teacherMapper, never()).selectOnlineTeacherIds(any());
+        verify(teacherMapper, times(1)).countTeacherList(any());
+        verify(teacherMapper, times(1)).selectOfflineTeacherIdPage(any());
+        verify(teacherMapper, times(1)).selectTeacherListByIds(anyList());
+        verify(teacherMapper, times(1)).selectTeacherSubjectsByUserIds(anyList());
+        verify(teacherMapper, never()).selectTeacherSubjects(any());
+        assertEquals(4, mockingDetails(teacherMapper).getInvocations().size());
+        assertEquals(45L, result.getTotal());
+
+        assertEquals(20, result.getList().size());
+        for (TeacherListItemResponse teacher : result.getList()) {
+            int expected = teacher.getId() % 2 == 0 ? 2 : 0;
+            assertEquals(expected, teacher.getSubjects().size());
+        }
+    }
+
+    @Test
+    void getTeacherListSkipsPageQueriesWhenNothingMatches() {
+        when(teacherMapper.countTeacherList(any())).thenReturn(0L);
+
+        PageResult<TeacherListItemResponse> result = teacherService.getTeacherList(new TeacherListRequest());
+
+        verify(teacherMapper, never()).selectOfflineTeacherIdPage(any());
+        verify(teacherMapper, never()).selectTeacherListByIds(anyList());
+        verify(teacherMapper, never()).selectTeacherSubjectsByUserIds(anyList());
+        assertEquals(1, mockingDetails(teacherMapper).getInvocations().size());
+        assertTrue(result.getList().isEmpty());
+    }
+
+    @Test
+    void getTeacherListFillsPageWithOfflineTeachersAfterOnlineOnes() {
+        when(presenceService.getOnlineUserIds()).thenReturn(Set.of(7L, 9L, 100L));
+        when(teacherMapper.selectOnlineTeacherIds(any())).thenReturn(new ArrayList<>(List.of(9L, 7L)));
+        when(teacherMapper.countTeacherList(any())).thenReturn(10L);
+        when(teacherMapper.selectOfflineTeacherIdPage(any())).thenReturn(List.of(1L, 2L, 3L));
+        when(teacherMapper.selectTeacherListByIds(anyList())).thenAnswer(invocation -> teachersWithIds(invocation.getArgument(0)));
+
+        TeacherListRequest request = new TeacherListRequest();
+        request.setPage(2);
+        request.setPageSize(4);
+        PageResult<TeacherListItemResponse> result = teacherService.getTeacherList(request);
+
+        // 第 2 页：在线教师已在第 1 页用完，离线教师从第 3 个开始取（前 2 个离线教师在第 1 页）
+        ArgumentCaptor<TeacherListRequest> captor = ArgumentCaptor.forClass(TeacherListRequest.class);
+        verify(teacherMapper).selectOfflineTeacherIdPage(captor.capture());
+        assertEquals(List.of(9L, 7L), new ArrayList<>(captor.getValue().getExcludedUserIds()));
+        assertEquals(2, captor.getValue().getOfflineOffset());
+        assertEquals(4, captor.getValue().getOfflineLimit());
+        assertEquals(List.of(1L, 2L, 3L), ids(result.getList()));
+        assertTrue(result.getList().stream().allMatch(teacher -> teacher.getOnlineStatus() == 0));
+        assertEquals(10L, result.getTotal());
+    }
+
+    @Test
+    void batchLoaderSplitsLargeKeySetsIntoBatches() {
+        List<TeacherListItemResponse> owners = teachers(BatchLoader.DEFAULT_BATCH_SIZE * 2 + 1);
+        List<Integer> batchSizes = new ArrayList<>();
+
+        BatchLoader.attachMany(owners,
+                TeacherListItemResponse::getId,
+                ids -> {
+                    batchSizes.add(ids.size());
+                    return new ArrayList<TeacherSubjectResponse>();
+                },
+                TeacherSubjectResponse::getTeacherId,
+                (teacher, subjects) -> teacher.setSubjects(new ArrayList<>(subjects)));
+
+        assertEquals(List.of(BatchLoader.DEFAULT_BATCH_SIZE, BatchLoader.DEFAULT_BATCH_SIZE, 1), batchSizes);
+        assertTrue(owners.stream().allMatch(teacher -> teacher.getSubjects().isEmpty()));
+    }
+
+    private List<TeacherListItemResponse> teachers(int count) {
+        List<TeacherListItemResponse> list = new ArrayList<>();
+        for (long id = 1; id <= count; id++) {
+            TeacherListItemResponse teacher = new TeacherListItemResponse();
+            teacher.setId(id);
+            list.add(teacher);
+        }
+        return list;
+    }
+
+    private List<TeacherListItemResponse> teachersWithIds(List<Long> ids) {
+        List<TeacherListItemResponse> list = new ArrayList<>();
+        for (Long id : ids) {
+            TeacherListItemResponse teacher = new TeacherListItemResponse();
+            teacher.setId(id);
+            list.add(teacher);
+        }
+        return list;
+    }
+
+    private List<Long> ids(List<TeacherListItemResponse> teachers) {
+        List<Long> ids = new ArrayList<>();
+        for (TeacherListItemResponse teacher : teachers) {
+            ids.add(teacher.getId());
+        }
+        return ids;
+    }
+
+    private TeacherSubjectResponse subject(Long teacherId, int subjectId) {
+        TeacherSubjectResponse subject = new TeacherSubjectResponse();
+        subject.setTeacherId(teacherId);
+        subject.setId(subjectId);
+        subject.setName("科目" + subjectId);
+        return subject;
+    }
+}
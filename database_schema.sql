@@ -191,6 +191,41 @@ CREATE TABLE `teacher_teachings` (
   KEY `idx_deleted_at` (`deleted_at`)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='教师教学信息表';
 
+-- ============================================
+-- 8.1 教师搜索汇总表（派生数据）
+-- ============================================
+CREATE TABLE `teacher_search` (
+  `user_id` BIGINT UNSIGNED NOT NULL COMMENT '教师用户ID',
+  `nickname` VARCHAR(50) DEFAULT NULL COMMENT '昵称',
+  `real_name` VARCHAR(50) DEFAULT NULL COMMENT '真实姓名',
+  `avatar` VARCHAR(500) DEFAULT NULL COMMENT '头像URL',
+  `rating` DECIMAL(3,2) DEFAULT NULL COMMENT '综合评分（无教师资料时为空）',
+  `rating_count` INT NOT NULL DEFAULT 0 COMMENT '评价总数',
+  `teaching_years` INT NOT NULL DEFAULT 0 COMMENT '教学经验年限',
+  `certified` TINYINT NOT NULL DEFAULT 0 COMMENT '是否有已通过的认证：0-否，1-是',
+  `min_price` DECIMAL(10,2) DEFAULT NULL COMMENT '有效教学信息最低课时价格',
+  `max_price` DECIMAL(10,2) DEFAULT NULL COMMENT '有效教学信息最高课时价格',
+  `stage_ids` JSON NOT NULL COMMENT '教学阶段ID集合（JSON数组）',
+  `subject_ids` JSON NOT NULL COMMENT '科目ID集合（JSON数组）',
+  `subject_names` VARCHAR(500) DEFAULT NULL COMMENT '有效科目名称（|分隔，关键词搜索用）',
+  `user_created_at` DATETIME NOT NULL COMMENT '教师注册时间（排序用）',
+  `refreshed_at` DATETIME NOT NULL COMMENT '汇总刷新时间',
+  PRIMARY KEY (`user_id`),
+  KEY `idx_ranking` (`rating`, `user_created_at`),
+  KEY `idx_min_price` (`min_price`),
+  KEY `idx_max_price` (`max_price`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='教师搜索汇总表（由 users、teacher_profiles、teacher_certifications、teacher_teachings 派生）';
+
+-- ============================================
+-- 8.2 教师搜索汇总变更队列
+-- ============================================
+CREATE TABLE `teacher_search_outbox` (
+  `id` BIGINT UNSIGNED NOT NULL AUTO_INCREMENT COMMENT 'ID',
+  `teacher_id` BIGINT UNSIGNED DEFAULT NULL COMMENT '变更的教师用户ID（为空表示全部教师）',
+  `created_at` DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '写入时间',
+  PRIMARY KEY (`id`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='教师搜索汇总变更队列（与业务写入同事务）';
+
 -- ============================================
 -- 9. 教师空闲时间表
 -- ============================================
@@ -221,6 +256,7 @@ CREATE TABLE `teacher_schedules` (
 CREATE TABLE `appointments` (
   `id` BIGINT UNSIGNED NOT NULL AUTO_INCREMENT COMMENT '预约ID',
   `order_no` VARCHAR(50) NOT NULL COMMENT '订单号（唯一）',
+  `series_id` BIGINT UNSIGNED DEFAULT NULL COMMENT '周期预约ID（单次预约为空）',
   `student_id` BIGINT UNSIGNED NOT NULL COMMENT '学生用户ID',
   `teacher_id` BIGINT UNSIGNED NOT NULL COMMENT '教师用户ID',
   `stage_id` INT UNSIGNED NOT NULL COMMENT '教学阶段ID',
@@ -242,6 +278,7 @@ CREATE TABLE `appointments` (
   `dingtalk_url` VARCHAR(500) DEFAULT NULL COMMENT '钉钉会议链接',
   `confirmed_at` DATETIME DEFAULT NULL COMMENT '确认时间',
   `completed_at` DATETIME DEFAULT NULL COMMENT '完成时间',
+  `reminded_at` DATETIME DEFAULT NULL COMMENT '上课提醒发送时间',
   `extra` JSON DEFAULT NULL COMMENT '扩展信息',
   `version` INT UNSIGNED NOT NULL DEFAULT 1 COMMENT '版本号（乐观锁）',
   `created_at` DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP,
@@ -252,11 +289,53 @@ CREATE TABLE `appointments` (
   KEY `idx_student_id` (`student_id`),
   KEY `idx_teacher_id` (`teacher_id`),
   KEY `idx_status` (`status`),
+  KEY `idx_status_date_end` (`status`, `appointment_date`, `end_time`),
   KEY `idx_appointment_date` (`appointment_date`),
   KEY `idx_created_at` (`created_at`),
+  KEY `idx_series_id` (`series_id`),
   KEY `idx_deleted_at` (`deleted_at`)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='预约表';
 
+-- ============================================
+-- 10.1 预约时间格占用表
+-- ============================================
+CREATE TABLE `appointment_slot_locks` (
+  `id` BIGINT UNSIGNED NOT NULL AUTO_INCREMENT COMMENT 'ID',
+  `teacher_id` BIGINT UNSIGNED NOT NULL COMMENT '教师用户ID',
+  `slot_date` DATE NOT NULL COMMENT '日期',
+  `slot_index` SMALLINT UNSIGNED NOT NULL COMMENT '5分钟时间格序号（0-287）',
+  `appointment_id` BIGINT UNSIGNED NOT NULL COMMENT '占用的预约ID',
+  `created_at` DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP,
+  PRIMARY KEY (`id`),
+  UNIQUE KEY `uk_teacher_slot` (`teacher_id`, `slot_date`, `slot_index`),
+  KEY `idx_appointment_id` (`appointment_id`),
+  KEY `idx_slot_date` (`slot_date`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='预约时间格占用表（防止教师时间重复预约）';
+
+-- ============================================
+-- 10.2 周期预约表
+-- ============================================
+CREATE TABLE `appointment_series` (
+  `id` BIGINT UNSIGNED NOT NULL AUTO_INCREMENT COMMENT '周期预约ID',
+  `student_id` BIGINT UNSIGNED NOT NULL COMMENT '学生用户ID',
+  `teacher_id` BIGINT UNSIGNED NOT NULL COMMENT '教师用户ID',
+  `stage_id` INT UNSIGNED NOT NULL COMMENT '教学阶段ID',
+  `subject_id` INT UNSIGNED NOT NULL COMMENT '科目ID',
+  `weekdays` VARCHAR(20) NOT NULL COMMENT '每周上课日（1-7，逗号分隔）',
+  `start_time` TIME NOT NULL COMMENT '开始时间',
+  `end_time` TIME NOT NULL COMMENT '结束时间',
+  `start_date` DATE NOT NULL COMMENT '首次课程日期',
+  `end_date` DATE NOT NULL COMMENT '末次课程日期',
+  `occurrence_count` INT NOT NULL COMMENT '课程次数',
+  `created_at` DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP,
+  `updated_at` DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+  `deleted_at` DATETIME DEFAULT NULL,
+  PRIMARY KEY (`id`),
+  KEY `idx_student_id` (`student_id`),
+  KEY `idx_teacher_id` (`teacher_id`),
+  KEY `idx_deleted_at` (`deleted_at`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='周期预约表';
+
 -- ============================================
 -- 11. 支付记录表（增强版）
 -- ============================================
@@ -360,6 +439,8 @@ CREATE TABLE `chat_relationships` (
   `appointment_id` BIGINT UNSIGNED DEFAULT NULL COMMENT '关联预约ID（建立聊天关系的预约）',
   `user1_unread_count` INT DEFAULT 0 COMMENT '用户1未读消息数',
   `user2_unread_count` INT DEFAULT 0 COMMENT '用户2未读消息数',
+  `user1_last_read_message_id` BIGINT UNSIGNED NOT NULL DEFAULT 0 COMMENT '用户1已读水位（已读到的最大消息ID）',
+  `user2_last_read_message_id` BIGINT UNSIGNED NOT NULL DEFAULT 0 COMMENT '用户2已读水位（已读到的最大消息ID）',
   `user1_top` TINYINT DEFAULT 0 COMMENT '用户1是否置顶：0-否，1-是',
   `user2_top` TINYINT DEFAULT 0 COMMENT '用户2是否置顶：0-否，1-是',
   `last_message_id` BIGINT UNSIGNED DEFAULT NULL COMMENT '最后一条消息ID',
@@ -395,8 +476,8 @@ CREATE TABLE `chat_messages` (
   `image_width` INT DEFAULT NULL COMMENT '图片宽度',
   `image_height` INT DEFAULT NULL COMMENT '图片高度',
   `thumbnail_url` VARCHAR(500) DEFAULT NULL COMMENT '缩略图URL',
-  `is_read` TINYINT NOT NULL DEFAULT 0 COMMENT '是否已读：0-未读，1-已读',
-  `read_at` DATETIME DEFAULT NULL COMMENT '已读时间',
+  `is_read` TINYINT NOT NULL DEFAULT 0 COMMENT '是否已读（已废弃，已读状态由 chat_relationships 已读水位推导）',
+  `read_at` DATETIME DEFAULT NULL COMMENT '已读时间（已废弃）',
   `is_recalled` TINYINT NOT NULL DEFAULT 0 COMMENT '是否已撤回：0-否，1-是',
   `recalled_at` DATETIME DEFAULT NULL COMMENT '撤回时间',
   `status` TINYINT NOT NULL DEFAULT 1 COMMENT '消息状态：1-正常，2-已删除',
@@ -405,14 +486,44 @@ CREATE TABLE `chat_messages` (
   `updated_at` DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
   `deleted_at` DATETIME DEFAULT NULL,
   PRIMARY KEY (`id`),
-  KEY `idx_relationship_id` (`relationship_id`),
+  KEY `idx_relationship_id_id` (`relationship_id`, `id`),
   KEY `idx_sender_id` (`sender_id`),
   KEY `idx_receiver_id` (`receiver_id`),
   KEY `idx_created_at` (`created_at`),
-  KEY `idx_is_read` (`is_read`),
   KEY `idx_deleted_at` (`deleted_at`)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='聊天消息表';
 
+-- ============================================
+-- 15.1 聊天消息归档表（冷数据）
+-- ============================================
+CREATE TABLE `chat_messages_archive` (
+  `id` BIGINT UNSIGNED NOT NULL COMMENT '消息ID（与 chat_messages 一致）',
+  `relationship_id` BIGINT UNSIGNED NOT NULL COMMENT '聊天关系ID',
+  `sender_id` BIGINT UNSIGNED NOT NULL COMMENT '发送者ID',
+  `receiver_id` BIGINT UNSIGNED NOT NULL COMMENT '接收者ID',
+  `message_type` TINYINT NOT NULL COMMENT '消息类型：1-文本，2-文件，3-语音，4-图片',
+  `content` TEXT DEFAULT NULL COMMENT '消息内容（文本消息或JSON格式）',
+  `file_url` VARCHAR(500) DEFAULT NULL COMMENT '文件URL（文件/语音/图片）',
+  `file_name` VARCHAR(255) DEFAULT NULL COMMENT '文件名',
+  `file_size` BIGINT DEFAULT NULL COMMENT '文件大小（字节）',
+  `duration` INT DEFAULT NULL COMMENT '语音时长（秒）',
+  `image_width` INT DEFAULT NULL COMMENT '图片宽度',
+  `image_height` INT DEFAULT NULL COMMENT '图片高度',
+  `thumbnail_url` VARCHAR(500) DEFAULT NULL COMMENT '缩略图URL',
+  `is_read` TINYINT NOT NULL DEFAULT 0 COMMENT '是否已读（已废弃）',
+  `read_at` DATETIME DEFAULT NULL COMMENT '已读时间（已废弃）',
+  `is_recalled` TINYINT NOT NULL DEFAULT 0 COMMENT '是否已撤回：0-否，1-是',
+  `recalled_at` DATETIME DEFAULT NULL COMMENT '撤回时间',
+  `status` TINYINT NOT NULL DEFAULT 1 COMMENT '消息状态：1-正常，2-已删除',
+  `extra` JSON DEFAULT NULL COMMENT '扩展信息',
+  `created_at` DATETIME NOT NULL COMMENT '发送时间',
+  `updated_at` DATETIME NOT NULL,
+  `deleted_at` DATETIME DEFAULT NULL,
+  `archived_at` DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '归档时间',
+  PRIMARY KEY (`relationship_id`, `id`),
+  KEY `idx_id` (`id`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 ROW_FORMAT=COMPRESSED KEY_BLOCK_SIZE=8 COMMENT='聊天消息归档表（冷数据，只追加）';
+
 -- ============================================
 -- 16. 通话记录表
 -- ============================================
@@ -682,6 +793,9 @@ INSERT INTO `teacher_teachings` (`user_id`, `stage_id`, `subject_id`, `price_per
 (6, 2, 2, 160.00, 1),
 (6, 3, 2, 180.00, 1);
 
+-- 6.1 教师搜索汇总变更队列：写入一条全量刷新请求，应用启动后由后台任务生成 teacher_search
+INSERT INTO `teacher_search_outbox` (`teacher_id`) VALUES (NULL);
+
 -- 7. 教师空闲时间表
 INSERT INTO `teacher_schedules` (`user_id`, `weekday`, `start_time`, `end_time`, `schedule_type`, `status`) VALUES
 -- 张老师：周一、周三、周五 晚上
@@ -0,0 +1,192 @@
+-- ============================================
+-- 线上家教接单系统 - 数据库升级SQL
+-- 说明: 已按 database_schema.sql 初始化的库，按顺序执行以下变更
+-- ============================================
+
+SET NAMES utf8mb4;
+
+-- ============================================
+-- 1. 聊天消息游标分页索引
+-- ============================================
+ALTER TABLE `chat_messages`
+  ADD KEY `idx_relationship_id_id` (`relationship_id`, `id`),
+  DROP KEY `idx_relationship_id`;
+
+
+-- ============================================
+-- 2. 聊天已读水位
+-- ============================================
+ALTER TABLE `chat_relationships`
+  ADD COLUMN `user1_last_read_message_id` BIGINT UNSIGNED NOT NULL DEFAULT 0 COMMENT '用户1已读水位（已读到的最大消息ID）' AFTER `user2_unread_count`,
+  ADD COLUMN `user2_last_read_message_id` BIGINT UNSIGNED NOT NULL DEFAULT 0 COMMENT '用户2已读水位（已读到的最大消息ID）' AFTER `user1_last_read_message_id`;
+
+-- 按历史逐行已读状态回填水位
+UPDATE `chat_relationships` cr
+SET cr.`user1_last_read_message_id` = COALESCE((
+      SELECT MAX(cm.`id`) FROM `chat_messages` cm
+      WHERE cm.`relationship_id` = cr.`id` AND cm.`receiver_id` = cr.`user1_id` AND cm.`is_read` = 1), 0),
+    cr.`user2_last_read_message_id` = COALESCE((
+      SELECT MAX(cm.`id`) FROM `chat_messages` cm
+      WHERE cm.`relationship_id` = cr.`id` AND cm.`receiver_id` = cr.`user2_id` AND cm.`is_read` = 1), 0);
+
+ALTER TABLE `chat_messages`
+  DROP KEY `idx_is_read`;
+
+-- ============================================
+-- 3. 聊天消息归档表（需 innodb_file_per_table=ON）
+-- ============================================
+CREATE TABLE `chat_messages_archive` (
+  `id` BIGINT UNSIGNED NOT NULL COMMENT '消息ID（与 chat_messages 一致）',
+  `relationship_id` BIGINT UNSIGNED NOT NULL COMMENT '聊天关系ID',
+  `sender_id` BIGINT UNSIGNED NOT NULL COMMENT '发送者ID',
+  `receiver_id` BIGINT UNSIGNED NOT NULL COMMENT '接收者ID',
+  `message_type` TINYINT NOT NULL COMMENT '消息类型：1-文本，2-文件，3-语音，4-图片',
+  `content` TEXT DEFAULT NULL COMMENT '消息内容（文本消息或JSON格式）',
+  `file_url` VARCHAR(500) DEFAULT NULL COMMENT '文件URL（文件/语音/图片）',
+  `file_name` VARCHAR(255) DEFAULT NULL COMMENT '文件名',
+  `file_size` BIGINT DEFAULT NULL COMMENT '文件大小（字节）',
+  `duration` INT DEFAULT NULL COMMENT '语音时长（秒）',
+  `image_width` INT DEFAULT NULL COMMENT '图片宽度',
+  `image_height` INT DEFAULT NULL COMMENT '图片高度',
+  `thumbnail_url` VARCHAR(500) DEFAULT NULL COMMENT '缩略图URL',
+  `is_read` TINYINT NOT NULL DEFAULT 0 COMMENT '是否已读（已废弃）',
+  `read_at` DATETIME DEFAULT NULL COMMENT '已读时间（已废弃）',
+  `is_recalled` TINYINT NOT NULL DEFAULT 0 COMMENT '是否已撤回：0-否，1-是',
+  `recalled_at` DATETIME DEFAULT NULL COMMENT '撤回时间',
+  `status` TINYINT NOT NULL DEFAULT 1 COMMENT '消息状态：1-正常，2-已删除',
+  `extra` JSON DEFAULT NULL COMMENT '扩展信息',
+  `created_at` DATETIME NOT NULL COMMENT '发送时间',
+  `updated_at` DATETIME NOT NULL,
+  `deleted_at` DATETIME DEFAULT NULL,
+  `archived_at` DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '归档时间',
+  PRIMARY KEY (`relationship_id`, `id`),
+  KEY `idx_id` (`id`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 ROW_FORMAT=COMPRESSED KEY_BLOCK_SIZE=8 COMMENT='聊天消息归档表（冷数据，只追加）';
+
+-- ============================================
+-- 4. 教师搜索汇总表与变更队列
+-- ============================================
+CREATE TABLE `teacher_search` (
+  `user_id` BIGINT UNSIGNED NOT NULL COMMENT '教师用户ID',
+  `nickname` VARCHAR(50) DEFAULT NULL COMMENT '昵称',
+  `real_name` VARCHAR(50) DEFAULT NULL COMMENT '真实姓名',
+  `avatar` VARCHAR(500) DEFAULT NULL COMMENT '头像URL',
+  `rating` DECIMAL(3,2) DEFAULT NULL COMMENT '综合评分（无教师资料时为空）',
+  `rating_count` INT NOT NULL DEFAULT 0 COMMENT '评价总数',
+  `teaching_years` INT NOT NULL DEFAULT 0 COMMENT '教学经验年限',
+  `certified` TINYINT NOT NULL DEFAULT 0 COMMENT '是否有已通过的认证：0-否，1-是',
+  `online_status` TINYINT NOT NULL DEFAULT 0 COMMENT '在线状态：0-离线，1-在线',
+  `min_price` DECIMAL(10,2) DEFAULT NULL COMMENT '有效教学信息最低课时价格',
+  `max_price` DECIMAL(10,2) DEFAULT NULL COMMENT '有效教学信息最高课时价格',
+  `stage_ids` JSON NOT NULL COMMENT '教学阶段ID集合（JSON数组）',
+  `subject_ids` JSON NOT NULL COMMENT '科目ID集合（JSON数组）',
+  `subject_names` VARCHAR(500) DEFAULT NULL COMMENT '有效科目名称（|分隔，关键词搜索用）',
+  `user_created_at` DATETIME NOT NULL COMMENT '教师注册时间（排序用）',
+  `refreshed_at` DATETIME NOT NULL COMMENT '汇总刷新时间',
+  PRIMARY KEY (`user_id`),
+  KEY `idx_ranking` (`online_status`, `rating`, `user_created_at`),
+  KEY `idx_min_price` (`min_price`),
+  KEY `idx_max_price` (`max_price`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='教师搜索汇总表（由 users、teacher_profiles、teacher_certifications、teacher_teachings 派生）';
+
+CREATE TABLE `teacher_search_outbox` (
+  `id` BIGINT UNSIGNED NOT NULL AUTO_INCREMENT COMMENT 'ID',
+  `teacher_id` BIGINT UNSIGNED DEFAULT NULL COMMENT '变更的教师用户ID（为空表示全部教师）',
+  `created_at` DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '写入时间',
+  PRIMARY KEY (`id`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='教师搜索汇总变更队列（与业务写入同事务）';
+
+-- MySQL 8.0.17 及以上可添加多值索引加速阶段、科目筛选
+-- ALTER TABLE `teacher_search` ADD KEY `idx_stage_ids` ((CAST(`stage_ids` AS UNSIGNED ARRAY)));
+-- ALTER TABLE `teacher_search` ADD KEY `idx_subject_ids` ((CAST(`subject_ids` AS UNSIGNED ARRAY)));
+
+-- 初始化汇总数据：写入一条全量刷新请求，应用启动后由后台任务处理
+INSERT INTO `teacher_search_outbox` (`teacher_id`) VALUES (NULL);
+
+-- ============================================
+-- 5. 预约时间格占用表
+-- ============================================
+CREATE TABLE `appointment_slot_locks` (
+  `id` BIGINT UNSIGNED NOT NULL AUTO_INCREMENT COMMENT 'ID',
+  `teacher_id` BIGINT UNSIGNED NOT NULL COMMENT '教师用户ID',
+  `slot_date` DATE NOT NULL COMMENT '日期',
+  `slot_index` SMALLINT UNSIGNED NOT NULL COMMENT '5分钟时间格序号（0-287）',
+  `appointment_id` BIGINT UNSIGNED NOT NULL COMMENT '占用的预约ID',
+  `created_at` DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP,
+  PRIMARY KEY (`id`),
+  UNIQUE KEY `uk_teacher_slot` (`teacher_id`, `slot_date`, `slot_index`),
+  KEY `idx_appointment_id` (`appointment_id`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='预约时间格占用表（防止教师时间重复预约）';
+
+-- 按现有未取消预约回填占用（需 MySQL 8.0，已存在冲突的历史预约保留先写入的一条）
+INSERT IGNORE INTO `appointment_slot_locks` (`teacher_id`, `slot_date`, `slot_index`, `appointment_id`)
+WITH RECURSIVE `slots` (`slot_index`) AS (
+  SELECT 0
+  UNION ALL
+  SELECT `slot_index` + 1 FROM `slots` WHERE `slot_index` < 287
+)
+SELECT a.`teacher_id`, a.`appointment_date`, s.`slot_index`, a.`id`
+FROM `appointments` a
+INNER JOIN `slots` s
+  ON s.`slot_index` >= FLOOR(TIME_TO_SEC(a.`start_time`) / 300)
+ AND s.`slot_index` < CEIL(TIME_TO_SEC(a.`end_time`) / 300)
+WHERE a.`status` != 4
+  AND a.`deleted_at` IS NULL
+  AND a.`appointment_date` >= CURDATE()
+ORDER BY a.`id`;
+
+-- ============================================
+-- 6. 周期预约
+-- ============================================
+ALTER TABLE `appointments`
+  ADD COLUMN `series_id` BIGINT UNSIGNED DEFAULT NULL COMMENT '周期预约ID（单次预约为空）' AFTER `order_no`,
+  ADD KEY `idx_series_id` (`series_id`);
+
+CREATE TABLE `appointment_series` (
+  `id` BIGINT UNSIGNED NOT NULL AUTO_INCREMENT COMMENT '周期预约ID',
+  `student_id` BIGINT UNSIGNED NOT NULL COMMENT '学生用户ID',
+  `teacher_id` BIGINT UNSIGNED NOT NULL COMMENT '教师用户ID',
+  `stage_id` INT UNSIGNED NOT NULL COMMENT '教学阶段ID',
+  `subject_id` INT UNSIGNED NOT NULL COMMENT '科目ID',
+  `weekdays` VARCHAR(20) NOT NULL COMMENT '每周上课日（1-7，逗号分隔）',
+  `start_time` TIME NOT NULL COMMENT '开始时间',
+  `end_time` TIME NOT NULL COMMENT '结束时间',
+  `start_date` DATE NOT NULL COMMENT '首次课程日期',
+  `end_date` DATE NOT NULL COMMENT '末次课程日期',
+  `occurrence_count` INT NOT NULL COMMENT '课程次数',
+  `created_at` DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP,
+  `updated_at` DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+  `deleted_at` DATETIME DEFAULT NULL,
+  PRIMARY KEY (`id`),
+  KEY `idx_student_id` (`student_id`),
+  KEY `idx_teacher_id` (`teacher_id`),
+  KEY `idx_deleted_at` (`deleted_at`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='周期预约表';
+
+-- ============================================
+-- 7. 预约生命周期
+-- ============================================
+ALTER TABLE `appointments`
+  ADD KEY `idx_status_date_end` (`status`, `appointment_date`, `end_time`);
+
+-- ============================================
+-- 8. 上课提醒
+-- ============================================
+ALTER TABLE `appointments`
+  ADD COLUMN `reminded_at` DATETIME DEFAULT NULL COMMENT '上课提醒发送时间' AFTER `completed_at`;
+
+-- ============================================
+-- 9. 教师搜索汇总表去除在线状态
+-- ============================================
+-- 在线状态只保存在 Redis 在线快照中，在线教师优先在应用内排序
+ALTER TABLE `teacher_search`
+  DROP KEY `idx_ranking`,
+  DROP COLUMN `online_status`,
+  ADD KEY `idx_ranking` (`rating`, `user_created_at`);
+
+-- ============================================
+-- 10. 清理过去日期的时间格占用
+-- ============================================
+-- 预约生命周期任务按日期分批删除今天之前的占用记录
+ALTER TABLE `appointment_slot_locks`
+  ADD KEY `idx_slot_date` (`slot_date`);
@@ -15,8 +15,8 @@ export const getAppointmentDetail = (id) => {
   return request.get(`/appointment/${id}`)
 }
 
-// 取消预约
-export const cancelAppointment = (id, reason) => {
-  return request.put(`/appointment/${id}/cancel`, { reason })
+// 取消预约（version 取自列表或详情，用于并发修改校验）
+export const cancelAppointment = (id, reason, version) => {
+  return request.put(`/appointment/${id}/cancel`, { reason, version })
 }
 
@@ -20,9 +20,9 @@ export const uploadPaymentProof = (id, data) => {
   return request.post(`/payment/${id}/proof`, data)
 }
 
-// 更新支付方式
-export const updatePaymentMethod = (id, paymentMethod) => {
-  return request.put(`/payment/${id}/method`, null, { params: { paymentMethod } })
+// 更新支付方式（version 取自支付详情，用于并发修改校验）
+export const updatePaymentMethod = (id, paymentMethod, version) => {
+  return request.put(`/payment/${id}/method`, null, { params: { paymentMethod, version } })
 }
 
 // 申请退款
@@ -0,0 +1,157 @@
+import { ref, watch, onUnmounted } from 'vue'
+import { useUserStore } from '@/stores/user'
+
+/**
+ * 实时推送连接 composable（全局共享一个 WebSocket）
+ * 主布局和聊天窗口通过 connect/disconnect 引用计数共用连接，页面通过 onFrame 订阅推送帧；
+ * 连接断开期间（connected 为 false）由 pollWhileDisconnected 启用原有轮询兜底。
+ */
+
+// 心跳间隔（毫秒），同时用于服务端在线状态续期
+const HEARTBEAT_INTERVAL = 30000
+// 断线重连间隔（毫秒）
+const RECONNECT_DELAY = 3000
+
+const connected = ref(false)
+const handlers = new Set()
+let ws = null
+let heartbeatTimer = null
+let reconnectTimer = null
+let refCount = 0
+
+const buildUrl = (token) => {
+  const protocol = window.location.protocol === 'https:' ? 'wss' : 'ws'
+  const baseUrl = import.meta.env.VITE_API_BASE_URL || '/api'
+  return baseUrl.startsWith('http')
+    ? `${baseUrl.replace(/^http/, 'ws')}/ws?token=${token}`
+    : `${protocol}://${window.location.host}${baseUrl}/ws?token=${token}`
+}
+
+const open = () => {
+  const userStore = useUserStore()
+  if (ws || refCount === 0 || !userStore.token) {
+    return
+  }
+  const socket = new WebSocket(buildUrl(userStore.token))
+  ws = socket
+
+  socket.onopen = () => {
+    connected.value = true
+    heartbeatTimer = setInterval(() => {
+      if (socket.readyState === WebSocket.OPEN) {
+        socket.send('ping')
+      }
+    }, HEARTBEAT_INTERVAL)
+  }
+
+  socket.onmessage = (event) => {
+    if (event.data === 'pong') {
+      return
+    }
+    let frame
+    try {
+      frame = JSON.parse(event.data)
+    } catch (error) {
+      console.error('解析推送消息失败:', error)
+      return
+    }
+    handlers.forEach(handler => handler(frame))
+  }
+
+  socket.onerror = (error) => {
+    console.error('WebSocket error:', error)
+  }
+
+  socket.onclose = () => {
+    clearInterval(heartbeatTimer)
+    heartbeatTimer = null
+    if (ws === socket) {
+      ws = null
+    }
+    connected.value = false
+    // 仍有使用者时自动重连
+    if (refCount > 0 && !reconnectTimer) {
+      reconnectTimer = setTimeout(() => {
+        reconnectTimer = null
+        open()
+      }, RECONNECT_DELAY)
+    }
+  }
+}
+
+const close = () => {
+  clearTimeout(reconnectTimer)
+  reconnectTimer = null
+  if (ws) {
+    const socket = ws
+    ws = null
+    socket.close()
+  }
+  connected.value = false
+}
+
+export function useRealtime() {
+  /**
+   * 建立（或复用）连接
+   */
+  const connect = () => {
+    refCount++
+    open()
+  }
+
+  /**
+   * 释放连接，最后一个使用者释放时关闭
+   */
+  const disconnect = () => {
+    refCount = Math.max(0, refCount - 1)
+    if (refCount === 0) {
+      close()
+    }
+  }
+
+  /**
+   * 订阅推送帧（{ type, data }），组件卸载时自动取消订阅
+   * @param {Function} handler - 处理函数
+   */
+  const onFrame = (handler) => {
+    handlers.add(handler)
+    onUnmounted(() => handlers.delete(handler))
+  }
+
+  /**
+   * 仅在推送连接断开时轮询；连接恢复时立即执行一次以补齐断线期间的变化
+   * @param {Function} callback - 轮询执行的函数
+   * @param {number} interval - 轮询间隔（毫秒）
+   */
+  const pollWhileDisconnected = (callback, interval) => {
+    let timer = null
+    const stop = () => {
+      if (timer) {
+        clearInterval(timer)
+        timer = null
+      }
+    }
+    const stopWatch = watch(connected, (isConnected, wasConnected) => {
+      if (isConnected) {
+        stop()
+        if (wasConnected === false) {
+          callback()
+        }
+      } else if (!timer) {
+        timer = setInterval(callback, interval)
+      }
+    }, { immediate: true })
+    onUnmounted(() => {
+      stopWatch()
+      stop()
+    })
+  }
+
+  return {
+    connected,
+    connect,
+    disconnect,
+    onFrame,
+    pollWhileDisconnected
+  }
+}
@@ -21,7 +21,8 @@ export default defineConfig({
       '/api': {
         target: 'http://localhost:8080',
         changeOrigin: true,
-        secure: false
+        secure: false,
+        ws: true
         // 后端 context-path 是 /api，所以代理 /api 到 http://localhost:8080/api
       }
     }
@@ -0,0 +1,11 @@
+import request from './request'
+
+// 在线心跳
+export const heartbeat = () => {
+  return request.post('/presence/heartbeat')
+}
+
+// 主动下线
+export const offline = () => {
+  return request.post('/presence/offline')
+}
@@ -0,0 +1,42 @@
+import { onMounted, onUnmounted } from 'vue'
+import { heartbeat } from '@/api/presence'
+
+/**
+ * 在线状态心跳 composable
+ * 登录后定期调用心跳接口续期在线状态（服务端有效期 90 秒），学生端据此将在线教师排在前面；
+ * 页面重新可见时立即补发一次，关闭页面后不再续期，过期即视为离线。
+ */
+
+// 心跳间隔（毫秒），需小于服务端心跳有效期
+const HEARTBEAT_INTERVAL = 30000
+
+export function usePresence() {
+  let timer = null
+
+  const beat = () => {
+    if (!localStorage.getItem('token')) {
+      return
+    }
+    heartbeat().catch((error) => {
+      console.error('在线心跳失败:', error)
+    })
+  }
+
+  const handleVisibilityChange = () => {
+    if (document.visibilityState === 'visible') {
+      beat()
+    }
+  }
+
+  onMounted(() => {
+    beat()
+    timer = setInterval(beat, HEARTBEAT_INTERVAL)
+    document.addEventListener('visibilitychange', handleVisibilityChange)
+  })
+
+  onUnmounted(() => {
+    clearInterval(timer)
+    timer = null
+    document.removeEventListener('visibilitychange', handleVisibilityChange)
+  })
+}